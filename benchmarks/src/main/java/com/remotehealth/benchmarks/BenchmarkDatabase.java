@@ -0,0 +1,174 @@
+/**
+ * BenchmarkDatabase creates an in-memory H2 database in MySQL compatibility
+ * mode with the hospital schema, and fills it with a synthetic dataset of a
+ * given size. Data is bulk-loaded over plain JDBC so setup time stays small
+ * compared to the measured DatabaseManager calls.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+public final class BenchmarkDatabase {
+
+    public static final int DOCTORS = 10;
+    public static final String USER = "sa";
+    public static final String PASSWORD = "";
+    private static final int LOAD_BATCH = 10000;
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE patients (id varchar(20) PRIMARY KEY, name varchar(100), email varchar(100), password varchar(100))",
+        "CREATE TABLE doctors (id varchar(20) PRIMARY KEY, name varchar(100), email varchar(100), " +
+            "password varchar(100), specialization varchar(100))",
+        "CREATE TABLE appointments (id int AUTO_INCREMENT PRIMARY KEY, patient_id varchar(20), doctor_id varchar(20), " +
+            "date_time datetime, status varchar(20), version int NOT NULL DEFAULT 0)",
+        "CREATE INDEX idx_appointments_doctor_time ON appointments (doctor_id, date_time)",
+        "CREATE INDEX idx_appointments_patient_time ON appointments (patient_id, date_time)",
+        "CREATE TABLE vitals (id int AUTO_INCREMENT PRIMARY KEY, patientId varchar(20), heartRate int, oxygenLevel int, " +
+            "bloodPressure varchar(50), systolic int NULL, diastolic int NULL, temperature double, added_on datetime)",
+        "CREATE INDEX idx_vitals_patient_time ON vitals (patientId, added_on)",
+        "CREATE TABLE vitals_rollups (patientId varchar(20) NOT NULL, resolution varchar(10) NOT NULL, " +
+            "bucket_start datetime NOT NULL, sample_count int NOT NULL, hr_min int, hr_max int, hr_sum bigint, " +
+            "ox_min int, ox_max int, ox_sum bigint, temp_min double, temp_max double, temp_sum double, " +
+            "bp_count int NOT NULL DEFAULT 0, sys_min int, sys_max int, sys_sum bigint NOT NULL DEFAULT 0, " +
+            "dia_min int, dia_max int, dia_sum bigint NOT NULL DEFAULT 0, " +
+            "PRIMARY KEY (patientId, resolution, bucket_start))",
+        "CREATE TABLE emergencies (id int AUTO_INCREMENT PRIMARY KEY, message varchar(255), timestamp datetime, " +
+            "patientId varchar(20), type varchar(50), acknowledged boolean, reading_at datetime NULL)",
+        "CREATE UNIQUE INDEX uq_emergency_reading ON emergencies (patientId, type, reading_at)",
+        "CREATE INDEX idx_emergencies_ack_time ON emergencies (acknowledged, timestamp)",
+        "CREATE TABLE logs (id int AUTO_INCREMENT PRIMARY KEY, message text, created_at datetime, " +
+            "level varchar(5) NOT NULL DEFAULT 'INFO', category varchar(10) NOT NULL DEFAULT 'GENERAL', " +
+            "user_id varchar(50) NULL, event_type varchar(30) NOT NULL DEFAULT 'MESSAGE', " +
+            "outcome varchar(10) NOT NULL DEFAULT 'SUCCESS', subject_id varchar(50) NULL, latency_ms int NULL)",
+        "CREATE INDEX idx_logs_time ON logs (created_at, id)",
+        "CREATE INDEX idx_logs_level_time ON logs (level, created_at, id)",
+        "CREATE INDEX idx_logs_category_time ON logs (category, created_at, id)",
+        "CREATE INDEX idx_logs_user_time ON logs (user_id, created_at, id)",
+        "CREATE INDEX idx_logs_event_time ON logs (event_type, outcome, created_at)"
+    };
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * @param name A name unique to the benchmark trial
+     * @return JDBC URL of a named in-memory database that lives until the JVM exits
+     */
+    public static String url(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * Creates the schema and loads the dataset.
+     *
+     * @param url JDBC URL from {@link #url(String)}
+     * @param patients Number of patients
+     * @param vitalsRows Number of vitals rows, spread evenly over the patients one minute apart
+     */
+    public static void create(String url, int patients, int vitalsRows) throws SQLException {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.now().minusMinutes(vitalsRows / patients + 1).withNano(0);
+
+        try (Connection conn = DriverManager.getConnection(url, USER, PASSWORD)) {
+            try (Statement stmt = conn.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    stmt.execute(ddl);
+                }
+            }
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO patients VALUES (?, ?, ?, ?)")) {
+                for (int p = 0; p < patients; p++) {
+                    ps.setString(1, patientId(p));
+                    ps.setString(2, "Patient " + p);
+                    ps.setString(3, "patient" + p + "@example.com");
+                    ps.setString(4, "secret");
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO doctors VALUES (?, ?, ?, ?, ?)")) {
+                for (int d = 0; d < DOCTORS; d++) {
+                    ps.setString(1, "D" + d);
+                    ps.setString(2, doctorName(d));
+                    ps.setString(3, "doctor" + d + "@example.com");
+                    ps.setString(4, "secret");
+                    ps.setString(5, "General");
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO vitals (patientId, heartRate, oxygenLevel, bloodPressure, systolic, diastolic, temperature, added_on) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < vitalsRows; i++) {
+                    ps.setString(1, patientId(i % patients));
+                    ps.setInt(2, 55 + random.nextInt(60));
+                    ps.setInt(3, 90 + random.nextInt(10));
+                    int systolic = 105 + random.nextInt(30);
+                    int diastolic = 65 + random.nextInt(20);
+                    ps.setString(4, systolic + "/" + diastolic);
+                    ps.setInt(5, systolic);
+                    ps.setInt(6, diastolic);
+                    ps.setDouble(7, 36.0 + random.nextInt(20) / 10.0);
+                    ps.setTimestamp(8, Timestamp.valueOf(start.plusMinutes(i / patients)));
+                    ps.addBatch();
+                    if ((i + 1) % LOAD_BATCH == 0) {
+                        ps.executeBatch();
+                        conn.commit();
+                    }
+                }
+                ps.executeBatch();
+            }
+
+            // Appointments and emergencies scale with the dataset, capped so list queries stay meaningful
+            int appointments = Math.min(Math.max(vitalsRows / 10, 100), 100000);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO appointments (patient_id, doctor_id, date_time, status) VALUES (?, ?, ?, ?)")) {
+                for (int i = 0; i < appointments; i++) {
+                    ps.setString(1, patientId(random.nextInt(patients)));
+                    ps.setString(2, "D" + (i % DOCTORS));
+                    ps.setTimestamp(3, Timestamp.valueOf(start.plusHours(i)));
+                    ps.setString(4, i % 3 == 0 ? "Pending" : "Approved");
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+
+            int emergencies = Math.min(Math.max(vitalsRows / 100, 10), 10000);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO emergencies (message, timestamp, patientId, type, acknowledged) VALUES (?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < emergencies; i++) {
+                    ps.setString(1, "Critical heart rate: " + (130 + random.nextInt(30)));
+                    ps.setTimestamp(2, Timestamp.valueOf(start.plusMinutes(i)));
+                    ps.setString(3, patientId(random.nextInt(patients)));
+                    ps.setString(4, "HEART_RATE");
+                    ps.setBoolean(5, i % 2 == 0);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    public static String patientId(int index) {
+        return String.format("P%05d", index);
+    }
+
+    public static String doctorName(int index) {
+        return "Dr. Bench " + index;
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * DataAccessBenchmark measures the DatabaseManager hot paths against an
+ * embedded H2 database: reading a patient's vitals (all, or only the latest),
+ * a doctor's appointments and the emergency list, and saving a vitals reading.
+ *
+ * Run with, for example:
+ *   java -Xmx8g -jar target/benchmarks.jar DataAccessBenchmark -p vitalsRows=1000,100000 -prof gc
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.benchmarks;
+
+import com.remotehealth.app.model.Appointment;
+import com.remotehealth.app.model.DatabaseManager;
+import com.remotehealth.app.model.VitalSign;
+import com.remotehealth.app.model.VitalsSeries;
+import com.remotehealth.app.service.EmergencyAlert;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataAccessBenchmark {
+
+    /** Total vitals rows in the dataset */
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int vitalsRows;
+
+    /** Patients the vitals are spread over */
+    @Param({"100"})
+    public int patients;
+
+    private DatabaseManager dbManager;
+    private int nextPatient;
+    private int nextDoctor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = BenchmarkDatabase.url("bench_" + vitalsRows + "_" + patients + "_" + System.nanoTime());
+        BenchmarkDatabase.create(url, patients, vitalsRows);
+        dbManager = new DatabaseManager(url, BenchmarkDatabase.USER, BenchmarkDatabase.PASSWORD);
+        // BenchmarkDatabase already created the current schema
+        dbManager.startAuditLog();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dbManager.closeConnection();
+    }
+
+    @Benchmark
+    public List<VitalSign> getVitalsForPatient() {
+        nextPatient = (nextPatient + 1) % patients;
+        return dbManager.getVitalsForPatient(BenchmarkDatabase.patientId(nextPatient));
+    }
+
+    @Benchmark
+    public VitalsSeries getVitalsSeries() {
+        nextPatient = (nextPatient + 1) % patients;
+        return dbManager.getVitalsSeries(BenchmarkDatabase.patientId(nextPatient));
+    }
+
+    @Benchmark
+    public List<VitalSign> getLatestVitals() {
+        nextPatient = (nextPatient + 1) % patients;
+        return dbManager.getLatestVitals(BenchmarkDatabase.patientId(nextPatient), 3);
+    }
+
+    @Benchmark
+    public ArrayList<Appointment> getAppointmentsForDoctor() {
+        nextDoctor = (nextDoctor + 1) % BenchmarkDatabase.DOCTORS;
+        return dbManager.getAppointmentsForDoctor(BenchmarkDatabase.doctorName(nextDoctor));
+    }
+
+    @Benchmark
+    public ArrayList<EmergencyAlert.Emergency> getAllEmergencies() {
+        return dbManager.getAllEmergencies();
+    }
+
+    @Benchmark
+    public void saveVitals() {
+        nextPatient = (nextPatient + 1) % patients;
+        dbManager.saveVitals(BenchmarkDatabase.patientId(nextPatient), new VitalSign(72, 98, "120/80", 36.6, new Date()));
+    }
+}
@@ -32,12 +32,6 @@ import com.remotehealth.app.gui.*;
 import java.time.LocalDateTime;
 import com.remotehealth.app.utils.*;
 import java.util.ArrayList;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
-import java.sql.PreparedStatement;
-import java.sql.Statement;
-import java.sql.ResultSet;
 
 public class RemoteHealthMonitoringSystemProject {
 
@@ -48,17 +42,16 @@ public class RemoteHealthMonitoringSystemProject {
      * @param args Command-line arguments (not used)
      */
     public static void main(String[] args) {
-        Connection conn = null;
         try {
-            // Establish connection to the MySQL hospital database
-            conn = DriverManager.getConnection("jdbc:mysql://localhost:3306/hospital", "root", "zayna2412");
-            DatabaseManager dbManager = new DatabaseManager(conn);
-            System.out.println("Database connected successfully!");
+            // Open the connection pool to the MySQL hospital database
+            DatabaseManager dbManager = new DatabaseManager("jdbc:mysql://localhost:3306/hospital", "root", "zayna2412");
+            System.out.println("Database connected successfully! Pool: " + dbManager.getPoolMetrics());
 
-            // Register shutdown hook to safely close database connection
-            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-                dbManager.closeConnection();
-            }));
+            // Create any tables, columns and indexes added since the schema dump
+            SchemaMigrations.apply(dbManager);
+
+            // Keep daily log partitions ahead of time and drop expired ones
+            new LogRetentionJob(dbManager).start();
 
             // Create or fetch admin user
             String username = "admin";
@@ -89,19 +82,36 @@ public class RemoteHealthMonitoringSystemProject {
             // Initialize system services
             AppointmentManager appointmentManager = new AppointmentManager(dbManager);
             EmailNotification emailService = new EmailNotification();
+            NotificationOutbox outbox = new NotificationOutbox(dbManager, emailService);
+            emailService.useOutbox(outbox);
+            outbox.start();
             ReminderService reminderService = new ReminderService(emailService, appointmentManager, dbManager);
             EmergencyAlert emergencyAlert = new EmergencyAlert(dbManager);
             VideoCall videoCall = new VideoCall();
 
-            // Link reminder service to appointment manager
+            // Share alert changes with the other consoles and the ingestion service on this machine
+            EmergencyEventRelay emergencyRelay = new EmergencyEventRelay(emergencyAlert.getEventBus(), dbManager);
+            emergencyRelay.start();
+
+            // Link reminder service to appointment manager and start sending reminders
             appointmentManager.setReminderService(reminderService);
+            reminderService.start();
+
+            // Register shutdown hook to stop the services, then close the connection pool they use
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                outbox.stop();
+                reminderService.stop();
+                emergencyRelay.close();
+                emailService.close();
+                dbManager.closeConnection();
+            }));
 
             // Initialize and display login GUI
             WindowManager.initialize(doctors, patients, admin, appointmentManager,
                                      reminderService, emergencyAlert, videoCall, emailService, dbManager);
             WindowManager.showWelcomeScreen();
 
-        } catch (SQLException e) {
+        } catch (RuntimeException e) {
             e.printStackTrace();
             System.exit(1);
         }
@@ -5,17 +5,25 @@ import com.remotehealth.app.utils.*;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
 
 /**
  * GUI class for the Administrator's dashboard.
  * Allows the admin to manage doctors, patients, and view system logs.
  */
 public class AdminDashboard extends JFrame {
+    private static final int LOG_PAGE_SIZE = 200;  // Log entries fetched per page
+
     private Administrator admin;
     private ArrayList<Doctor> doctors;
     private ArrayList<Patient> patients;
     private DatabaseManager dbManager;
+    private final AsyncLoader loader = new AsyncLoader();  // Runs database loads off the EDT
+    private final LogTableModel logsModel = new LogTableModel();
 
     // UI Components
     private JTabbedPane tabbedPane;
@@ -45,6 +53,16 @@ public class AdminDashboard extends JFrame {
 
         initComponents();
         initMenuBar();
+        loader.attach(tabbedPane);
+    }
+
+    /**
+     * Cancels pending data loads before releasing the window.
+     */
+    @Override
+    public void dispose() {
+        loader.cancelAll();
+        super.dispose();
     }
 
     /**
@@ -141,7 +159,12 @@ public class AdminDashboard extends JFrame {
         statsPanel.add(createStatPanel("Total Doctors", String.valueOf(doctors.size())));
         statsPanel.add(createStatPanel("Total Patients", String.valueOf(patients.size())));
         statsPanel.add(createStatPanel("System Status", "Normal"));
-        statsPanel.add(createStatPanel("Last Login", "Today"));
+        JLabel failedLoginsLabel = new JLabel("-", SwingConstants.CENTER);
+        statsPanel.add(createStatPanel("Failed Logins (1h)", failedLoginsLabel));
+        loader.load("failedLogins", dashboardPanel,
+            () -> dbManager.countEvents(AuditEvent.Type.LOGIN, AuditEvent.Outcome.FAILURE,
+                                        LocalDateTime.now().minusHours(1)),
+            count -> failedLoginsLabel.setText(String.valueOf(count)));
 
         dashboardPanel.add(welcomePanel, BorderLayout.NORTH);
         dashboardPanel.add(statsPanel, BorderLayout.CENTER);
@@ -153,6 +176,13 @@ public class AdminDashboard extends JFrame {
      * Creates an individual stat panel for dashboard.
      */
     private JPanel createStatPanel(String title, String value) {
+        return createStatPanel(title, new JLabel(value, SwingConstants.CENTER));
+    }
+
+    /**
+     * Creates a stat panel around a value label that can be updated later.
+     */
+    private JPanel createStatPanel(String title, JLabel valueLabel) {
         JPanel panel = UITheme.createCardPanel();
         panel.setLayout(new BorderLayout(10, 10));
 
@@ -160,7 +190,6 @@ public class AdminDashboard extends JFrame {
         titleLabel.setFont(UITheme.BODY_FONT);
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
 
-        JLabel valueLabel = new JLabel(value, SwingConstants.CENTER);
         valueLabel.setFont(new Font("Segoe UI", Font.BOLD, 24));
         valueLabel.setForeground(UITheme.PRIMARY_COLOR);
 
@@ -289,7 +318,9 @@ public class AdminDashboard extends JFrame {
     }
 
     /**
-     * Creates the System Logs tab where the admin can view and refresh logs.
+     * Creates the System Logs tab where the admin can view, filter and refresh logs.
+     * The table loads one page at a time and fetches the next page as the admin
+     * scrolls towards the end of what has been loaded.
      */
     private void createSystemLogsTab() {
         systemLogsPanel = new JPanel(new BorderLayout(10, 10));
@@ -300,34 +331,115 @@ public class AdminDashboard extends JFrame {
         logsPanel.setLayout(new BorderLayout());
         logsPanel.setBorder(BorderFactory.createTitledBorder("System Logs"));
 
-        JTextArea logsArea = new JTextArea();
-        logsArea.setEditable(false);
-        logsArea.setFont(UITheme.BODY_FONT);
-
-        StringBuilder logs = new StringBuilder();
-        for (String log : admin.getSystemLogs()) {
-            logs.append(log).append("\n");
+        JTable logsTable = new JTable(logsModel);
+        logsTable.setFont(UITheme.BODY_FONT);
+        logsTable.setRowHeight(24);
+        logsTable.setAutoCreateRowSorter(false);  // Rows arrive newest first, page by page
+        logsTable.getColumnModel().getColumn(0).setPreferredWidth(160);
+        logsTable.getColumnModel().getColumn(1).setPreferredWidth(60);
+        logsTable.getColumnModel().getColumn(2).setPreferredWidth(80);
+        logsTable.getColumnModel().getColumn(3).setPreferredWidth(150);
+        logsTable.getColumnModel().getColumn(4).setPreferredWidth(70);
+        logsTable.getColumnModel().getColumn(5).setPreferredWidth(90);
+        logsTable.getColumnModel().getColumn(6).setPreferredWidth(90);
+        logsTable.getColumnModel().getColumn(7).setPreferredWidth(80);
+        logsTable.getColumnModel().getColumn(8).setPreferredWidth(500);
+        JScrollPane logsScroll = new JScrollPane(logsTable);
+
+        // Filters
+        JComboBox<Object> levelCombo = new JComboBox<>();
+        levelCombo.addItem("All levels");
+        for (LogEntry.Level level : LogEntry.Level.values()) {
+            levelCombo.addItem(level);
+        }
+        JComboBox<Object> categoryCombo = new JComboBox<>();
+        categoryCombo.addItem("All categories");
+        for (LogEntry.Category category : LogEntry.Category.values()) {
+            categoryCombo.addItem(category);
         }
-        logsArea.setText(logs.toString());
+        JTextField userField = new JTextField(10);
+
+        Runnable reload = () -> {
+            String user = userField.getText().trim();
+            logsModel.setFilter(
+                levelCombo.getSelectedItem() instanceof LogEntry.Level ? (LogEntry.Level) levelCombo.getSelectedItem() : null,
+                categoryCombo.getSelectedItem() instanceof LogEntry.Category
+                    ? (LogEntry.Category) categoryCombo.getSelectedItem() : null,
+                user.isEmpty() ? null : user);
+            loadLogs(logsScroll, true);
+        };
+        levelCombo.addActionListener(e -> reload.run());
+        categoryCombo.addActionListener(e -> reload.run());
+        userField.addActionListener(e -> reload.run());
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        filterPanel.setBackground(Color.WHITE);
+        filterPanel.add(new JLabel("Level:"));
+        filterPanel.add(levelCombo);
+        filterPanel.add(new JLabel("Category:"));
+        filterPanel.add(categoryCombo);
+        filterPanel.add(new JLabel("User:"));
+        filterPanel.add(userField);
 
         JButton refreshBtn = UITheme.createStyledButton("Refresh Logs", UITheme.ACCENT_COLOR);
-        refreshBtn.addActionListener(e -> {
-            StringBuilder updatedLogs = new StringBuilder();
-            for (String log : admin.getSystemLogs()) {
-                updatedLogs.append(log).append("\n");
+        refreshBtn.addActionListener(e -> reload.run());
+
+        // Fetch the next page when the admin scrolls near the end of the loaded rows
+        logsScroll.getVerticalScrollBar().addAdjustmentListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                loadLogs(logsScroll, false);
             }
-            logsArea.setText(updatedLogs.toString());
         });
 
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         buttonPanel.setBackground(Color.WHITE);
         buttonPanel.add(refreshBtn);
 
-        logsPanel.add(new JScrollPane(logsArea), BorderLayout.CENTER);
+        logsPanel.add(filterPanel, BorderLayout.NORTH);
+        logsPanel.add(logsScroll, BorderLayout.CENTER);
         logsPanel.add(buttonPanel, BorderLayout.SOUTH);
 
         systemLogsPanel.add(logsPanel, BorderLayout.CENTER);
         tabbedPane.addTab("System Logs", systemLogsPanel);
+
+        loadLogs(logsScroll, true);
+    }
+
+    /**
+     * Loads a page of logs into the table. A reset reloads from the newest entry;
+     * otherwise the next page is fetched only if the loaded rows no longer fill
+     * the view past the current scroll position.
+     * 
+     * @param logsScroll The scroll pane showing the logs table
+     * @param reset true to start again from the newest entry
+     */
+    private void loadLogs(JScrollPane logsScroll, boolean reset) {
+        if (!reset) {
+            JScrollBar bar = logsScroll.getVerticalScrollBar();
+            boolean nearEnd = bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - bar.getVisibleAmount();
+            if (!nearEnd || logsModel.loading || logsModel.exhausted) {
+                return;
+            }
+        }
+        logsModel.loading = true;
+        LogEntry after = reset ? null : logsModel.last();
+        LogEntry.Level level = logsModel.level;
+        LogEntry.Category category = logsModel.category;
+        String userId = logsModel.userId;
+        // A newer load with the same key (e.g. a filter change) supersedes this one
+        loader.load("logs", systemLogsPanel,
+            () -> admin.getSystemLogs(level, category, userId, after, LOG_PAGE_SIZE),
+            page -> {
+                logsModel.loading = false;
+                logsModel.append(page, reset, page.size() < LOG_PAGE_SIZE);
+                // Keep going until the view is filled
+                SwingUtilities.invokeLater(() -> loadLogs(logsScroll, false));
+            },
+            ex -> {
+                logsModel.loading = false;
+                ex.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Error loading system logs.");
+            });
     }
 
     /**
@@ -366,6 +478,77 @@ public class AdminDashboard extends JFrame {
         return String.format("#%02x%02x%02x", color.getRed(), color.getGreen(), color.getBlue());
     }
 
+    /**
+     * Table model holding the log pages loaded so far, with the filter they were loaded with.
+     */
+    private static class LogTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Time", "Level", "Category", "Event", "Outcome", "User",
+                                                  "Subject", "Latency (ms)", "Message"};
+        private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+        private final List<LogEntry> entries = new ArrayList<>();
+        LogEntry.Level level;
+        LogEntry.Category category;
+        String userId;
+        boolean loading;    // A page is being fetched
+        boolean exhausted;  // The last page has been loaded
+
+        void setFilter(LogEntry.Level level, LogEntry.Category category, String userId) {
+            this.level = level;
+            this.category = category;
+            this.userId = userId;
+        }
+
+        LogEntry last() {
+            return entries.isEmpty() ? null : entries.get(entries.size() - 1);
+        }
+
+        void append(List<LogEntry> page, boolean reset, boolean lastPage) {
+            if (reset) {
+                entries.clear();
+                fireTableDataChanged();
+            }
+            exhausted = lastPage;
+            if (page.isEmpty()) {
+                return;
+            }
+            int first = entries.size();
+            entries.addAll(page);
+            fireTableRowsInserted(first, entries.size() - 1);
+        }
+
+        @Override
+        public int getRowCount() {
+            return entries.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            LogEntry entry = entries.get(row);
+            switch (column) {
+                case 0: return entry.getCreatedAt().format(TIME_FORMAT);
+                case 1: return entry.getLevel();
+                case 2: return entry.getCategory();
+                case 3: return entry.getEventType();
+                case 4: return entry.getOutcome();
+                case 5: return entry.getUserId() == null ? "" : entry.getUserId();
+                case 6: return entry.getSubjectId() == null ? "" : entry.getSubjectId();
+                case 7: return entry.getLatencyMs() == AuditEvent.NOT_TIMED ? "" : entry.getLatencyMs();
+                default: return entry.getMessage();
+            }
+        }
+    }
+
     /**
      * Custom renderer to display doctor list nicely.
      */
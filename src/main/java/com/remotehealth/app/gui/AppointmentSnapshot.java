@@ -0,0 +1,91 @@
+/**
+ * The AppointmentSnapshot holds one doctor's appointments for a dashboard.
+ * The list is loaded from the database once and shared by every panel that
+ * shows appointments, until it is invalidated after a change or an explicit
+ * refresh. The filtered views are computed from the same snapshot.
+ * Methods may be called from the AsyncLoader's background threads.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.gui;
+
+import com.remotehealth.app.model.Appointment;
+import com.remotehealth.app.model.DatabaseManager;
+import com.remotehealth.app.model.Doctor;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+final class AppointmentSnapshot {
+
+    private final DatabaseManager dbManager;
+    private final Doctor doctor;
+    private List<Appointment> appointments;  // null until loaded or after invalidate()
+
+    AppointmentSnapshot(DatabaseManager dbManager, Doctor doctor) {
+        this.dbManager = dbManager;
+        this.doctor = doctor;
+    }
+
+    /**
+     * @return All of the doctor's appointments, loading them if needed
+     */
+    synchronized List<Appointment> all() {
+        if (appointments == null) {
+            appointments = Collections.unmodifiableList(dbManager.getAppointmentsForDoctor(doctor.getName()));
+        }
+        return appointments;
+    }
+
+    /**
+     * @return Appointments still waiting for approval
+     */
+    List<Appointment> pending() {
+        List<Appointment> pending = new ArrayList<>();
+        for (Appointment appt : all()) {
+            if ("Pending".equalsIgnoreCase(appt.getStatus())) {
+                pending.add(appt);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * @return Pending or approved appointments from now on, soonest first
+     */
+    List<Appointment> upcoming() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Appointment> upcoming = new ArrayList<>();
+        for (Appointment appt : all()) {
+            String status = appt.getStatus();
+            if (appt.getDateTime().isAfter(now)
+                    && ("Pending".equalsIgnoreCase(status) || "Approved".equalsIgnoreCase(status))) {
+                upcoming.add(appt);
+            }
+        }
+        upcoming.sort((a, b) -> a.getDateTime().compareTo(b.getDateTime()));
+        return upcoming;
+    }
+
+    /**
+     * @param count Maximum number of appointments to return
+     * @return The most recently created appointments, newest first
+     */
+    List<Appointment> recent(int count) {
+        List<Appointment> all = all();
+        List<Appointment> recent = new ArrayList<>(Math.min(count, all.size()));
+        for (int i = all.size() - 1; i >= 0 && recent.size() < count; i--) {
+            recent.add(all.get(i));
+        }
+        return recent;
+    }
+
+    /**
+     * Drops the snapshot so the next call reloads it from the database.
+     */
+    synchronized void invalidate() {
+        appointments = null;
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * The AsyncLoader runs dashboard data loads on a shared pool of virtual threads
+ * and publishes the results back on the Event Dispatch Thread, so database
+ * round trips never freeze the UI.
+ *
+ * Each load has a key; starting a load with a key that is already running
+ * supersedes the older one, so only the latest result is shown. Loads can be
+ * tied to the tab that displays them: when the user switches tabs, loads for
+ * hidden tabs are cancelled and parked, then restarted when their tab is shown
+ * again. All methods must be called on the Event Dispatch Thread.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.gui;
+
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javax.swing.JTabbedPane;
+import javax.swing.SwingUtilities;
+
+final class AsyncLoader {
+
+    /** Shared by every dashboard; virtual threads are cheap to park on JDBC calls */
+    private static final ExecutorService EXECUTOR =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dashboard-loader-", 0).factory());
+
+    /**
+     * One submitted load and the callbacks that receive its outcome.
+     */
+    private final class Load<T> implements Runnable {
+        final String key;
+        final Component tab;
+        final Callable<T> task;
+        final Consumer<? super T> onResult;
+        final Consumer<? super Exception> onError;
+        volatile boolean cancelled;
+        Future<?> future;
+
+        Load(String key, Component tab, Callable<T> task,
+             Consumer<? super T> onResult, Consumer<? super Exception> onError) {
+            this.key = key;
+            this.tab = tab;
+            this.task = task;
+            this.onResult = onResult;
+            this.onError = onError;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            T result = null;
+            Exception error = null;
+            try {
+                result = task.call();
+            } catch (Exception e) {
+                error = e;
+            }
+            if (cancelled) {
+                return;
+            }
+            T finalResult = result;
+            Exception finalError = error;
+            SwingUtilities.invokeLater(() -> finish(finalResult, finalError));
+        }
+
+        private void finish(T result, Exception error) {
+            // A newer load for the same key, or a cancel, may have happened while this one ran
+            if (cancelled || running.get(key) != this) {
+                return;
+            }
+            running.remove(key);
+            if (error != null) {
+                onError.accept(error);
+            } else {
+                onResult.accept(result);
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            if (future != null) {
+                // No interrupt: interrupting a virtual thread blocked on socket I/O closes the
+                // pooled JDBC connection underneath it. The result is simply discarded instead.
+                future.cancel(false);
+            }
+        }
+
+        Load<T> copy() {
+            return new Load<>(key, tab, task, onResult, onError);
+        }
+    }
+
+    private final Map<String, Load<?>> running = new LinkedHashMap<>();
+    private final Map<String, Load<?>> parked = new LinkedHashMap<>();
+    private Component selectedTab;
+    private boolean closed;
+
+    /**
+     * Starts a load, logging any failure.
+     *
+     * @param key Identifies the load; a newer load with the same key replaces this one
+     * @param tab The tab showing the result, or null if the load should survive tab switches
+     * @param task The work to run off the Event Dispatch Thread
+     * @param onResult Receives the result on the Event Dispatch Thread
+     */
+    <T> void load(String key, Component tab, Callable<T> task, Consumer<? super T> onResult) {
+        load(key, tab, task, onResult, e -> System.err.println("Failed to load " + key + ": " + e.getMessage()));
+    }
+
+    /**
+     * Starts a load.
+     *
+     * @param key Identifies the load; a newer load with the same key replaces this one
+     * @param tab The tab showing the result, or null if the load should survive tab switches
+     * @param task The work to run off the Event Dispatch Thread
+     * @param onResult Receives the result on the Event Dispatch Thread
+     * @param onError Receives any exception thrown by the task on the Event Dispatch Thread
+     */
+    <T> void load(String key, Component tab, Callable<T> task,
+                  Consumer<? super T> onResult, Consumer<? super Exception> onError) {
+        if (closed) {
+            return;
+        }
+        cancel(key);
+        Load<T> load = new Load<>(key, tab, task, onResult, onError);
+        if (tab != null && selectedTab != null && tab != selectedTab) {
+            // Not visible yet, run it when the user opens the tab
+            parked.put(key, load);
+        } else {
+            submit(load);
+        }
+    }
+
+    /**
+     * Cancels a running or parked load. Its callbacks will not be called.
+     *
+     * @param key The key the load was started with
+     */
+    void cancel(String key) {
+        Load<?> load = running.remove(key);
+        if (load != null) {
+            load.cancel();
+        }
+        parked.remove(key);
+    }
+
+    /**
+     * @param key The key a load was started with
+     * @return true if that load is running or parked and has not delivered its result yet
+     */
+    boolean isPending(String key) {
+        return running.containsKey(key) || parked.containsKey(key);
+    }
+
+    /**
+     * Ties loads to the tabs of a tabbed pane: loads for hidden tabs are
+     * cancelled and parked, and resumed when their tab is selected.
+     *
+     * @param tabbedPane The dashboard's tabbed pane
+     */
+    void attach(JTabbedPane tabbedPane) {
+        tabbedPane.addChangeListener(e -> tabChanged(tabbedPane.getSelectedComponent()));
+        tabChanged(tabbedPane.getSelectedComponent());
+    }
+
+    /**
+     * Cancels every load for good. Called when the dashboard is disposed.
+     */
+    void cancelAll() {
+        closed = true;
+        for (Load<?> load : running.values()) {
+            load.cancel();
+        }
+        running.clear();
+        parked.clear();
+    }
+
+    private void tabChanged(Component tab) {
+        selectedTab = tab;
+
+        for (Iterator<Load<?>> it = running.values().iterator(); it.hasNext(); ) {
+            Load<?> load = it.next();
+            if (load.tab != null && load.tab != tab) {
+                it.remove();
+                load.cancel();
+                parked.put(load.key, load.copy());
+            }
+        }
+
+        for (Load<?> load : new ArrayList<>(parked.values())) {
+            if (load.tab == tab) {
+                parked.remove(load.key);
+                submit(load);
+            }
+        }
+    }
+
+    private void submit(Load<?> load) {
+        running.put(load.key, load);
+        load.future = EXECUTOR.submit(load);
+    }
+}
@@ -18,8 +18,12 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class DoctorDashboard extends JFrame {
+    private static final int EMERGENCY_PAGE_SIZE = 50;  // Emergencies loaded per page
+
     // Doctor data and services
     private Doctor doctor;                          // Current doctor using the dashboard
     private ArrayList<Patient> patients;            // List of available patients
@@ -28,6 +32,10 @@ public class DoctorDashboard extends JFrame {
     private EmailNotification emailService;         // Email notification service
     private VideoCall videoCall;                    // Video consultation service
     private DatabaseManager dbManager;              // Database access manager
+    private final AsyncLoader loader = new AsyncLoader(); // Runs database loads off the EDT
+    private AppointmentSnapshot appointmentSnapshot;  // Doctor's appointments shared by all panels
+    private Function<AppointmentSnapshot, List<Appointment>> appointmentFilter = AppointmentSnapshot::all;
+    private Consumer<EmergencyEvent> emergencyListener;  // Applies alert changes to the emergency list
 
     // UI Components
     private JTabbedPane tabbedPane;                 // Main tabbed interface
@@ -55,10 +63,7 @@ public class DoctorDashboard extends JFrame {
         this.emergencyAlert = emergencyAlert;
         this.emailService = emailService;
         this.videoCall = videoCall;
-        
-        // Initialize services
-        ReminderService reminderService = new ReminderService(emailService, appointmentManager, dbManager);
-        appointmentManager.setReminderService(reminderService);
+        this.appointmentSnapshot = new AppointmentSnapshot(dbManager, doctor);
         
         // Load patient data
         this.patients = dbManager.getAllPatients();
@@ -80,6 +85,19 @@ public class DoctorDashboard extends JFrame {
         // Initialize UI components
         initComponents();
         initMenuBar();
+        loader.attach(tabbedPane);
+    }
+
+    /**
+     * Cancels pending data loads and stops listening for alerts before releasing the window.
+     */
+    @Override
+    public void dispose() {
+        if (emergencyListener != null) {
+            emergencyAlert.getEventBus().unsubscribe(emergencyListener);
+        }
+        loader.cancelAll();
+        super.dispose();
     }
 
     /**
@@ -246,7 +264,8 @@ public class DoctorDashboard extends JFrame {
         JTextArea activityArea = new JTextArea();
         activityArea.setEditable(false);
         activityArea.setFont(UITheme.BODY_FONT);
-        activityArea.setText(getRecentActivity());
+        activityArea.setText("Loading...");
+        loader.load("recentActivity", dashboardPanel, this::getRecentActivity, activityArea::setText);
         
         recentActivityPanel.add(new JScrollPane(activityArea), BorderLayout.CENTER);
         
@@ -320,7 +339,9 @@ public class DoctorDashboard extends JFrame {
                 int index = patientList.getSelectedIndex();
                 if (index >= 0) {
                     Patient selectedPatient = patients.get(index);
-                    detailsArea.setText(getPatientDetails(selectedPatient));
+                    detailsArea.setText("Loading...");
+                    loader.load("patientDetails", patientsPanel,
+                        () -> getPatientDetails(selectedPatient), detailsArea::setText);
                 }
             }
         });
@@ -359,9 +380,7 @@ public class DoctorDashboard extends JFrame {
         appointmentsList.setFont(UITheme.BODY_FONT);
         
         // Initialize with all appointments
-        for (Appointment appt : dbManager.getAppointmentsForDoctor(doctor.getName())) {
-            listModel.addElement(appt);
-        }
+        refreshAppointmentsList(listModel);
         
         // Filter buttons panel
         JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
@@ -373,26 +392,9 @@ public class DoctorDashboard extends JFrame {
         JButton upcomingBtn = createFilterButton("Upcoming");
 
         // Configure filter button actions
-        allBtn.addActionListener(e -> {
-            listModel.clear();
-            for (Appointment appt : dbManager.getAppointmentsForDoctor(doctor.getName())) {
-                listModel.addElement(appt);
-            }
-        });
-
-        pendingBtn.addActionListener(e -> {
-            listModel.clear();
-            for (Appointment appt : dbManager.getAppointmentsForDoctor(doctor.getName())) {
-                listModel.addElement(appt);
-            }
-        });
-
-        upcomingBtn.addActionListener(e -> {
-            listModel.clear();
-            for (Appointment appt : dbManager.getAppointmentsForDoctor(doctor.getName())) {
-                listModel.addElement(appt);
-            }
-        });
+        allBtn.addActionListener(e -> filterAppointmentsList(listModel, AppointmentSnapshot::all));
+        pendingBtn.addActionListener(e -> filterAppointmentsList(listModel, AppointmentSnapshot::pending));
+        upcomingBtn.addActionListener(e -> filterAppointmentsList(listModel, AppointmentSnapshot::upcoming));
 
         // Add filter components to panel
         filterPanel.add(new JLabel("Filter:"));
@@ -414,7 +416,10 @@ public class DoctorDashboard extends JFrame {
         approveBtn.addActionListener(e -> handleAppointmentApproval(appointmentsList, listModel));
         rejectBtn.addActionListener(e -> handleAppointmentRejection(appointmentsList, listModel));
         rescheduleBtn.addActionListener(e -> handleAppointmentReschedule(appointmentsList, listModel));
-        refreshBtn.addActionListener(e -> refreshAppointmentsList(listModel));
+        refreshBtn.addActionListener(e -> {
+            appointmentSnapshot.invalidate();
+            refreshAppointmentsList(listModel);
+        });
         
         // Add buttons to panel
         actionPanel.add(approveBtn);
@@ -488,12 +493,14 @@ public class DoctorDashboard extends JFrame {
                     try {
                         // Approve appointment with new time
                         appointmentManager.approveAppointment(selected, newDateTime);
+                        appointmentSnapshot.invalidate();
                         int index = listModel.indexOf(selected);
                         if (index >= 0) {
                             listModel.set(index, selected);
                         }
                         JOptionPane.showMessageDialog(this, "Appointment approved and reminder sent");
                     } catch (IllegalStateException ex) {
+                        appointmentSnapshot.invalidate();
                         JOptionPane.showMessageDialog(this, ex.getMessage(), "Time Slot Unavailable", JOptionPane.ERROR_MESSAGE);
                     }
                 } catch (Exception ex) {
@@ -514,9 +521,15 @@ public class DoctorDashboard extends JFrame {
     private void handleAppointmentRejection(JList<Appointment> appointmentsList, DefaultListModel<Appointment> listModel) {
         Appointment selected = appointmentsList.getSelectedValue();
         if (selected != null) {
-            appointmentManager.rejectAppointment(selected);
-            listModel.setElementAt(selected, appointmentsList.getSelectedIndex());
-            JOptionPane.showMessageDialog(this, "Appointment rejected");
+            try {
+                appointmentManager.rejectAppointment(selected);
+                appointmentSnapshot.invalidate();
+                listModel.setElementAt(selected, appointmentsList.getSelectedIndex());
+                JOptionPane.showMessageDialog(this, "Appointment rejected");
+            } catch (IllegalStateException ex) {
+                appointmentSnapshot.invalidate();
+                JOptionPane.showMessageDialog(this, ex.getMessage(), "Appointment Changed", JOptionPane.ERROR_MESSAGE);
+            }
         } else {
             JOptionPane.showMessageDialog(this, "Please select an appointment first");
         }
@@ -542,8 +555,12 @@ public class DoctorDashboard extends JFrame {
                     LocalDateTime newDateTime = LocalDateTime.parse(newDate, 
                         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
                     appointmentManager.rescheduleAppointment(selected, newDateTime);
+                    appointmentSnapshot.invalidate();
                     listModel.setElementAt(selected, appointmentsList.getSelectedIndex());
                     JOptionPane.showMessageDialog(this, "Appointment rescheduled");
+                } catch (IllegalStateException ex) {
+                    appointmentSnapshot.invalidate();
+                    JOptionPane.showMessageDialog(this, ex.getMessage(), "Appointment Changed", JOptionPane.ERROR_MESSAGE);
                 } catch (Exception ex) {
                     JOptionPane.showMessageDialog(this, "Invalid date format", "Error", JOptionPane.ERROR_MESSAGE);
                 }
@@ -554,15 +571,29 @@ public class DoctorDashboard extends JFrame {
     }
 
     /**
-     * Refreshes the appointments list from the database.
+     * Switches the appointments list to another filter of the snapshot.
+     * 
+     * @param listModel The list model to refresh
+     * @param filter The snapshot view to show
+     */
+    private void filterAppointmentsList(DefaultListModel<Appointment> listModel,
+                                        Function<AppointmentSnapshot, List<Appointment>> filter) {
+        appointmentFilter = filter;
+        refreshAppointmentsList(listModel);
+    }
+
+    /**
+     * Refreshes the appointments list from the snapshot with the current filter.
      * 
      * @param listModel The list model to refresh
      */
     private void refreshAppointmentsList(DefaultListModel<Appointment> listModel) {
-        listModel.clear();
-        for (Appointment appt : dbManager.getAppointmentsForDoctor(doctor.getName())) {
-            listModel.addElement(appt);
-        }
+        Function<AppointmentSnapshot, List<Appointment>> filter = appointmentFilter;
+        loader.load("appointments", appointmentsPanel, () -> filter.apply(appointmentSnapshot),
+            appointments -> {
+                listModel.clear();
+                listModel.addAll(appointments);
+            });
     }
 
     /**
@@ -678,7 +709,7 @@ public class DoctorDashboard extends JFrame {
         DefaultListModel<EmergencyAlert.Emergency> alertsListModel = new DefaultListModel<>();
         JList<EmergencyAlert.Emergency> alertsList = new JList<>(alertsListModel);
         alertsList.setCellRenderer(new EmergencyListRenderer());
-        alertsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        alertsList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         alertsList.setFont(UITheme.BODY_FONT);
         
         // Details panel
@@ -695,15 +726,26 @@ public class DoctorDashboard extends JFrame {
         JButton contactPatientBtn = createActionButton("Contact Patient", UITheme.ACCENT_COLOR);
         JButton refreshBtn = createActionButton("Refresh", UITheme.PRIMARY_COLOR);
         JButton clearBtn = createActionButton("Clear All", UITheme.DANGER_COLOR);
+        JButton loadMoreBtn = createActionButton("Load More", UITheme.PRIMARY_COLOR);
         
         // Configure button actions
         acknowledgeBtn.addActionListener(e -> {
-            EmergencyAlert.Emergency selected = alertsList.getSelectedValue();
-            if (selected != null) {
-                selected.acknowledge();
-                alertsList.repaint();
-                updateEmergencyDetails(detailsArea, selected);
+            List<EmergencyAlert.Emergency> selected = alertsList.getSelectedValuesList();
+            if (selected.isEmpty()) {
+                return;
             }
+            // All selected alerts are acknowledged with one statement
+            loader.load("acknowledgeEmergencies", null, () -> emergencyAlert.acknowledgeAll(selected),
+                updated -> {
+                    // Flags change only once the update succeeded, here on the Event Dispatch Thread
+                    selected.forEach(EmergencyAlert.Emergency::acknowledge);
+                    alertsList.repaint();
+                    updateEmergencyDetails(detailsArea, selected.get(0));
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(this, "Error acknowledging emergencies.");
+                });
         });
         
         contactPatientBtn.addActionListener(e -> {
@@ -719,20 +761,17 @@ public class DoctorDashboard extends JFrame {
             detailsArea.setText("");
         });
         
-        clearBtn.addActionListener(e -> {
-            try {
-                // Clear acknowledged emergencies from database
-                for (EmergencyAlert.Emergency emergency : dbManager.getAllEmergencies()) {
-                    if (emergency.isAcknowledged()) {
-                        dbManager.deleteEmergency(emergency);
-                    }
-                }
-                updateEmergencyAlerts(alertsListModel);
-            } catch (Exception ex) {
+        loadMoreBtn.addActionListener(e -> loadMoreEmergencyAlerts(alertsListModel));
+        
+        clearBtn.addActionListener(e -> loader.load("clearEmergencies", null,
+            // Clear acknowledged emergencies from database
+            () -> emergencyAlert.purgeAcknowledged(LocalDateTime.now()),
+            // The purge event removes the alerts from the list
+            deleted -> detailsArea.setText(""),
+            ex -> {
                 ex.printStackTrace();
                 JOptionPane.showMessageDialog(this, "Error clearing acknowledged emergencies.");
-            }
-        });
+            }));
         
         // Button panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 5));
@@ -741,6 +780,7 @@ public class DoctorDashboard extends JFrame {
         buttonPanel.add(contactPatientBtn);
         buttonPanel.add(refreshBtn);
         buttonPanel.add(clearBtn);
+        buttonPanel.add(loadMoreBtn);
         
         // Selection listener for alerts
         alertsList.addListSelectionListener(e -> {
@@ -767,7 +807,9 @@ public class DoctorDashboard extends JFrame {
         alertsPanel.add(splitPane, BorderLayout.CENTER);
         emergencyPanel.add(alertsPanel, BorderLayout.CENTER);
         
-        // Initial load of emergency alerts
+        // Initial load of emergency alerts, then apply changes as they are published
+        emergencyListener = event -> SwingUtilities.invokeLater(() -> applyEmergencyEvent(alertsListModel, event));
+        emergencyAlert.getEventBus().subscribe(emergencyListener);
         updateEmergencyAlerts(alertsListModel);
         
         tabbedPane.addTab("Emergency", emergencyPanel);
@@ -875,11 +917,14 @@ public class DoctorDashboard extends JFrame {
         patientCombo.addActionListener(e -> {
             Patient p = (Patient)patientCombo.getSelectedItem();
             if (p != null) {
-                StringBuilder sb = new StringBuilder();
-                for (Prescription prescription : dbManager.getPrescriptionsForPatient(p.getId())) {
-                    sb.append(prescription.toString()).append("\n\n");
-                }
-                prescriptionsArea.setText(sb.toString());
+                prescriptionsArea.setText("Loading...");
+                loader.load("prescriptions", prescribePanel, () -> {
+                    StringBuilder sb = new StringBuilder();
+                    for (Prescription prescription : dbManager.getPrescriptionsForPatient(p.getId())) {
+                        sb.append(prescription.toString()).append("\n\n");
+                    }
+                    return sb.toString();
+                }, prescriptionsArea::setText);
             }
         });
 
@@ -930,15 +975,70 @@ public class DoctorDashboard extends JFrame {
 
     /**
      * Updates the list of emergency alerts in the provided model.
-     * Clears the model and populates it with all the emergencies retrieved from the database.
+     * Clears the model and populates it with the most recent page of emergencies.
      * 
      * @param model The model to update with the list of emergencies
      */
     private void updateEmergencyAlerts(DefaultListModel<EmergencyAlert.Emergency> model) {
-        model.clear();
-        for (EmergencyAlert.Emergency e : dbManager.getAllEmergencies()) {
-            model.addElement(e);
+        // A pending page was computed against the list this refresh replaces
+        loader.cancel("moreEmergencies");
+        loader.load("emergencies", emergencyPanel, () -> dbManager.getEmergencies(0, EMERGENCY_PAGE_SIZE, null),
+            emergencies -> {
+                model.clear();
+                model.addAll(emergencies);
+            });
+    }
+
+    /**
+     * Applies a published alert change to the emergencies already in the model,
+     * without reloading them.
+     * 
+     * @param model The model holding the emergencies shown
+     * @param event The change to apply
+     */
+    private void applyEmergencyEvent(DefaultListModel<EmergencyAlert.Emergency> model, EmergencyEvent event) {
+        switch (event.getKind()) {
+            case RAISED:
+                for (int i = 0; i < model.size(); i++) {
+                    if (model.get(i).getId() == event.getEmergency().getId()) {
+                        return;
+                    }
+                }
+                model.add(0, event.getEmergency());  // Newest first
+                break;
+            case ACKNOWLEDGED:
+                for (int i = 0; i < model.size(); i++) {
+                    EmergencyAlert.Emergency emergency = model.get(i);
+                    if (event.getIds().contains(emergency.getId())) {
+                        emergency.acknowledge();
+                        model.set(i, emergency);  // Repaints the row
+                    }
+                }
+                break;
+            case PURGED:
+                for (int i = model.size() - 1; i >= 0; i--) {
+                    EmergencyAlert.Emergency emergency = model.get(i);
+                    if (emergency.isAcknowledged() && emergency.getTimestamp().isBefore(event.getBefore())) {
+                        model.remove(i);
+                    }
+                }
+                break;
+        }
+    }
+
+    /**
+     * Appends the next page of emergencies to the provided model.
+     * 
+     * @param model The model holding the emergencies loaded so far
+     */
+    private void loadMoreEmergencyAlerts(DefaultListModel<EmergencyAlert.Emergency> model) {
+        if (loader.isPending("emergencies")) {
+            // The refresh is about to replace the list, so there is no stable offset yet
+            return;
         }
+        int offset = model.size();
+        loader.load("moreEmergencies", emergencyPanel, () -> dbManager.getEmergencies(offset, EMERGENCY_PAGE_SIZE, null),
+            model::addAll);
     }
 
     /**
@@ -957,15 +1057,16 @@ public class DoctorDashboard extends JFrame {
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))).append("\n");
         sb.append("Status: ").append(emergency.isAcknowledged() ? "ACKNOWLEDGED" : "UNACKNOWLEDGED").append("\n\n");
         sb.append("Details:\n").append(emergency.getMessage()).append("\n\n");
+        detailsArea.setText(sb.toString());
     
         // Add patient vitals if available
-        List<VitalSign> vitals = dbManager.getVitalsForPatient(emergency.getPatient().getId());
-        if (!vitals.isEmpty()) {
-            VitalSign latest = vitals.get(vitals.size() - 1);
-            sb.append("Latest Vitals:\n").append(latest.toString()).append("\n");
-        }
-
-        detailsArea.setText(sb.toString());
+        loader.load("emergencyDetails", emergencyPanel, () -> {
+            List<VitalSign> vitals = dbManager.getLatestVitals(emergency.getPatient().getId(), 1);
+            if (!vitals.isEmpty()) {
+                sb.append("Latest Vitals:\n").append(vitals.get(0).toString()).append("\n");
+            }
+            return sb.toString();
+        }, detailsArea::setText);
     }
 
     /**
@@ -1121,10 +1222,10 @@ public class DoctorDashboard extends JFrame {
         sb.append("Details:\n").append(emergency.getMessage()).append("\n\n");
     
         // Add patient vitals if available
-        List<VitalSign> vitals = dbManager.getVitalsForPatient(emergency.getPatient().getId());
+        List<VitalSign> vitals = dbManager.getLatestVitals(emergency.getPatient().getId(), 1);
         if (!vitals.isEmpty()) {
             sb.append("Latest Vitals:\n");
-            sb.append(vitals.get(vitals.size() - 1).toString()).append("\n");
+            sb.append(vitals.get(0).toString()).append("\n");
         }
 
         return sb.toString();
@@ -1139,11 +1240,11 @@ public class DoctorDashboard extends JFrame {
         StringBuilder sb = new StringBuilder();
     
         // Recent appointments
-        if (!dbManager.getAppointmentsForDoctor(doctor.getName()).isEmpty()) {
+        List<Appointment> recent = appointmentSnapshot.recent(3);
+        if (!recent.isEmpty()) {
             sb.append("Recent Appointments:\n");
-            int count = Math.min(3, dbManager.getAppointmentsForDoctor(doctor.getName()).size());
-            for (int i = dbManager.getAppointmentsForDoctor(doctor.getName()).size() - 1; i >= dbManager.getAppointmentsForDoctor(doctor.getName()).size() - count; i--) {
-                sb.append("- ").append(dbManager.getAppointmentsForDoctor(doctor.getName()).get(i)).append("\n");
+            for (Appointment appt : recent) {
+                sb.append("- ").append(appt).append("\n");
             }
        }
     
@@ -1167,13 +1268,8 @@ public class DoctorDashboard extends JFrame {
         sb.append(patient.getMedicalHistory().getFormattedHistory(dbManager, patient.getId())).append("\n");
     
         sb.append("\nRecent Vital Signs:\n");
-        List<VitalSign> vitals = dbManager.getVitalsForPatient(patient.getId());
-
-        int count = Math.min(3, vitals.size());
-        if (count > 0) {
-            for (int i = vitals.size() - 1; i >= vitals.size() - count; i--) {
-                sb.append("- ").append(vitals.get(i)).append("\n");
-            }
+        for (VitalSign vital : dbManager.getLatestVitals(patient.getId(), 3)) {
+            sb.append("- ").append(vital).append("\n");
         }
     
         return sb.toString();
@@ -1207,7 +1303,7 @@ public class DoctorDashboard extends JFrame {
      */
     private void updateAppointmentsDisplay(JTextArea area) {
         StringBuilder sb = new StringBuilder();
-        for (Appointment appt : dbManager.getAppointmentsForDoctor(doctor.getName())) {
+        for (Appointment appt : appointmentSnapshot.all()) {
             sb.append(appt).append("\n\n");
         }
         area.setText(sb.toString());
@@ -161,7 +161,8 @@ public class LoginScreen extends JFrame {
             String password = new String(passwordField.getPassword());
 
             if (username.isEmpty() || password.isEmpty()) {
-                dbManager.saveLog("Login attempt with empty credentials: " + userType);
+                dbManager.logEvent(new AuditEvent(AuditEvent.Type.LOGIN, AuditEvent.Outcome.FAILURE, null, null,
+                                                  "Empty credentials, " + userType));
                 JOptionPane.showMessageDialog(this, 
                     "Username and password cannot be empty.", 
                     "Input Error", 
@@ -169,20 +170,24 @@ public class LoginScreen extends JFrame {
                 return;
             }
 
+            long start = System.nanoTime();
             try {
                 if (authenticate(userType, username, password)) {
-                    dbManager.saveLog("Successful login: " + userType + " (" + username + ")");
+                    dbManager.logEvent(new AuditEvent(AuditEvent.Type.LOGIN, AuditEvent.Outcome.SUCCESS, username, null,
+                                                      AuditEvent.since(start), userType));
                     openDashboard(userType, username);
                     dispose();
                 } else {
-                    dbManager.saveLog("Failed login attempt: " + userType + " (" + username + ")");
+                    dbManager.logEvent(new AuditEvent(AuditEvent.Type.LOGIN, AuditEvent.Outcome.FAILURE, username, null,
+                                                      AuditEvent.since(start), userType));
                     JOptionPane.showMessageDialog(this, 
                         "Invalid credentials. Please try again.", 
                         "Login Failed", 
                         JOptionPane.ERROR_MESSAGE);
                 }
             } catch (Exception ex) {
-                dbManager.saveLog("Login error: " + ex.getMessage());
+                dbManager.logEvent(new AuditEvent(AuditEvent.Type.LOGIN, AuditEvent.Outcome.ERROR, username, null,
+                                                  AuditEvent.since(start), userType + ": " + ex.getMessage()));
                 JOptionPane.showMessageDialog(this, 
                     "An error occurred during login: " + ex.getMessage(), 
                     "Error", 
@@ -208,39 +213,19 @@ public class LoginScreen extends JFrame {
      * @return true if authentication is successful, false otherwise
      */
     private boolean authenticate(String userType, String username, String password) {
-        try {
-            switch (userType) {
-                case "Admin":
-                    Administrator adminFromDb = dbManager.getAdminByUsername(username, dbManager);
-                    boolean adminAuth = adminFromDb != null && adminFromDb.authenticate(username, password);
-                    dbManager.saveLog("Admin authentication for " + username + ": " + adminAuth);
-                    return adminAuth;
-                case "Doctor":
-                    Doctor doctor = dbManager.getDoctorById(username);
-                    if (doctor == null) {
-                        dbManager.saveLog("Doctor not found: " + username);
-                        return false;
-                    }
-                    boolean doctorAuth = doctor.authenticate(password);
-                    dbManager.saveLog("Doctor authentication for " + username + ": " + doctorAuth);
-                    return doctorAuth;
-                case "Patient":
-                    Patient patient = dbManager.getPatientById(username);
-                    if (patient == null) {
-                        dbManager.saveLog("Patient not found: " + username);
-                        return false;
-                    }
-                    boolean patientAuth = patient.authenticate(username, password);
-                    dbManager.saveLog("Patient authentication for " + username + ": " + patientAuth + 
-                                      ", Password match: " + (patient.getPassword() != null && patient.getPassword().equals(password)));
-                    return patientAuth;
-                default:
-                    dbManager.saveLog("Invalid user type: " + userType);
-                    return false;
-            }
-        } catch (Exception e) {
-            dbManager.saveLog("Authentication error for " + userType + " (" + username + "): " + e.getMessage());
-            return false;
+        // The outcome is logged by the caller as one LOGIN event
+        switch (userType) {
+            case "Admin":
+                Administrator adminFromDb = dbManager.getAdminByUsername(username, dbManager);
+                return adminFromDb != null && adminFromDb.authenticate(username, password);
+            case "Doctor":
+                Doctor doctor = dbManager.getDoctorById(username);
+                return doctor != null && doctor.authenticate(password);
+            case "Patient":
+                Patient patient = dbManager.getPatientById(username);
+                return patient != null && patient.authenticate(username, password);
+            default:
+                return false;
         }
     }
 
@@ -262,7 +247,8 @@ public class LoginScreen extends JFrame {
                         DoctorDashboard.showDashboard(doctor, dbManager, appointmentManager, 
                                                       emergencyAlert, emailService, videoCall);
                     } else {
-                        dbManager.saveLog("Doctor not found for dashboard: " + username);
+                        dbManager.logEvent(new AuditEvent(AuditEvent.Type.DASHBOARD_OPEN, AuditEvent.Outcome.FAILURE,
+                                                          username, null, "Doctor not found"));
                         JOptionPane.showMessageDialog(this, 
                             "Doctor not found.", "Error", JOptionPane.ERROR_MESSAGE);
                     }
@@ -274,14 +260,16 @@ public class LoginScreen extends JFrame {
                         PatientDashboard.showDashboard(patient, doctors, appointmentManager, 
                                                        reminderService, emergencyAlert, videoCall, dbManager);
                     } else {
-                        dbManager.saveLog("Patient not found for dashboard: " + username);
+                        dbManager.logEvent(new AuditEvent(AuditEvent.Type.DASHBOARD_OPEN, AuditEvent.Outcome.FAILURE,
+                                                          username, null, "Patient not found"));
                         JOptionPane.showMessageDialog(this, 
                             "Patient not found.", "Error", JOptionPane.ERROR_MESSAGE);
                     }
                     break;
             }
         } catch (Exception e) {
-            dbManager.saveLog("Error opening dashboard for " + userType + " (" + username + "): " + e.getMessage());
+            dbManager.logEvent(new AuditEvent(AuditEvent.Type.DASHBOARD_OPEN, AuditEvent.Outcome.ERROR, username, null,
+                                              userType + ": " + e.getMessage()));
             JOptionPane.showMessageDialog(this, 
                 "Error opening dashboard: " + e.getMessage(), 
                 "Error", 
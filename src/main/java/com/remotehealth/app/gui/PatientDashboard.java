@@ -25,6 +25,8 @@ import java.awt.Dimension;
 import java.io.File;
 
 public class PatientDashboard extends JFrame {
+    private static final int RECENT_ACTIVITY_ITEMS = 5;  // Latest vitals and appointments shown on the dashboard
+
     // Patient data and services
     private Patient patient;                          // Current patient using the dashboard
     private ArrayList<Doctor> doctors;                // List of available doctors
@@ -33,6 +35,7 @@ public class PatientDashboard extends JFrame {
     private EmergencyAlert emergencyAlert;            // Emergency alert system
     private VideoCall videoCall;                      // Video consultation service
     private DatabaseManager dbManager;                // Database access manager
+    private final AsyncLoader loader = new AsyncLoader(); // Runs database loads off the EDT
 
     // UI Components
     private JTabbedPane tabbedPane;                   // Main tabbed interface
@@ -75,6 +78,7 @@ public class PatientDashboard extends JFrame {
         // Initialize UI components
         initComponents();
         initMenuBar();
+        loader.attach(tabbedPane);
 
         // Confirm before closing window
         addWindowListener(new WindowAdapter() {
@@ -162,7 +166,16 @@ public class PatientDashboard extends JFrame {
     }
     
     /**
-     * Retrieves recent patient activity including vitals and appointments.
+     * Cancels pending data loads before releasing the window.
+     */
+    @Override
+    public void dispose() {
+        loader.cancelAll();
+        super.dispose();
+    }
+    
+    /**
+     * Retrieves recent patient activity including the latest vitals and appointments.
      * 
      * @return List of recent activity items
      */
@@ -171,7 +184,7 @@ public class PatientDashboard extends JFrame {
         
         // Add vitals as recent activity
         try {
-            List<VitalSign> vitals = dbManager.getVitalsForPatient(patient.getId());
+            List<VitalSign> vitals = dbManager.getLatestVitals(patient.getId(), RECENT_ACTIVITY_ITEMS);
             recentActivity.addAll(vitals);
         } catch (Exception e) {
             System.err.println("Failed to load recent activity (vitals): " + e.getMessage());
@@ -179,7 +192,7 @@ public class PatientDashboard extends JFrame {
         
         // Add appointments as recent activity
         try {
-            List<Appointment> appointments = dbManager.getAppointmentsForPatient(patient.getId());
+            List<Appointment> appointments = dbManager.getRecentAppointments(patient.getId(), RECENT_ACTIVITY_ITEMS);
             recentActivity.addAll(appointments);
         } catch (Exception e) {
             System.err.println("Failed to load recent activity (appointments): " + e.getMessage());
@@ -281,11 +294,14 @@ public class PatientDashboard extends JFrame {
         JTextArea activityArea = new JTextArea();
         activityArea.setEditable(false);
         activityArea.setFont(UITheme.BODY_FONT);
-        StringBuilder sb = new StringBuilder();
-        for (Object item : getRecentActivity()) {
-            sb.append(item.toString()).append("\n\n");
-        }
-        activityArea.setText(sb.toString());
+        activityArea.setText("Loading...");
+        loader.load("recentActivity", dashboardPanel, () -> {
+            StringBuilder sb = new StringBuilder();
+            for (Object item : getRecentActivity()) {
+                sb.append(item.toString()).append("\n\n");
+            }
+            return sb.toString();
+        }, activityArea::setText);
 
         recentActivityPanel.add(new JScrollPane(activityArea), BorderLayout.CENTER);
         
@@ -487,8 +503,11 @@ public class PatientDashboard extends JFrame {
             
                 // Create and save appointment
                 Appointment appointment = new Appointment(dateTime, patient, selectedDoctor);
-                appointmentManager.requestAppointment(appointment);
-                dbManager.saveAppointment(appointment);
+                if (!appointmentManager.requestAppointment(appointment)) {
+                    JOptionPane.showMessageDialog(this, "The doctor already has an appointment at that time. Please choose another slot.",
+                        "Time Slot Unavailable", JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
             
                 JOptionPane.showMessageDialog(this, "Appointment requested successfully!");
                 dateField.setText("");
@@ -573,9 +592,8 @@ public class PatientDashboard extends JFrame {
         // Create the VitalsChart visualization
         VitalsChart vitalsChart = new VitalsChart(patient.getId(), dbManager);
 
-        // Set chart dimensions
-        vitalsChart.setPreferredSize(new Dimension(580, 300));
-        vitalsChart.setMaximumSize(new Dimension(580, 300));
+        // Set chart dimensions, tall enough for the four stacked plots
+        vitalsChart.setPreferredSize(new Dimension(900, 640));
 
         // Add chart to scroll pane
         JScrollPane scrollPane = new JScrollPane(vitalsChart);
@@ -654,7 +672,8 @@ public class PatientDashboard extends JFrame {
                                "Critical Thresholds:\n" +
                                "- Heart Rate: <40 or >120 bpm\n" +
                                "- Oxygen: <90%\n" +
-                               "- Temperature: <35°C or >40°C");
+                               "- Temperature: <35°C or >40°C\n" +
+                               "- Blood Pressure: <90/60 or ≥180/120 mmHg");
         instructionsArea.setFont(UITheme.BODY_FONT);
         
         monitoringPanel.add(currentVitalsPanel);
@@ -739,17 +758,23 @@ public class PatientDashboard extends JFrame {
 
         if (userSelection == JFileChooser.APPROVE_OPTION) {
             File fileToSave = fileChooser.getSelectedFile();
-            try {
+            // Streams the whole vitals history, so keep it off the EDT
+            downloadReportBtn.setEnabled(false);
+            loader.load("report", null, () -> {
                 PatientReports.generateReport(patient.getId(), fileToSave.getAbsolutePath(), dbManager);
+                return fileToSave;
+            }, saved -> {
+                downloadReportBtn.setEnabled(true);
                 JOptionPane.showMessageDialog(this,
-                    "Patient report saved to:\n" + fileToSave.getAbsolutePath(),
+                    "Patient report saved to:\n" + saved.getAbsolutePath(),
                     "Report Generated", JOptionPane.INFORMATION_MESSAGE);
-            } catch (Exception ex) {
+            }, ex -> {
+                downloadReportBtn.setEnabled(true);
                 ex.printStackTrace();
                 JOptionPane.showMessageDialog(this,
                     "Failed to generate report: " + ex.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            });
         }
     });
 
@@ -785,17 +810,8 @@ public class PatientDashboard extends JFrame {
             }
         };
 
-        // Populate table with patient's prescriptions
-        for (Prescription prescription : dbManager.getPrescriptionsForPatient(patient.getId())) {
-            Object[] rowData = {
-                prescription.getMedication(),
-                prescription.getDosage(),
-                prescription.getSchedule(),
-                prescription.getPrescribingDoctor(),
-                prescription.getTests()
-            };
-            model.addRow(rowData);
-        }
+        // Prescriptions shown in the table, in row order
+        List<Prescription> prescriptions = new ArrayList<>();
 
         // Configure prescriptions table
         JTable prescriptionsTable = new JTable(model);
@@ -818,9 +834,8 @@ public class PatientDashboard extends JFrame {
         prescriptionsTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
                 int selectedRow = prescriptionsTable.getSelectedRow();
-                if (selectedRow >= 0) {
-                    Prescription selected = dbManager.getPrescriptionsForPatient(patient.getId()).get(selectedRow);
-                    detailsArea.setText(selected.toString());
+                if (selectedRow >= 0 && selectedRow < prescriptions.size()) {
+                    detailsArea.setText(prescriptions.get(selectedRow).toString());
                 }
             }
         });
@@ -837,51 +852,61 @@ public class PatientDashboard extends JFrame {
 
         prescriptionsPanel.add(splitPane, BorderLayout.CENTER);
         tabbedPane.addTab("Prescriptions", prescriptionsPanel);
+
+        // Populate table with patient's prescriptions
+        loader.load("prescriptions", prescriptionsPanel,
+            () -> dbManager.getPrescriptionsForPatient(patient.getId()),
+            loaded -> {
+                prescriptions.clear();
+                prescriptions.addAll(loaded);
+                model.setRowCount(0);
+                for (Prescription prescription : loaded) {
+                    Object[] rowData = {
+                        prescription.getMedication(),
+                        prescription.getDosage(),
+                        prescription.getSchedule(),
+                        prescription.getPrescribingDoctor(),
+                        prescription.getTests()
+                    };
+                    model.addRow(rowData);
+                }
+            });
     }
 
     /**
      * Updates the current vitals display and checks for critical values.
+     * The load is not tied to the Emergency tab, since it also raises the
+     * alert for critical readings when the dashboard opens.
      * 
      * @param area The text area to update with vitals information
      */
     private void updateCurrentVitalsDisplay(JTextArea area) {
-        List<VitalSign> vitals = dbManager.getVitalsForPatient(patient.getId());
-        if (vitals.isEmpty()) {
-            area.setText("No vital signs recorded yet");
-            return;
-        }
-        
-        // Get latest vitals
-        VitalSign latest = vitals.get(vitals.size() - 1);
-        StringBuilder sb = new StringBuilder();
-        sb.append("Last Recorded:\n");
-        sb.append(latest.toString()).append("\n\n");
-        
-        // Check for critical values
-        boolean critical = false;
-        if (latest.getHeartRate() < 40 || latest.getHeartRate() > 120) {
-            sb.append("CRITICAL HEART RATE ⚠️\n");
-            critical = true;
-        }
-        if (latest.getOxygenLevel() < 90) {
-            sb.append("CRITICAL OXYGEN LEVEL ⚠️\n");
-            critical = true;
-        }
-        if (latest.getTemperature() < 35 || latest.getTemperature() > 40) {
-            sb.append("CRITICAL TEMPERATURE ⚠️\n");
-            critical = true;
-        }
-        
-        if (critical) {
-            sb.append("\nEmergency alert will be automatically triggered!");
-        }
-        
-        area.setText(sb.toString());
-        
-        // Trigger emergency alert if critical values detected
-        if (critical) {
-            emergencyAlert.triggerAlert(patient);
-        }
+        area.setText("Loading...");
+        loader.load("currentVitals", null, () -> {
+            List<VitalSign> vitals = dbManager.getLatestVitals(patient.getId(), 1);
+            if (vitals.isEmpty()) {
+                return "No vital signs recorded yet";
+            }
+            
+            // Get latest vitals
+            VitalSign latest = vitals.get(0);
+            StringBuilder sb = new StringBuilder();
+            sb.append("Last Recorded:\n");
+            sb.append(latest.toString()).append("\n\n");
+            
+            // Check for critical values
+            List<VitalRules.Violation> violations = emergencyAlert.getRules().evaluate(latest);
+            for (VitalRules.Violation violation : violations) {
+                sb.append("CRITICAL ").append(violation.getLabel().toUpperCase()).append(" ⚠️\n");
+            }
+            
+            // Trigger emergency alert if critical values detected
+            if (!violations.isEmpty()) {
+                sb.append("\nEmergency alert will be automatically triggered!");
+                emergencyAlert.triggerAlert(patient);
+            }
+            return sb.toString();
+        }, area::setText);
     }
 
     /**
@@ -890,11 +915,14 @@ public class PatientDashboard extends JFrame {
      * @param area The text area to update with vitals history
      */
     private void updateVitalsDisplay(JTextArea area) {
-        StringBuilder sb = new StringBuilder();
-        for (VitalSign vital : dbManager.getVitalsForPatient(patient.getId())) {
-            sb.append(vital).append("\n\n");
-        }
-        area.setText(sb.toString());
+        area.setText("Loading...");
+        loader.load("vitalsHistory", vitalSignsPanel, () -> {
+            StringBuilder sb = new StringBuilder();
+            for (VitalSign vital : dbManager.getVitalsForPatient(patient.getId())) {
+                sb.append(vital).append("\n\n");
+            }
+            return sb.toString();
+        }, area::setText);
     }
 
     /**
@@ -903,14 +931,17 @@ public class PatientDashboard extends JFrame {
      * @param area The text area to update with appointments information
      */
     private void updateAppointmentsDisplay(JTextArea area) {
-        StringBuilder sb = new StringBuilder();
-        for (Appointment appt : dbManager.getAppointmentsForPatient(patient.getId())) {
-            sb.append("Appointment with Dr. ").append(appt.getDoctor().getName()).append("\n")
-              .append("Date: ").append(appt.getDateTime().toLocalDate()).append("\n")
-              .append("Time: ").append(appt.getDateTime().toLocalTime()).append("\n")
-              .append("Status: ").append(appt.getStatus()).append("\n\n");
-        }
-        area.setText(sb.length() > 0 ? sb.toString() : "No appointments scheduled");
+        area.setText("Loading...");
+        loader.load("appointments", appointmentsPanel, () -> {
+            StringBuilder sb = new StringBuilder();
+            for (Appointment appt : dbManager.getAppointmentsForPatient(patient.getId())) {
+                sb.append("Appointment with Dr. ").append(appt.getDoctor().getName()).append("\n")
+                  .append("Date: ").append(appt.getDateTime().toLocalDate()).append("\n")
+                  .append("Time: ").append(appt.getDateTime().toLocalTime()).append("\n")
+                  .append("Status: ").append(appt.getStatus()).append("\n\n");
+            }
+            return sb.length() > 0 ? sb.toString() : "No appointments scheduled";
+        }, area::setText);
     }
     
     /**
@@ -919,7 +950,10 @@ public class PatientDashboard extends JFrame {
      * @param area The text area to update with medical history
      */
     private void updateMedicalHistoryDisplay(JTextArea area) {
-        area.setText(patient.getMedicalHistory().getFormattedHistory(dbManager, patient.getId()));
+        area.setText("Loading...");
+        loader.load("medicalHistory", medicalHistoryPanel,
+            () -> patient.getMedicalHistory().getFormattedHistory(dbManager, patient.getId()),
+            area::setText);
     }
     
     /**
@@ -928,16 +962,18 @@ public class PatientDashboard extends JFrame {
      * @param area The text area to update with feedback information
      */
     private void updateFeedbackDisplay(JTextArea area) {
-        ArrayList<Feedback> feedbacks = dbManager.getFeedbacksForPatient(patient.getId());
-        if (feedbacks.isEmpty()) {
-            area.setText("No feedback available from doctors yet.");
-        } else {
+        area.setText("Loading...");
+        loader.load("feedback", feedbackPanel, () -> {
+            ArrayList<Feedback> feedbacks = dbManager.getFeedbacksForPatient(patient.getId());
+            if (feedbacks.isEmpty()) {
+                return "No feedback available from doctors yet.";
+            }
             StringBuilder sb = new StringBuilder();
             for (Feedback f : feedbacks) {
                 sb.append(f.toString()).append("\n\n");
             }
-            area.setText(sb.toString());
-        }
+            return sb.toString();
+        }, area::setText);
     }
 
     /**
@@ -69,7 +69,8 @@ public class Administrator extends User {
      */
     public static Administrator getAdminByCredentials(String username, String password, DatabaseManager dbManager) {
         String sql = "SELECT id, name, email, password FROM admin WHERE name = ?";
-        try (PreparedStatement ps = dbManager.getConnection().prepareStatement(sql)) {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, username);
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
@@ -83,7 +84,8 @@ public class Administrator extends User {
             }
             return null;
         } catch (SQLException e) {
-            dbManager.saveLog("Error retrieving admin " + username + ": " + e.getMessage());
+            dbManager.logEvent(new AuditEvent(AuditEvent.Type.LOGIN, AuditEvent.Outcome.ERROR, username, null,
+                                              "Error retrieving admin: " + e.getMessage()));
             throw new RuntimeException("Failed to retrieve admin", e);
         }
     }
@@ -102,7 +104,8 @@ public class Administrator extends User {
         Doctor doctor = new Doctor(id, name, email, password);
         dbManager.saveDoctor(doctor);
         System.out.println("[INFO] Doctor added to database.");
-        logAction("Doctor " + name + " added to system.");
+        dbManager.logEvent(new AuditEvent(AuditEvent.Type.DOCTOR_ADD, AuditEvent.Outcome.SUCCESS, getId(), id,
+                                          "Doctor " + name + " added to system."));
     }
 
     /**
@@ -117,7 +120,8 @@ public class Administrator extends User {
         Patient patient = new Patient(id, name, email, password);
         dbManager.savePatient(patient);
         System.out.println("[INFO] Patient added to database.");
-        logAction("Patient " + name + " added to system.");
+        dbManager.logEvent(new AuditEvent(AuditEvent.Type.PATIENT_ADD, AuditEvent.Outcome.SUCCESS, getId(), id,
+                                          "Patient " + name + " added to system."));
     }
 
     // ========== LOGGING METHODS ==========
@@ -128,16 +132,22 @@ public class Administrator extends User {
      * @param message Log message
      */
     public void logAction(String message) {
-        dbManager.saveLog("[LOG] " + message);
+        dbManager.logEvent(new AuditEvent(AuditEvent.Type.ADMIN_ACTION, AuditEvent.Outcome.SUCCESS, getId(), null, message));
     }
 
     /**
-     * Retrieves system logs from database.
+     * Retrieves one page of system logs from the database, most recent first.
      * 
-     * @return ArrayList of log entries
+     * @param level Only entries of this level, or null for all
+     * @param category Only entries of this category, or null for all
+     * @param userId Only entries concerning this user, or null for all
+     * @param after Last entry of the previous page, or null for the first page
+     * @param limit Maximum number of entries to return
+     * @return List of log entries
      */
-    public ArrayList<String> getSystemLogs() {
-        return dbManager.fetchLogs();
+    public ArrayList<LogEntry> getSystemLogs(LogEntry.Level level, LogEntry.Category category, String userId,
+                                             LogEntry after, int limit) {
+        return dbManager.fetchLogs(level, category, userId, after, limit);
     }
 
     // ========== GETTER METHODS ==========
@@ -13,6 +13,8 @@ import java.time.format.DateTimeFormatter;
 
 public class Appointment {
     // Appointment details
+    private int id;                  // Database primary key (0 until saved)
+    private int version;             // Optimistic-locking version, bumped on every update
     private LocalDateTime dateTime;  // Scheduled date and time
     private Patient patient;         // Patient attending
     private Doctor doctor;           // Doctor conducting
@@ -37,6 +39,28 @@ public class Appointment {
 
     // ========== GETTER/SETTER METHODS ==========
 
+    /**
+     * @return Database primary key, or 0 if the appointment has not been saved
+     */
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return Version last read from or written to the database
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * @return Scheduled date and time
      */
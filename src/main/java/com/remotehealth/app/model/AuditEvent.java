@@ -0,0 +1,125 @@
+/**
+ * The AuditEvent class is one structured entry for the system log: what
+ * happened (the event type), who did it (the actor), which record it
+ * concerns (the subject), how it ended (the outcome) and how long it took.
+ * Storing these as columns instead of inside a free-text message lets the
+ * log be queried by index, e.g. failed logins in the last hour.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.model;
+
+public final class AuditEvent {
+
+    /**
+     * Kinds of audited events, each belonging to one log category.
+     */
+    public enum Type {
+        LOGIN(LogEntry.Category.AUTH),
+        DASHBOARD_OPEN(LogEntry.Category.AUTH),
+        ADMIN_ACTION(LogEntry.Category.ADMIN),
+        DOCTOR_ADD(LogEntry.Category.ADMIN),
+        PATIENT_ADD(LogEntry.Category.ADMIN),
+        PATIENT_READ(LogEntry.Category.PATIENT),
+        PATIENT_SAVE(LogEntry.Category.PATIENT),
+        VITALS_READ(LogEntry.Category.VITALS),
+        VITALS_SAVE(LogEntry.Category.VITALS),
+        PASSWORD_RESET_REQUEST(LogEntry.Category.ACCOUNT),
+        PASSWORD_RESET_LIST(LogEntry.Category.ACCOUNT),
+        MESSAGE(LogEntry.Category.GENERAL);  // Free-text message without structure
+
+        private final LogEntry.Category category;
+
+        Type(LogEntry.Category category) {
+            this.category = category;
+        }
+
+        public LogEntry.Category getCategory() {
+            return category;
+        }
+    }
+
+    /**
+     * How an event ended.
+     */
+    public enum Outcome {
+        SUCCESS(LogEntry.Level.INFO),
+        FAILURE(LogEntry.Level.WARN),  // Rejected, e.g. wrong password or record not found
+        ERROR(LogEntry.Level.ERROR);   // Could not be completed, e.g. a database error
+
+        private final LogEntry.Level level;
+
+        Outcome(LogEntry.Level level) {
+            this.level = level;
+        }
+
+        public LogEntry.Level getLevel() {
+            return level;
+        }
+    }
+
+    /** Latency value for events that were not timed */
+    public static final long NOT_TIMED = -1;
+
+    private final Type type;
+    private final Outcome outcome;
+    private final String actor;
+    private final String subjectId;
+    private final long latencyMs;
+    private final String detail;
+
+    /**
+     * Constructs an AuditEvent.
+     *
+     * @param type What happened
+     * @param outcome How it ended
+     * @param actor User who performed it, or null if unknown
+     * @param subjectId Record it concerns (e.g. a patient ID), or null
+     * @param latencyMs How long it took in milliseconds, or NOT_TIMED
+     * @param detail Human-readable detail; must not contain credentials
+     */
+    public AuditEvent(Type type, Outcome outcome, String actor, String subjectId, long latencyMs, String detail) {
+        this.type = type;
+        this.outcome = outcome;
+        this.actor = actor;
+        this.subjectId = subjectId;
+        this.latencyMs = latencyMs;
+        this.detail = detail;
+    }
+
+    /**
+     * Creates an untimed event.
+     */
+    public AuditEvent(Type type, Outcome outcome, String actor, String subjectId, String detail) {
+        this(type, outcome, actor, subjectId, NOT_TIMED, detail);
+    }
+
+    /**
+     * @param startNanos Value of System.nanoTime() when the operation started
+     * @return Milliseconds elapsed since then
+     */
+    public static long since(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    // ========== GETTER METHODS ==========
+
+    public Type getType() { return type; }
+    public Outcome getOutcome() { return outcome; }
+    public LogEntry.Level getLevel() { return outcome.getLevel(); }
+    public LogEntry.Category getCategory() { return type.getCategory(); }
+    /** @return User who performed the event, or null */
+    public String getActor() { return actor; }
+    /** @return Record the event concerns, or null */
+    public String getSubjectId() { return subjectId; }
+    /** @return Duration in milliseconds, or NOT_TIMED */
+    public long getLatencyMs() { return latencyMs; }
+    public String getDetail() { return detail; }
+
+    @Override
+    public String toString() {
+        return type + " " + outcome + (actor == null ? "" : " by " + actor) +
+               (subjectId == null ? "" : " on " + subjectId) + " - " + detail;
+    }
+}
@@ -0,0 +1,571 @@
+/**
+ * The AuditLogWriter class moves audit logging off the caller's thread.
+ * Messages are buffered in a bounded ring buffer and written to the logs
+ * table by a background flusher using multi-row batched inserts. Each
+ * row is a structured AuditEvent: type, outcome, actor, subject and latency
+ * are stored in their own columns next to the derived level and category.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+public class AuditLogWriter implements AutoCloseable {
+
+    /**
+     * What to do with a new message when the buffer is full.
+     */
+    public enum BackpressurePolicy {
+        /** Block the caller until the flusher frees space */
+        BLOCK,
+        /** Overwrite the oldest buffered message */
+        DROP_OLDEST,
+        /** Append the message to a local spill file, replayed on the next start */
+        SPILL_TO_FILE
+    }
+
+    // Defaults, overridable with -Daudit.* system properties
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int DEFAULT_BATCH_SIZE = 200;
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 500;
+    private static final long DRAIN_TIMEOUT_MS = 5000;
+    private static final String DEFAULT_SPILL_FILE = "audit-spill.log";
+
+    private static final class Entry {
+        final AuditEvent event;
+        final Timestamp createdAt;
+
+        Entry(AuditEvent event, Timestamp createdAt) {
+            this.event = event;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final Supplier<Connection> connectionSupplier;
+    private final BackpressurePolicy policy;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final Path spillFile;
+
+    // Ring buffer guarded by lock
+    private final Entry[] buffer;
+    private int head;
+    private int size;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition drained = lock.newCondition();
+    private boolean writing;
+    private boolean closed;
+    // Messages that did not fit in the buffer, spilled in batches by the flusher; guarded by lock
+    private List<Entry> overflow = new ArrayList<>();
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+
+    private final Thread flusher;
+
+    /**
+     * Constructs an AuditLogWriter configured from system properties
+     * (audit.capacity, audit.batchSize, audit.flushIntervalMs, audit.backpressure, audit.spillFile).
+     *
+     * @param connectionSupplier Source of database connections; each one is closed after use
+     */
+    public AuditLogWriter(Supplier<Connection> connectionSupplier) {
+        this(connectionSupplier,
+             Integer.getInteger("audit.capacity", DEFAULT_CAPACITY),
+             Integer.getInteger("audit.batchSize", DEFAULT_BATCH_SIZE),
+             Long.getLong("audit.flushIntervalMs", DEFAULT_FLUSH_INTERVAL_MS),
+             BackpressurePolicy.valueOf(System.getProperty("audit.backpressure", "SPILL_TO_FILE")),
+             Paths.get(System.getProperty("audit.spillFile", DEFAULT_SPILL_FILE)));
+    }
+
+    /**
+     * Constructs an AuditLogWriter. Messages are buffered until start() is called.
+     *
+     * @param connectionSupplier Source of database connections; each one is closed after use
+     * @param capacity Maximum number of buffered messages
+     * @param batchSize Maximum number of rows per INSERT statement
+     * @param flushIntervalMs Longest time a message waits before being flushed
+     * @param policy What to do when the buffer is full
+     * @param spillFile Local file used for spilled and failed messages
+     */
+    public AuditLogWriter(Supplier<Connection> connectionSupplier, int capacity, int batchSize,
+                          long flushIntervalMs, BackpressurePolicy policy, Path spillFile) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Capacity and batch size must be positive");
+        }
+        this.connectionSupplier = connectionSupplier;
+        this.buffer = new Entry[capacity];
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.policy = policy;
+        this.spillFile = spillFile;
+
+        this.flusher = new Thread(this::runFlusher, "audit-log-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * Starts the background flusher, which first replays any spill file left by
+     * a previous run. Call it once the logs table has its current schema, so
+     * neither the replay nor the first batches hit an older layout.
+     */
+    public void start() {
+        lock.lock();
+        try {
+            if (!closed && flusher.getState() == Thread.State.NEW) {
+                flusher.start();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ===================== PRODUCER SIDE =====================
+
+    /**
+     * Queues a free-text message as a MESSAGE event.
+     *
+     * @param message The log message
+     */
+    public void submit(String message) {
+        submit(new AuditEvent(AuditEvent.Type.MESSAGE, AuditEvent.Outcome.SUCCESS, null, null, message));
+    }
+
+    /**
+     * Queues an audit event. The timestamp is captured now, not when the row is written.
+     *
+     * @param event The event to log
+     */
+    public void submit(AuditEvent event) {
+        Entry entry = new Entry(event, new Timestamp(System.currentTimeMillis()));
+        List<Entry> spillNow = null;  // Written by this thread, after the lock is released
+        lock.lock();
+        try {
+            if (closed) {
+                // The flusher may already be gone
+                spillNow = List.of(entry);
+                return;
+            }
+            if (size == buffer.length) {
+                switch (policy) {
+                    case BLOCK:
+                        while (size == buffer.length && !closed) {
+                            notFull.awaitUninterruptibly();
+                        }
+                        if (closed) {
+                            spillNow = List.of(entry);
+                            return;
+                        }
+                        break;
+                    case DROP_OLDEST:
+                        head = (head + 1) % buffer.length;
+                        size--;
+                        dropped.incrementAndGet();
+                        break;
+                    case SPILL_TO_FILE:
+                        overflow.add(entry);
+                        if (overflow.size() >= buffer.length) {
+                            // The flusher is not keeping up; spill this batch here rather than grow without bound
+                            spillNow = takeOverflow();
+                        } else if (overflow.size() >= batchSize) {
+                            notEmpty.signal();
+                        }
+                        return;
+                }
+            }
+            buffer[(head + size) % buffer.length] = entry;
+            size++;
+            if (size >= batchSize) {
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+            if (spillNow != null) {
+                spill(spillNow);
+            }
+        }
+    }
+
+    /**
+     * Waits until every message queued so far has been written (or the timeout elapses).
+     *
+     * @param timeoutMs Maximum time to wait in milliseconds
+     * @return true if the buffer was drained
+     */
+    public boolean flush(long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        lock.lock();
+        try {
+            notEmpty.signal();
+            while (size > 0 || writing) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                drained.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting messages, writes what is still buffered and stops the flusher.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(DRAIN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything the flusher could not get to in time goes to the spill file
+        List<Entry> leftover = takeOverflow();
+        leftover.addAll(takeBatch(Integer.MAX_VALUE));
+        if (!leftover.isEmpty()) {
+            spill(leftover);
+        }
+        System.out.println("Audit log writer stopped. " + getStats());
+    }
+
+    /**
+     * Returns counters describing the writer's state.
+     *
+     * @return Formatted string with pending, written, dropped and spilled counts
+     */
+    public String getStats() {
+        int pending;
+        lock.lock();
+        try {
+            pending = size;
+        } finally {
+            lock.unlock();
+        }
+        return "Pending: " + pending +
+               ", Written: " + written.get() +
+               ", Dropped: " + dropped.get() +
+               ", Spilled: " + spilled.get();
+    }
+
+    // ===================== FLUSHER =====================
+
+    private void runFlusher() {
+        replaySpillFile();
+        while (true) {
+            List<Entry> batch;
+            List<Entry> overflowBatch;
+            boolean stop;
+            lock.lock();
+            try {
+                if (size < batchSize && overflow.size() < batchSize && !closed) {
+                    notEmpty.await(flushIntervalMs, TimeUnit.MILLISECONDS);
+                }
+                overflowBatch = takeOverflow();
+                batch = takeBatch(batchSize);
+                stop = batch.isEmpty() && closed;
+                if (batch.isEmpty()) {
+                    drained.signalAll();
+                } else {
+                    writing = true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            // One file append per batch of overflow, outside the lock so producers are not held up
+            if (!overflowBatch.isEmpty()) {
+                spill(overflowBatch);
+            }
+            if (batch.isEmpty()) {
+                if (stop) {
+                    return;
+                }
+                continue;
+            }
+
+            try {
+                writeBatch(batch);
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("Error writing audit log batch: " + e.getMessage());
+                spill(batch);
+            } finally {
+                lock.lock();
+                try {
+                    writing = false;
+                    if (size == 0) {
+                        drained.signalAll();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private List<Entry> takeBatch(int max) {
+        lock.lock();
+        try {
+            int count = Math.min(max, size);
+            List<Entry> batch = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                batch.add(buffer[head]);
+                buffer[head] = null;
+                head = (head + 1) % buffer.length;
+            }
+            size -= count;
+            if (count > 0) {
+                notFull.signalAll();
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns the overflow entries. Caller must hold the lock.
+     */
+    private List<Entry> takeOverflow() {
+        List<Entry> taken = overflow;
+        overflow = new ArrayList<>();
+        return taken;
+    }
+
+    private void writeBatch(List<Entry> batch) throws SQLException {
+        StringBuilder sql = new StringBuilder("INSERT INTO logs (level, category, user_id, message, event_type, " +
+                                              "outcome, subject_id, latency_ms, created_at) VALUES ");
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        try (Connection conn = connectionSupplier.get();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (Entry entry : batch) {
+                AuditEvent event = entry.event;
+                ps.setString(index++, event.getLevel().name());
+                ps.setString(index++, event.getCategory().name());
+                ps.setString(index++, event.getActor());
+                ps.setString(index++, event.getDetail());
+                ps.setString(index++, event.getType().name());
+                ps.setString(index++, event.getOutcome().name());
+                ps.setString(index++, event.getSubjectId());
+                if (event.getLatencyMs() == AuditEvent.NOT_TIMED) {
+                    ps.setNull(index++, Types.INTEGER);
+                } else {
+                    ps.setLong(index++, event.getLatencyMs());
+                }
+                ps.setTimestamp(index++, entry.createdAt);
+            }
+            ps.executeUpdate();
+        }
+        written.addAndGet(batch.size());
+    }
+
+    // ===================== SPILL FILE =====================
+
+    private synchronized void spill(List<Entry> entries) {
+        try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Entry entry : entries) {
+                AuditEvent event = entry.event;
+                out.write(entry.createdAt.getTime() + "\t" + event.getType() + "\t" + event.getOutcome() + "\t" +
+                          escape(event.getActor()) + "\t" + escape(event.getSubjectId()) + "\t" +
+                          event.getLatencyMs() + "\t" + escape(event.getDetail()));
+                out.newLine();
+            }
+            spilled.addAndGet(entries.size());
+        } catch (IOException e) {
+            System.err.println("Error spilling audit log entries: " + e.getMessage());
+            dropped.addAndGet(entries.size());
+        }
+    }
+
+    /**
+     * Writes entries left in the spill file by a previous run. The file is renamed
+     * first so entries spilled while replaying are not read twice. After each
+     * committed batch the number of lines consumed is saved next to it, so a
+     * replay that failed part-way resumes after the last committed batch on the
+     * next run instead of inserting earlier batches again.
+     */
+    private void replaySpillFile() {
+        Path replaying = spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+        Path progress = spillFile.resolveSibling(spillFile.getFileName() + ".replay.done");
+        synchronized (this) {
+            if (!Files.exists(replaying)) {
+                if (!Files.exists(spillFile)) {
+                    return;
+                }
+                try {
+                    Files.move(spillFile, replaying, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    System.err.println("Error preparing audit spill file for replay: " + e.getMessage());
+                    return;
+                }
+            }
+        }
+
+        int replayed = 0;
+        int skipped = 0;
+        try (BufferedReader in = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+            long done = readProgress(progress);
+            long lines = 0;
+            List<Entry> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (++lines <= done) {
+                    continue;  // Committed by an earlier, interrupted replay
+                }
+                Entry entry = parseSpilled(line);
+                if (entry == null) {
+                    skipped++;  // Torn or corrupt line, e.g. cut off by a crash mid-write
+                    continue;
+                }
+                batch.add(entry);
+                if (batch.size() == batchSize) {
+                    writeBatch(batch);
+                    replayed += batch.size();
+                    batch.clear();
+                    writeProgress(progress, lines);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                replayed += batch.size();
+            }
+            Files.delete(replaying);
+            Files.deleteIfExists(progress);
+            System.out.println("Replayed " + replayed + " spilled audit log entries" +
+                               (done == 0 ? "" : ", resuming after line " + done) +
+                               (skipped == 0 ? "" : ", skipped " + skipped + " unreadable lines"));
+        } catch (IOException | SQLException | RuntimeException e) {
+            // Leave the file in place; it is picked up again on the next start
+            System.err.println("Error replaying audit spill file after " + replayed + " entries: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Number of replay file lines already committed, or 0 if no replay was interrupted
+     */
+    private static long readProgress(Path progress) throws IOException {
+        if (!Files.exists(progress)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(progress), StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Records the replay file lines committed so far. Written to a temporary
+     * file and moved into place, so a crash never leaves a torn count.
+     */
+    private static void writeProgress(Path progress, long lines) throws IOException {
+        Path tmp = progress.resolveSibling(progress.getFileName() + ".tmp");
+        Files.write(tmp, Long.toString(lines).getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, progress, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Parses a spill file line: time, event type, outcome, actor, subject, latency
+     * and detail separated by tabs, or just time and message for lines spilled by
+     * older versions.
+     *
+     * @return The entry, or null if the line cannot be parsed
+     */
+    private static Entry parseSpilled(String line) {
+        String[] fields = line.split("\t", -1);
+        try {
+            Timestamp createdAt = new Timestamp(Long.parseLong(fields[0]));
+            if (fields.length == 7) {
+                return new Entry(new AuditEvent(AuditEvent.Type.valueOf(fields[1]),
+                                                AuditEvent.Outcome.valueOf(fields[2]),
+                                                emptyToNull(unescape(fields[3])), emptyToNull(unescape(fields[4])),
+                                                Long.parseLong(fields[5]), unescape(fields[6])),
+                                 createdAt);
+            }
+            if (fields.length == 2) {
+                return new Entry(new AuditEvent(AuditEvent.Type.MESSAGE, AuditEvent.Outcome.SUCCESS, null, null,
+                                                unescape(fields[1])),
+                                 createdAt);
+            }
+        } catch (IllegalArgumentException e) {
+            // Bad number or unknown enum name; NumberFormatException is a subclass
+        }
+        return null;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String escape(String message) {
+        if (message == null) {
+            return "";
+        }
+        return message.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
+    }
+
+    private static String unescape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                switch (next) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    default: sb.append(next); break;
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -9,62 +9,204 @@
 package com.remotehealth.app.model;
 
 import com.remotehealth.app.service.EmergencyAlert;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import java.sql.*;
 import java.util.ArrayList;
 import java.sql.ResultSet;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import io.github.cdimascio.dotenv.Dotenv;
 
 public class DatabaseManager {
-    private Connection connection;
+    // Pool sizing defaults, overridable with -Ddb.pool.min / -Ddb.pool.max / -Ddb.pool.leakDetectionMs
+    private static final int DEFAULT_POOL_MIN = 2;
+    private static final int DEFAULT_POOL_MAX = 10;
+    private static final long DEFAULT_LEAK_DETECTION_MS = 30000;
+    // Entity cache defaults, overridable with -Dcache.entity.maxSize / -Dcache.entity.ttlMs
+    private static final int DEFAULT_CACHE_SIZE = 1000;
+    private static final long DEFAULT_CACHE_TTL_MS = 5 * 60 * 1000;
+    private static final long DEFAULT_CACHE_MISS_TTL_MS = 30 * 1000;
+    private static final String ALL = "all";
+
+    private final HikariDataSource dataSource;
+    private final AuditLogWriter auditLog;
+
+    // Write-through caches for patients and doctors
+    // Only the patient lookup caches misses: its loader returns null solely for "not found"
+    private final EntityCache<String, Patient> patientsById =
+        createCache("patientsById", Long.getLong("cache.entity.missTtlMs", DEFAULT_CACHE_MISS_TTL_MS),
+                    DatabaseManager::copyOf);
+    private final EntityCache<String, Doctor> doctorsById = createCache("doctorsById", 0, DatabaseManager::copyOf);
+    private final EntityCache<String, Doctor> doctorsByName = createCache("doctorsByName", 0, DatabaseManager::copyOf);
+    private final EntityCache<String, ArrayList<Patient>> allPatients =
+        createCache("allPatients", 0, list -> copyAll(list, DatabaseManager::copyOf));
+    private final EntityCache<String, ArrayList<Doctor>> allDoctors =
+        createCache("allDoctors", 0, list -> copyAll(list, DatabaseManager::copyOf));
+
+    /**
+     * Constructs a new DatabaseManager backed by a bounded connection pool.
+     * 
+     * @param url The JDBC URL of the database
+     * @param user The database user
+     * @param password The database password
+     */
+    public DatabaseManager(String url, String user, String password) {
+        this.dataSource = createPool(url, user, password);
+        this.auditLog = new AuditLogWriter(this::getConnection);
+    }
+
+    /**
+     * Constructs a new DatabaseManager using the DB_URL, DB_USER and DB_PASSWORD
+     * entries from the .env file.
+     */
+    public DatabaseManager() {
+        this(Dotenv.load());
+    }
+
+    private DatabaseManager(Dotenv dotenv) {
+        this(dotenv.get("DB_URL"), dotenv.get("DB_USER"), dotenv.get("DB_PASSWORD"));
+    }
 
     /**
-     * Constructs a new DatabaseManager with the specified connection.
+     * Creates the connection pool. Connections are validated when borrowed after
+     * being idle, and connections held longer than the leak threshold are reported.
      * 
-     * @param connection The database connection to use
+     * @param url The JDBC URL of the database
+     * @param user The database user
+     * @param password The database password
+     * @return The initialized pool
      */
-    public DatabaseManager(Connection connection) {
-        this.connection = connection;
+    private static HikariDataSource createPool(String url, String user, String password) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("remotehealth-db");
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setMinimumIdle(Integer.getInteger("db.pool.min", DEFAULT_POOL_MIN));
+        config.setMaximumPoolSize(Integer.getInteger("db.pool.max", DEFAULT_POOL_MAX));
+        config.setLeakDetectionThreshold(Long.getLong("db.pool.leakDetectionMs", DEFAULT_LEAK_DETECTION_MS));
+        config.setConnectionTimeout(10000);
+        config.setValidationTimeout(3000);
+        config.setRegisterMbeans(true);
+
+        // Statement caching on the driver side, so re-preparing the same SQL is cheap
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        // Let the driver turn JDBC batches into multi-row INSERTs
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        // Queries that set a fetch size read through a server-side cursor, one batch at a time
+        config.addDataSourceProperty("useCursorFetch", "true");
+        return new HikariDataSource(config);
     }
 
     /**
-     * Gets the database connection, re-establishing it if necessary.
+     * Borrows a connection from the pool. Callers must close the connection
+     * (ideally with try-with-resources) to return it to the pool.
      * 
-     * @return The active database connection
+     * @return A pooled database connection
      */
     public Connection getConnection() {
         try {
-        if (connection == null || connection.isClosed()) {
-            Dotenv dotenv = Dotenv.load();
-            String url = dotenv.get("DB_URL");
-            String user = dotenv.get("DB_USER");
-            String pass = dotenv.get("DB_PASSWORD");
-
-            connection = DriverManager.getConnection(url, user, pass);
-            System.out.println("Re-established database connection");
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to obtain database connection", e);
         }
-        return connection;
-    } catch (SQLException e) {
-        throw new RuntimeException("Failed to re-establish connection", e);
     }
-}
 
     /**
-     * Closes the database connection if it's open.
+     * Starts writing queued audit log messages to the logs table. Called once
+     * the schema is current; until then messages wait in the buffer.
+     */
+    public void startAuditLog() {
+        auditLog.start();
+    }
+
+    /**
+     * Drains the audit log and shuts down the connection pool, closing all connections.
      */
     public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing connection: " + e.getMessage());
+        if (!dataSource.isClosed()) {
+            auditLog.close();
+            dataSource.close();
+            System.out.println("Database connection pool closed");
+        }
+    }
+
+    /**
+     * Returns a snapshot of the connection pool metrics.
+     * 
+     * @return Formatted string with active, idle, total and waiting counts
+     */
+    public String getPoolMetrics() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return "Connection pool not started";
         }
+        return "Active: " + pool.getActiveConnections() +
+               ", Idle: " + pool.getIdleConnections() +
+               ", Total: " + pool.getTotalConnections() +
+               ", Waiting: " + pool.getThreadsAwaitingConnection();
+    }
+
+    private static <K, V> EntityCache<K, V> createCache(String name, long missTtlMs, UnaryOperator<V> copier) {
+        return new EntityCache<>(name,
+                                 Integer.getInteger("cache.entity.maxSize", DEFAULT_CACHE_SIZE),
+                                 Long.getLong("cache.entity.ttlMs", DEFAULT_CACHE_TTL_MS),
+                                 missTtlMs, copier);
+    }
+
+    // Cached entities are copied in and out, so no caller can change another's instance
+    private static Patient copyOf(Patient p) {
+        return new Patient(p.getId(), p.getName(), p.getEmail(), p.getPassword());
+    }
+
+    private static Doctor copyOf(Doctor d) {
+        return new Doctor(d.getId(), d.getName(), d.getEmail(), d.getPassword());
+    }
+
+    private static <T> ArrayList<T> copyAll(ArrayList<T> list, UnaryOperator<T> copier) {
+        ArrayList<T> copy = new ArrayList<>(list.size());
+        for (T item : list) {
+            copy.add(copier.apply(item));
+        }
+        return copy;
+    }
+
+    /**
+     * Returns hit/miss statistics for the patient and doctor caches.
+     * 
+     * @return One line of statistics per cache
+     */
+    public String getCacheStats() {
+        return patientsById.getStats() + "\n" +
+               doctorsById.getStats() + "\n" +
+               doctorsByName.getStats() + "\n" +
+               allPatients.getStats() + "\n" +
+               allDoctors.getStats();
+    }
+
+    /**
+     * Drops every cached patient and doctor, e.g. after the tables were changed externally.
+     */
+    public void clearCaches() {
+        patientsById.clear();
+        doctorsById.clear();
+        doctorsByName.clear();
+        allPatients.clear();
+        allDoctors.clear();
     }
 
     // ===================== PATIENT OPERATIONS =====================
@@ -75,18 +217,23 @@ public class DatabaseManager {
      * @param patient The patient to save
      */
     public void savePatient(Patient patient) {
+        long start = System.nanoTime();
         String sql = "INSERT INTO patients (id, name, email, password) VALUES (?, ?, ?, ?) " +
                      "ON DUPLICATE KEY UPDATE name = VALUES(name), email = VALUES(email), password = VALUES(password)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, patient.getId());
             ps.setString(2, patient.getName());
             ps.setString(3, patient.getEmail());
             ps.setString(4, patient.getPassword());
             int rowsAffected = ps.executeUpdate();
-            saveLog("Saved patient: " + patient.getId() + ", Rows affected: " + rowsAffected + 
-                    ", Password: " + patient.getPassword());
+            patientsById.put(patient.getId(), patient);
+            allPatients.clear();
+            logEvent(new AuditEvent(AuditEvent.Type.PATIENT_SAVE, AuditEvent.Outcome.SUCCESS, null, patient.getId(),
+                                    AuditEvent.since(start), "Rows affected: " + rowsAffected));
         } catch (SQLException e) {
-            saveLog("Error saving patient " + patient.getId() + ": " + e.getMessage());
+            logEvent(new AuditEvent(AuditEvent.Type.PATIENT_SAVE, AuditEvent.Outcome.ERROR, null, patient.getId(),
+                                    AuditEvent.since(start), e.getMessage()));
             throw new RuntimeException("Failed to save patient", e);
         }
     }
@@ -97,41 +244,60 @@ public class DatabaseManager {
      * @return List of all patients
      */
     public ArrayList<Patient> getAllPatients() {
+        ArrayList<Patient> cached = allPatients.getOrLoad(ALL, key -> loadAllPatients());
+        return cached == null ? new ArrayList<>() : cached;
+    }
+
+    /**
+     * Loads all patients, returning null on failure so the error is not cached.
+     */
+    private ArrayList<Patient> loadAllPatients() {
         ArrayList<Patient> list = new ArrayList<>();
         String sql = "SELECT * FROM patients";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql);
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 list.add(new Patient(rs.getString("id"), rs.getString("name"), rs.getString("email")));
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
         return list;
     }
 
     /**
-     * Retrieves a patient by their ID.
+     * Retrieves a patient by their ID, from the cache when possible.
      * 
      * @param id The patient ID to search for
      * @return The found patient or null if not found
      */
     public Patient getPatientById(String id) {
+        return patientsById.getOrLoad(id, this::loadPatientById);
+    }
+
+    private Patient loadPatientById(String id) {
+        long start = System.nanoTime();
         String sql = "SELECT id, name, email, password FROM patients WHERE id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, id);
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
                 Patient patient = new Patient(rs.getString("id"), rs.getString("name"), 
                                              rs.getString("email"), rs.getString("password"));
-                saveLog("Retrieved patient: " + id + ", Password: " + rs.getString("password"));
+                logEvent(new AuditEvent(AuditEvent.Type.PATIENT_READ, AuditEvent.Outcome.SUCCESS, null, id,
+                                        AuditEvent.since(start), "Retrieved patient"));
                 return patient;
             } else {
-                saveLog("Patient not found in database: " + id);
+                logEvent(new AuditEvent(AuditEvent.Type.PATIENT_READ, AuditEvent.Outcome.FAILURE, null, id,
+                                        AuditEvent.since(start), "Patient not found"));
                 return null;
             }
         } catch (SQLException e) {
-            saveLog("Error retrieving patient " + id + ": " + e.getMessage());
+            logEvent(new AuditEvent(AuditEvent.Type.PATIENT_READ, AuditEvent.Outcome.ERROR, null, id,
+                                    AuditEvent.since(start), e.getMessage()));
             throw new RuntimeException("Failed to retrieve patient", e);
         }
     }
@@ -143,11 +309,15 @@ public class DatabaseManager {
      */
     public void deletePatientById(String id) {
         String sql = "DELETE FROM patients WHERE id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, id);
             ps.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            patientsById.invalidate(id);
+            allPatients.clear();
         }
     }
 
@@ -161,26 +331,37 @@ public class DatabaseManager {
     public void saveDoctor(Doctor doctor) {
         String sql = "INSERT INTO doctors (id, name, email, password) VALUES (?, ?, ?, ?)" + 
                 "ON DUPLICATE KEY UPDATE name = VALUES(name), email = VALUES(email), password = VALUES(password)";;
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, doctor.getId());
             ps.setString(2, doctor.getName());
             ps.setString(3, doctor.getEmail());
             ps.setString(4, doctor.getPassword());
             ps.executeUpdate();
+            // A renamed doctor must not stay reachable under the old name
+            doctorsByName.invalidateIf(d -> d.getId().equals(doctor.getId()));
+            doctorsById.put(doctor.getId(), doctor);
+            doctorsByName.put(doctor.getName(), doctor);
+            allDoctors.clear();
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
     
     /**
-     * Retrieves a doctor by their ID.
+     * Retrieves a doctor by their ID, from the cache when possible.
      * 
      * @param id The doctor ID to search for
      * @return The found doctor or null if not found
      */
     public Doctor getDoctorById(String id) {
+        return doctorsById.getOrLoad(id, this::loadDoctorById);
+    }
+
+    private Doctor loadDoctorById(String id) {
         String query = "SELECT * FROM doctors WHERE id = ?";
-        try (PreparedStatement stmt = getConnection().prepareStatement(query)) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setString(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -198,14 +379,19 @@ public class DatabaseManager {
     }
 
     /**
-     * Retrieves a doctor by their name.
+     * Retrieves a doctor by their name, from the cache when possible.
      * 
      * @param name The doctor name to search for
      * @return The found doctor or null if not found
      */
     public Doctor getDoctorByName(String name) {
+        return doctorsByName.getOrLoad(name, this::loadDoctorByName);
+    }
+
+    private Doctor loadDoctorByName(String name) {
         String sql = "SELECT * FROM doctors WHERE name = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, name);
             ResultSet rs = ps.executeQuery();
             if (rs.next()) {
@@ -223,6 +409,14 @@ public class DatabaseManager {
      * @return List of all doctors
      */
     public ArrayList<Doctor> getAllDoctors() {
+        ArrayList<Doctor> cached = allDoctors.getOrLoad(ALL, key -> loadAllDoctors());
+        return cached == null ? new ArrayList<>() : cached;
+    }
+
+    /**
+     * Loads all doctors, returning null on failure so the error is not cached.
+     */
+    private ArrayList<Doctor> loadAllDoctors() {
         ArrayList<Doctor> doctors = new ArrayList<>();
         String query = "SELECT * FROM doctors";
         
@@ -239,6 +433,7 @@ public class DatabaseManager {
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
         
         return doctors;
@@ -251,25 +446,31 @@ public class DatabaseManager {
      */
     public void deleteDoctorById(String id) {
         String sql = "DELETE FROM doctors WHERE id = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, id);
             ps.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            doctorsById.invalidate(id);
+            doctorsByName.invalidateIf(d -> d.getId().equals(id));
+            allDoctors.clear();
         }
     }
 
     // ===================== APPOINTMENT OPERATIONS =====================
     
     /**
-     * Saves an appointment to the database.
+     * Saves a new appointment to the database and assigns it the generated ID.
      * 
      * @param appointment The appointment to save
      */
     public void saveAppointment(Appointment appointment) {
         try (Connection conn = getConnection();
             PreparedStatement stmt = conn.prepareStatement(
-                "INSERT INTO appointments (patient_id, doctor_id, date_time, status) VALUES (?, ?, ?, ?)")) {
+                "INSERT INTO appointments (patient_id, doctor_id, date_time, status, version) VALUES (?, ?, ?, ?, 0)",
+                Statement.RETURN_GENERATED_KEYS)) {
         
             stmt.setString(1, appointment.getPatient().getId());
             stmt.setString(2, appointment.getDoctor().getId());
@@ -277,11 +478,48 @@ public class DatabaseManager {
             stmt.setTimestamp(3, Timestamp.valueOf(appointment.getDateTime()));
             stmt.setString(4, appointment.getStatus());
             stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    appointment.setId(keys.getInt(1));
+                    appointment.setVersion(0);
+                }
+            }
             } catch (SQLException e) {
                e.printStackTrace();
         }
     }
 
+    /**
+     * Updates the date/time and status of a saved appointment in a single statement.
+     * The update only applies if the row still has the version this appointment
+     * was read with, so two doctors cannot silently overwrite each other.
+     * 
+     * @param appointment The appointment to update
+     * @throws IllegalArgumentException if the appointment has never been saved
+     * @throws IllegalStateException if the appointment was changed or deleted concurrently
+     */
+    public void updateAppointment(Appointment appointment) {
+        if (appointment.getId() == 0) {
+            throw new IllegalArgumentException("Appointment has not been saved yet");
+        }
+        String sql = "UPDATE appointments SET date_time = ?, status = ?, version = version + 1 " +
+                     "WHERE id = ? AND version = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.valueOf(appointment.getDateTime()));
+            ps.setString(2, appointment.getStatus());
+            ps.setInt(3, appointment.getId());
+            ps.setInt(4, appointment.getVersion());
+            if (ps.executeUpdate() == 0) {
+                throw new IllegalStateException(
+                    "This appointment was changed by someone else. Please refresh and try again.");
+            }
+            appointment.setVersion(appointment.getVersion() + 1);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update appointment " + appointment.getId(), e);
+        }
+    }
+
     /**
      * Retrieves all appointments for a specific patient.
      * 
@@ -322,6 +560,8 @@ public class DatabaseManager {
                 
                     if (dateTime != null && patient != null && doctor != null) {
                     Appointment appt = new Appointment(dateTime, patient, doctor);
+                    appt.setId(rs.getInt("id"));
+                    appt.setVersion(rs.getInt("version"));
                     appt.setStatus(rs.getString("status"));
                     appointments.add(appt);
                     } else {
@@ -337,14 +577,96 @@ public class DatabaseManager {
         return appointments;
     }
 
+    /**
+     * Retrieves a patient's latest appointments, latest first.
+     * Uses the (patient_id, date_time) index, so the cost does not grow with the history.
+     * 
+     * @param patientId The ID of the patient
+     * @param limit Maximum number of appointments to return
+     * @return List of at most limit appointments
+     */
+    public List<Appointment> getRecentAppointments(String patientId, int limit) {
+        List<Appointment> appointments = new ArrayList<>();
+        String sql = "SELECT a.id, a.version, a.date_time, a.status, " +
+                     "d.id as doctor_id, d.name as doctor_name, d.email as doctor_email, d.specialization " +
+                     "FROM appointments a " +
+                     "JOIN doctors d ON a.doctor_id = d.id " +
+                     "WHERE a.patient_id = ? AND a.date_time IS NOT NULL " +
+                     "ORDER BY a.date_time DESC LIMIT ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, patientId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                Patient patient = getPatientById(patientId);
+                while (rs.next()) {
+                    Doctor doctor = new Doctor(rs.getString("doctor_id"), rs.getString("doctor_name"),
+                                               rs.getString("doctor_email"), rs.getString("specialization"));
+                    Appointment appt = new Appointment(rs.getTimestamp("date_time").toLocalDateTime(), patient, doctor);
+                    appt.setId(rs.getInt("id"));
+                    appt.setVersion(rs.getInt("version"));
+                    appt.setStatus(rs.getString("status"));
+                    appointments.add(appt);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to retrieve appointments for patient " + patientId, e);
+        }
+        return appointments;
+    }
+
+    /**
+     * Retrieves a doctor's pending and approved appointments starting in a time range,
+     * ordered by start time. Uses the (doctor_id, date_time) index.
+     * 
+     * @param doctorId The ID of the doctor
+     * @param from Start of the range (inclusive)
+     * @param to End of the range (exclusive)
+     * @return List of appointments in the range
+     */
+    public List<Appointment> getAppointmentsForDoctorBetween(String doctorId, LocalDateTime from, LocalDateTime to) {
+        List<Appointment> appointments = new ArrayList<>();
+        String sql = "SELECT a.id, a.version, a.date_time, a.status, " +
+                     "p.id as patient_id, p.name as patient_name, p.email as patient_email, " +
+                     "d.id as doctor_id, d.name as doctor_name, d.email as doctor_email " +
+                     "FROM appointments a " +
+                     "JOIN patients p ON a.patient_id = p.id " +
+                     "JOIN doctors d ON a.doctor_id = d.id " +
+                     "WHERE a.doctor_id = ? AND a.date_time >= ? AND a.date_time < ? " +
+                     "AND a.status IN ('Pending', 'Approved') ORDER BY a.date_time";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, doctorId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Patient patient = new Patient(rs.getString("patient_id"), rs.getString("patient_name"),
+                                                  rs.getString("patient_email"));
+                    Doctor doctor = new Doctor(rs.getString("doctor_id"), rs.getString("doctor_name"),
+                                               rs.getString("doctor_email"), "");
+                    Appointment appt = new Appointment(rs.getTimestamp("date_time").toLocalDateTime(), patient, doctor);
+                    appt.setId(rs.getInt("id"));
+                    appt.setVersion(rs.getInt("version"));
+                    appt.setStatus(rs.getString("status"));
+                    appointments.add(appt);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to retrieve appointments for doctor " + doctorId, e);
+        }
+        return appointments;
+    }
+
     /**
      * Deletes all appointments for a specific patient.
      * 
      * @param patientId The ID of the patient
      */
     public void deleteAppointmentsByPatientId(String patientId) {
-        String sql = "DELETE FROM appointments WHERE patientID = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        String sql = "DELETE FROM appointments WHERE patient_id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, patientId);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -356,7 +678,7 @@ public class DatabaseManager {
      * Retrieves all appointments for a specific doctor.
      * 
      * @param doctorName The name of the doctor
-     * @return List of appointments for the doctor
+     * @return List of appointments for the doctor, oldest created first
      */
    public ArrayList<Appointment> getAppointmentsForDoctor(String doctorName) {
     ArrayList<Appointment> appointments = new ArrayList<>();
@@ -366,7 +688,9 @@ public class DatabaseManager {
             "d.id as doctor_id, d.name as doctor_name, d.email as doctor_email " +
             "FROM appointments a " +
             "JOIN patients p ON a.patient_id = p.id " +
-            "JOIN doctors d ON a.doctor_id = d.id WHERE d.name = ?")) {  
+            "JOIN doctors d ON a.doctor_id = d.id WHERE d.name = ? " +
+            // Creation order, which AppointmentSnapshot.recent relies on
+            "ORDER BY a.id")) {  
     
         stmt.setString(1, doctorName);
         ResultSet rs = stmt.executeQuery();
@@ -387,6 +711,8 @@ public class DatabaseManager {
                 );
                 
                 Appointment appt = new Appointment(dateTime, patient, doctor);
+                appt.setId(rs.getInt("id"));
+                appt.setVersion(rs.getInt("version"));
                 appt.setStatus(rs.getString("status"));
                 appointments.add(appt);
             } catch (Exception e) {
@@ -412,70 +738,491 @@ public class DatabaseManager {
     }
 
     // ===================== VITAL SIGNS OPERATIONS =====================
+
+    private static final String VITALS_COLUMNS =
+        "heartRate, oxygenLevel, bloodPressure, systolic, diastolic, temperature, added_on";
+    private static final String VITALS_SERIES_COLUMNS =
+        "heartRate, oxygenLevel, systolic, diastolic, temperature, added_on";
+    // Blood pressure bounds are NULL for buckets without a pressure reading, and LEAST/GREATEST
+    // return NULL if either side is NULL, so those merges fall back to whichever side is set
+    private static final String UPSERT_ROLLUP_SQL =
+        "INSERT INTO vitals_rollups (patientId, resolution, bucket_start, sample_count, " +
+        "hr_min, hr_max, hr_sum, ox_min, ox_max, ox_sum, temp_min, temp_max, temp_sum, " +
+        "bp_count, sys_min, sys_max, sys_sum, dia_min, dia_max, dia_sum) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE sample_count = sample_count + VALUES(sample_count), " +
+        "hr_min = LEAST(hr_min, VALUES(hr_min)), hr_max = GREATEST(hr_max, VALUES(hr_max)), hr_sum = hr_sum + VALUES(hr_sum), " +
+        "ox_min = LEAST(ox_min, VALUES(ox_min)), ox_max = GREATEST(ox_max, VALUES(ox_max)), ox_sum = ox_sum + VALUES(ox_sum), " +
+        "temp_min = LEAST(temp_min, VALUES(temp_min)), temp_max = GREATEST(temp_max, VALUES(temp_max)), temp_sum = temp_sum + VALUES(temp_sum), " +
+        "bp_count = bp_count + VALUES(bp_count), " +
+        "sys_min = COALESCE(LEAST(sys_min, VALUES(sys_min)), sys_min, VALUES(sys_min)), " +
+        "sys_max = COALESCE(GREATEST(sys_max, VALUES(sys_max)), sys_max, VALUES(sys_max)), " +
+        "sys_sum = sys_sum + VALUES(sys_sum), " +
+        "dia_min = COALESCE(LEAST(dia_min, VALUES(dia_min)), dia_min, VALUES(dia_min)), " +
+        "dia_max = COALESCE(GREATEST(dia_max, VALUES(dia_max)), dia_max, VALUES(dia_max)), " +
+        "dia_sum = dia_sum + VALUES(dia_sum)";
+
+    /**
+     * Aggregates for one (patient, resolution, bucket) accumulated in memory
+     * before being merged into vitals_rollups.
+     */
+    private static final class RollupDelta {
+        final String patientId;
+        final VitalRollup.Resolution resolution;
+        final LocalDateTime bucketStart;
+        int count;
+        int hrMin = Integer.MAX_VALUE, hrMax = Integer.MIN_VALUE;
+        long hrSum;
+        int oxMin = Integer.MAX_VALUE, oxMax = Integer.MIN_VALUE;
+        long oxSum;
+        double tempMin = Double.MAX_VALUE, tempMax = -Double.MAX_VALUE, tempSum;
+        int bpCount;
+        int sysMin = Integer.MAX_VALUE, sysMax = Integer.MIN_VALUE;
+        long sysSum;
+        int diaMin = Integer.MAX_VALUE, diaMax = Integer.MIN_VALUE;
+        long diaSum;
+
+        RollupDelta(String patientId, VitalRollup.Resolution resolution, LocalDateTime bucketStart) {
+            this.patientId = patientId;
+            this.resolution = resolution;
+            this.bucketStart = bucketStart;
+        }
+
+        void add(VitalSign v) {
+            count++;
+            hrMin = Math.min(hrMin, v.getHeartRate());
+            hrMax = Math.max(hrMax, v.getHeartRate());
+            hrSum += v.getHeartRate();
+            oxMin = Math.min(oxMin, v.getOxygenLevel());
+            oxMax = Math.max(oxMax, v.getOxygenLevel());
+            oxSum += v.getOxygenLevel();
+            tempMin = Math.min(tempMin, v.getTemperature());
+            tempMax = Math.max(tempMax, v.getTemperature());
+            tempSum += v.getTemperature();
+            if (v.hasBloodPressure()) {
+                bpCount++;
+                sysMin = Math.min(sysMin, v.getSystolic());
+                sysMax = Math.max(sysMax, v.getSystolic());
+                sysSum += v.getSystolic();
+                diaMin = Math.min(diaMin, v.getDiastolic());
+                diaMax = Math.max(diaMax, v.getDiastolic());
+                diaSum += v.getDiastolic();
+            }
+        }
+    }
     
     /**
-     * Saves vital signs for a patient.
+     * Saves vital signs for a patient and updates the minute, hour and day
+     * rollups in the same transaction.
      * 
      * @param patientId The ID of the patient
      * @param vitals The vital signs to save
      */
     public void saveVitals(String patientId, VitalSign vitals) {
-        String sql = "INSERT INTO vitals (patientId, heartRate, oxygenLevel, bloodPressure, temperature, added_on) VALUES (?, ?, ?, ?, ?,?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, patientId);
-            ps.setInt(2, vitals.getHeartRate());
-            ps.setInt(3, vitals.getOxygenLevel());
-            ps.setString(4, vitals.getBloodPressure());
-            ps.setDouble(5, vitals.getTemperature());
-            ps.setDate(6, new java.sql.Date(vitals.getAddedOn().getTime()));
-            ps.executeUpdate();
+        Map<String, List<VitalSign>> single = new HashMap<>();
+        single.put(patientId, List.of(vitals));
+        try {
+            insertVitals(single);
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Deletes all vital signs for a patient.
+     * Saves many readings in one transaction, using JDBC batching for the raw
+     * rows and merging them into at most one rollup update per bucket.
+     * 
+     * @param readingsByPatient Readings to save, grouped by patient ID
+     * @return Number of readings saved
+     */
+    public int saveVitalsBatch(Map<String, List<VitalSign>> readingsByPatient) {
+        try {
+            return insertVitals(readingsByPatient);
+        } catch (SQLException e) {
+            logEvent(new AuditEvent(AuditEvent.Type.VITALS_SAVE, AuditEvent.Outcome.ERROR, null, null,
+                                    "Error saving vitals batch: " + e.getMessage()));
+            throw new RuntimeException("Failed to save vitals batch", e);
+        }
+    }
+
+    private int insertVitals(Map<String, List<VitalSign>> readingsByPatient) throws SQLException {
+        String sql = "INSERT INTO vitals (patientId, " + VITALS_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        Map<String, RollupDelta> deltas = new LinkedHashMap<>();
+        int count = 0;
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (Map.Entry<String, List<VitalSign>> entry : readingsByPatient.entrySet()) {
+                    String patientId = entry.getKey();
+                    for (VitalSign vitals : entry.getValue()) {
+                        Timestamp addedOn = toTimestamp(vitals.getAddedOn());
+                        ps.setString(1, patientId);
+                        ps.setInt(2, vitals.getHeartRate());
+                        ps.setInt(3, vitals.getOxygenLevel());
+                        ps.setString(4, vitals.getBloodPressure());
+                        if (vitals.hasBloodPressure()) {
+                            ps.setInt(5, vitals.getSystolic());
+                            ps.setInt(6, vitals.getDiastolic());
+                        } else {
+                            ps.setNull(5, Types.INTEGER);
+                            ps.setNull(6, Types.INTEGER);
+                        }
+                        ps.setDouble(7, vitals.getTemperature());
+                        ps.setTimestamp(8, addedOn);
+                        ps.addBatch();
+                        count++;
+
+                        LocalDateTime time = addedOn.toLocalDateTime();
+                        for (VitalRollup.Resolution resolution : VitalRollup.Resolution.values()) {
+                            LocalDateTime bucket = resolution.bucketStart(time);
+                            deltas.computeIfAbsent(patientId + "|" + resolution + "|" + bucket,
+                                                   key -> new RollupDelta(patientId, resolution, bucket))
+                                  .add(vitals);
+                        }
+                    }
+                }
+                ps.executeBatch();
+                upsertRollups(conn, deltas.values());
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Merges accumulated aggregates into vitals_rollups.
+     * Runs on the caller's connection so it shares the caller's transaction.
+     */
+    private void upsertRollups(Connection conn, Collection<RollupDelta> deltas) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(UPSERT_ROLLUP_SQL)) {
+            for (RollupDelta d : deltas) {
+                ps.setString(1, d.patientId);
+                ps.setString(2, d.resolution.name());
+                ps.setTimestamp(3, Timestamp.valueOf(d.bucketStart));
+                ps.setInt(4, d.count);
+                ps.setInt(5, d.hrMin);
+                ps.setInt(6, d.hrMax);
+                ps.setLong(7, d.hrSum);
+                ps.setInt(8, d.oxMin);
+                ps.setInt(9, d.oxMax);
+                ps.setLong(10, d.oxSum);
+                ps.setDouble(11, d.tempMin);
+                ps.setDouble(12, d.tempMax);
+                ps.setDouble(13, d.tempSum);
+                ps.setInt(14, d.bpCount);
+                setPressure(ps, 15, d.bpCount, d.sysMin);
+                setPressure(ps, 16, d.bpCount, d.sysMax);
+                ps.setLong(17, d.sysSum);
+                setPressure(ps, 18, d.bpCount, d.diaMin);
+                setPressure(ps, 19, d.bpCount, d.diaMax);
+                ps.setLong(20, d.diaSum);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void setPressure(PreparedStatement ps, int index, int bpCount, int value) throws SQLException {
+        if (bpCount > 0) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+
+    private static Timestamp toTimestamp(java.util.Date date) {
+        return new Timestamp(date != null ? date.getTime() : System.currentTimeMillis());
+    }
+
+    /**
+     * Deletes all vital signs and rollups for a patient.
      * 
      * @param patientId The ID of the patient
      */
     public void deleteVitals(String patientId) {
-        String sql = "DELETE FROM vitals WHERE patientId = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement("DELETE FROM vitals WHERE patientId = ?");
+             PreparedStatement rollups = conn.prepareStatement("DELETE FROM vitals_rollups WHERE patientId = ?")) {
             ps.setString(1, patientId);
             ps.executeUpdate();
+            rollups.setString(1, patientId);
+            rollups.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
     
     /**
-     * Retrieves all vital signs for a patient.
+     * Retrieves all vital signs for a patient, oldest first.
      * 
      * @param patientId The ID of the patient
      * @return List of vital signs for the patient
      */
     public List<VitalSign> getVitalsForPatient(String patientId) {
-        List<VitalSign> vitals = new ArrayList<>();
-        String sql = "SELECT heartRate, oxygenLevel, bloodPressure, temperature, added_on FROM vitals WHERE patientId = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        long start = System.nanoTime();
+        String sql = "SELECT " + VITALS_COLUMNS + " FROM vitals WHERE patientId = ? ORDER BY added_on";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, patientId);
-            ResultSet rs = ps.executeQuery();
+            List<VitalSign> vitals = readVitals(ps);
+            logEvent(new AuditEvent(AuditEvent.Type.VITALS_READ, AuditEvent.Outcome.SUCCESS, null, patientId,
+                                    AuditEvent.since(start), "Retrieved " + vitals.size() + " readings"));
+            return vitals;
+        } catch (SQLException e) {
+            logEvent(new AuditEvent(AuditEvent.Type.VITALS_READ, AuditEvent.Outcome.ERROR, null, patientId,
+                                    e.getMessage()));
+            throw new RuntimeException("Failed to retrieve vitals", e);
+        }
+    }
+
+    /**
+     * Retrieves a patient's most recent vital signs, newest first.
+     * Uses the (patientId, added_on) index, so the cost does not grow with the history.
+     * 
+     * @param patientId The ID of the patient
+     * @param limit Maximum number of readings to return
+     * @return List of at most limit vital signs
+     */
+    public List<VitalSign> getLatestVitals(String patientId, int limit) {
+        String sql = "SELECT " + VITALS_COLUMNS + " FROM vitals WHERE patientId = ? ORDER BY added_on DESC LIMIT ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, patientId);
+            ps.setInt(2, limit);
+            return readVitals(ps);
+        } catch (SQLException e) {
+            logEvent(new AuditEvent(AuditEvent.Type.VITALS_READ, AuditEvent.Outcome.ERROR, null, patientId,
+                                    e.getMessage()));
+            throw new RuntimeException("Failed to retrieve vitals", e);
+        }
+    }
+
+    /**
+     * Retrieves the vital signs a patient recorded in a time range, oldest first.
+     * 
+     * @param patientId The ID of the patient
+     * @param from Start of the range (inclusive)
+     * @param to End of the range (exclusive)
+     * @return List of vital signs in the range
+     */
+    public List<VitalSign> getVitalsForPatient(String patientId, LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT " + VITALS_COLUMNS + " FROM vitals " +
+                     "WHERE patientId = ? AND added_on >= ? AND added_on < ? ORDER BY added_on";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, patientId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            return readVitals(ps);
+        } catch (SQLException e) {
+            logEvent(new AuditEvent(AuditEvent.Type.VITALS_READ, AuditEvent.Outcome.ERROR, null, patientId,
+                                    e.getMessage()));
+            throw new RuntimeException("Failed to retrieve vitals", e);
+        }
+    }
+
+    /**
+     * Retrieves all vital signs for a patient as a columnar series, oldest first.
+     * 
+     * @param patientId The ID of the patient
+     * @return The patient's readings
+     */
+    public VitalsSeries getVitalsSeries(String patientId) {
+        String sql = "SELECT " + VITALS_SERIES_COLUMNS + " FROM vitals WHERE patientId = ? ORDER BY added_on";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, patientId);
+            return readVitalsSeries(ps);
+        } catch (SQLException e) {
+            logEvent(new AuditEvent(AuditEvent.Type.VITALS_READ, AuditEvent.Outcome.ERROR, null, patientId,
+                                    e.getMessage()));
+            throw new RuntimeException("Failed to retrieve vitals", e);
+        }
+    }
+
+    /**
+     * Retrieves the vital signs a patient recorded in a time range as a columnar series, oldest first.
+     * 
+     * @param patientId The ID of the patient
+     * @param from Start of the range (inclusive)
+     * @param to End of the range (exclusive)
+     * @return The readings in the range
+     */
+    public VitalsSeries getVitalsSeries(String patientId, LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT " + VITALS_SERIES_COLUMNS + " FROM vitals " +
+                     "WHERE patientId = ? AND added_on >= ? AND added_on < ? ORDER BY added_on";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, patientId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            return readVitalsSeries(ps);
+        } catch (SQLException e) {
+            logEvent(new AuditEvent(AuditEvent.Type.VITALS_READ, AuditEvent.Outcome.ERROR, null, patientId,
+                                    e.getMessage()));
+            throw new RuntimeException("Failed to retrieve vitals", e);
+        }
+    }
+
+    /**
+     * Retrieves the vital signs a patient recorded at or after a point in time
+     * as a columnar series, oldest first. added_on has one-second precision, so
+     * the bound is inclusive: a later reading stored in the same second as the
+     * bound is still returned.
+     * 
+     * @param patientId The ID of the patient
+     * @param since Earliest reading time to include, or null for the whole history
+     * @return The readings
+     */
+    public VitalsSeries getVitalsSeriesSince(String patientId, LocalDateTime since) {
+        if (since == null) {
+            return getVitalsSeries(patientId);
+        }
+        String sql = "SELECT " + VITALS_SERIES_COLUMNS + " FROM vitals WHERE patientId = ? AND added_on >= ? ORDER BY added_on";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, patientId);
+            ps.setTimestamp(2, Timestamp.valueOf(since));
+            return readVitalsSeries(ps);
+        } catch (SQLException e) {
+            logEvent(new AuditEvent(AuditEvent.Type.VITALS_READ, AuditEvent.Outcome.ERROR, null, patientId,
+                                    e.getMessage()));
+            throw new RuntimeException("Failed to retrieve vitals", e);
+        }
+    }
+
+    /**
+     * Streams all vital signs for a patient, oldest first, in batches. Rows are
+     * read through a forward-only cursor into one reused series, so memory stays
+     * flat however long the history is. The series passed to onBatch is only
+     * valid during the call; it is cleared and refilled for the next batch.
+     * 
+     * @param patientId The ID of the patient
+     * @param batchSize Maximum readings per batch
+     * @param onBatch Receives each batch on the calling thread
+     * @return Total number of readings streamed
+     */
+    public long streamVitalsSeries(String patientId, int batchSize, Consumer<VitalsSeries> onBatch) {
+        long start = System.nanoTime();
+        String sql = "SELECT " + VITALS_SERIES_COLUMNS + " FROM vitals WHERE patientId = ? ORDER BY added_on";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setString(1, patientId);
+            ps.setFetchSize(batchSize);
+            VitalsSeries batch = new VitalsSeries(batchSize);
+            long total = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp addedOn = rs.getTimestamp("added_on");
+                    batch.add(
+                        addedOn == null ? 0L : addedOn.getTime(),
+                        rs.getInt("heartRate"),
+                        rs.getInt("oxygenLevel"),
+                        rs.getInt("systolic"),
+                        rs.getInt("diastolic"),
+                        rs.getDouble("temperature")
+                    );
+                    if (batch.size() == batchSize) {
+                        total += batch.size();
+                        onBatch.accept(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                total += batch.size();
+                onBatch.accept(batch);
+            }
+            logEvent(new AuditEvent(AuditEvent.Type.VITALS_READ, AuditEvent.Outcome.SUCCESS, null, patientId,
+                                    AuditEvent.since(start), "Streamed " + total + " readings"));
+            return total;
+        } catch (SQLException e) {
+            logEvent(new AuditEvent(AuditEvent.Type.VITALS_READ, AuditEvent.Outcome.ERROR, null, patientId,
+                                    e.getMessage()));
+            throw new RuntimeException("Failed to stream vitals", e);
+        }
+    }
+
+    private List<VitalSign> readVitals(PreparedStatement ps) throws SQLException {
+        List<VitalSign> vitals = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 vitals.add(new VitalSign(
                     rs.getInt("heartRate"),
                     rs.getInt("oxygenLevel"),
                     rs.getString("bloodPressure"),
+                    rs.getInt("systolic"),
+                    rs.getInt("diastolic"),
                     rs.getDouble("temperature"),
-                    rs.getDate("added_on")
+                    rs.getTimestamp("added_on")
                 ));
             }
-            saveLog("Retrieved vitals for patient: " + patientId);
-            return vitals;
+        }
+        return vitals;
+    }
+
+    private VitalsSeries readVitalsSeries(PreparedStatement ps) throws SQLException {
+        VitalsSeries series = new VitalsSeries();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Timestamp addedOn = rs.getTimestamp("added_on");
+                // getInt returns 0 for NULL, which is what the series uses for "not recorded"
+                series.add(
+                    addedOn == null ? 0L : addedOn.getTime(),
+                    rs.getInt("heartRate"),
+                    rs.getInt("oxygenLevel"),
+                    rs.getInt("systolic"),
+                    rs.getInt("diastolic"),
+                    rs.getDouble("temperature")
+                );
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Retrieves precomputed vital sign rollups for a patient, oldest bucket first.
+     * 
+     * @param patientId The ID of the patient
+     * @param resolution The bucket size
+     * @param from Start of the range (inclusive, matched against bucket start)
+     * @param to End of the range (exclusive)
+     * @return List of rollups in the range
+     */
+    public List<VitalRollup> getVitalRollups(String patientId, VitalRollup.Resolution resolution,
+                                             LocalDateTime from, LocalDateTime to) {
+        List<VitalRollup> rollups = new ArrayList<>();
+        String sql = "SELECT bucket_start, sample_count, hr_min, hr_max, hr_sum, ox_min, ox_max, ox_sum, " +
+                     "temp_min, temp_max, temp_sum, bp_count, sys_min, sys_max, sys_sum, " +
+                     "dia_min, dia_max, dia_sum FROM vitals_rollups " +
+                     "WHERE patientId = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ? " +
+                     "ORDER BY bucket_start";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, patientId);
+            ps.setString(2, resolution.name());
+            ps.setTimestamp(3, Timestamp.valueOf(resolution.bucketStart(from)));
+            ps.setTimestamp(4, Timestamp.valueOf(to));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rollups.add(new VitalRollup(patientId, resolution,
+                        rs.getTimestamp("bucket_start").toLocalDateTime(),
+                        rs.getInt("sample_count"),
+                        rs.getInt("hr_min"), rs.getInt("hr_max"), rs.getLong("hr_sum"),
+                        rs.getInt("ox_min"), rs.getInt("ox_max"), rs.getLong("ox_sum"),
+                        rs.getDouble("temp_min"), rs.getDouble("temp_max"), rs.getDouble("temp_sum"),
+                        rs.getInt("bp_count"),
+                        rs.getInt("sys_min"), rs.getInt("sys_max"), rs.getLong("sys_sum"),
+                        rs.getInt("dia_min"), rs.getInt("dia_max"), rs.getLong("dia_sum")));
+                }
+            }
         } catch (SQLException e) {
-            saveLog("Error retrieving vitals for patient " + patientId + ": " + e.getMessage());
-            throw new RuntimeException("Failed to retrieve vitals", e);
+            e.printStackTrace();
         }
+        return rollups;
     }
 
     // ===================== FEEDBACK OPERATIONS =====================
@@ -489,7 +1236,8 @@ public class DatabaseManager {
      */
     public void saveFeedback(String patientId, String doctorName, String comment) {
         String sql = "INSERT INTO feedbacks (patientId, doctorName, comments) VALUES (?, ?, ?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, patientId);
             ps.setString(2, doctorName);
             ps.setString(3, comment);
@@ -508,7 +1256,8 @@ public class DatabaseManager {
     public ArrayList<Feedback> getFeedbacksForPatient(String patientId) {
         ArrayList<Feedback> feedbacks = new ArrayList<>();
         String sql = "SELECT * FROM feedbacks WHERE patientId = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, patientId);
             ResultSet rs = ps.executeQuery();
             while (rs.next()) {
@@ -531,7 +1280,8 @@ public class DatabaseManager {
      */
     public void deleteFeedbackByPatientId(String patientId) {
         String sql = "DELETE FROM feedbacks WHERE patientId = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, patientId);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -551,7 +1301,8 @@ public class DatabaseManager {
      */
     public void saveConsultation(Patient patient, Doctor doctor, String diagnosis, String treatment) {
         String sql = "INSERT INTO consultations (patientID, doctorName, diagnosis, treatment) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, patient.getId());
             ps.setString(2, doctor.getName());
             ps.setString(3, diagnosis);
@@ -569,7 +1320,8 @@ public class DatabaseManager {
      */
     public void deleteConsultationsByPatientId(String patientId) {
         String sql = "DELETE FROM consultations WHERE patientID = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, patientId);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -590,7 +1342,8 @@ public class DatabaseManager {
      */
     public void savePrescription(Patient patient, String medication, String dosage, String schedule, String prescribingDoctor) {
         String sql = "INSERT INTO prescriptions (patientID, medication, dosage, schedule, prescribingDoctor) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, patient.getId());
             ps.setString(2, medication);
             ps.setString(3, dosage);
@@ -609,7 +1362,8 @@ public class DatabaseManager {
      */
     public void deletePrescriptionsByPatientId(String patientId) {
         String sql = "DELETE FROM prescriptions WHERE patientID = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, patientId);
             ps.executeUpdate();
         } catch (SQLException e) {
@@ -626,7 +1380,8 @@ public class DatabaseManager {
     public ArrayList<Prescription> getPrescriptionsForPatient(String patientId) {
         ArrayList<Prescription> prescriptions = new ArrayList<>();
         String sql = "SELECT * FROM prescriptions WHERE patientID = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, patientId);
             ResultSet rs = ps.executeQuery();
             while (rs.next()) {
@@ -644,53 +1399,370 @@ public class DatabaseManager {
         return prescriptions;
     }
     
+    // ===================== REMINDER OPERATIONS =====================
+
+    /**
+     * Retrieves approved appointments starting in a time range whose reminder has not
+     * been sent yet, soonest first. A reminder counts as sent if it went out no earlier
+     * than lead before the appointment, so moving an appointment later makes it due again.
+     * Uses the (status, date_time) index.
+     * 
+     * @param from Start of the range (inclusive)
+     * @param to End of the range (exclusive)
+     * @param leadMinutes How long before the appointment its reminder is due
+     * @return List of appointments still needing a reminder
+     */
+    public List<Appointment> getAppointmentsDueForReminder(LocalDateTime from, LocalDateTime to, long leadMinutes) {
+        List<Appointment> appointments = new ArrayList<>();
+        String sql = "SELECT a.id, a.version, a.date_time, a.status, " +
+                     "p.id as patient_id, p.name as patient_name, p.email as patient_email, " +
+                     "d.id as doctor_id, d.name as doctor_name, d.email as doctor_email " +
+                     "FROM appointments a " +
+                     "JOIN patients p ON a.patient_id = p.id " +
+                     "JOIN doctors d ON a.doctor_id = d.id " +
+                     "LEFT JOIN reminder_watermarks w ON w.kind = 'APPOINTMENT' AND w.subject_id = CAST(a.id AS CHAR) " +
+                     "WHERE a.status = 'Approved' AND a.date_time >= ? AND a.date_time < ? " +
+                     "AND (w.last_sent IS NULL OR w.last_sent < DATE_SUB(a.date_time, INTERVAL ? MINUTE)) " +
+                     "ORDER BY a.date_time";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+            ps.setLong(3, leadMinutes);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Patient patient = new Patient(rs.getString("patient_id"), rs.getString("patient_name"),
+                                                  rs.getString("patient_email"));
+                    Doctor doctor = new Doctor(rs.getString("doctor_id"), rs.getString("doctor_name"),
+                                               rs.getString("doctor_email"), "");
+                    Appointment appt = new Appointment(rs.getTimestamp("date_time").toLocalDateTime(), patient, doctor);
+                    appt.setId(rs.getInt("id"));
+                    appt.setVersion(rs.getInt("version"));
+                    appt.setStatus(rs.getString("status"));
+                    appointments.add(appt);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to retrieve appointments due for a reminder", e);
+        }
+        return appointments;
+    }
+
+    /**
+     * Retrieves the prescriptions of every patient who has not had a medication
+     * reminder since a given time, in one query, grouped by patient.
+     * 
+     * @param since The current reminder slot; reminders sent at or after it count
+     * @return Prescriptions by patient (id, name and email only), in patient ID order
+     */
+    public Map<Patient, List<Prescription>> getPrescriptionsDueForReminder(LocalDateTime since) {
+        Map<Patient, List<Prescription>> byPatient = new LinkedHashMap<>();
+        String sql = "SELECT p.id, p.name, p.email, r.medication, r.dosage, r.schedule, r.prescribingDoctor, r.tests " +
+                     "FROM prescriptions r " +
+                     "JOIN patients p ON r.patientID = p.id " +
+                     "WHERE NOT EXISTS (SELECT 1 FROM reminder_watermarks w " +
+                     "WHERE w.kind = 'MEDICATION' AND w.subject_id = p.id AND w.last_sent >= ?) " +
+                     "ORDER BY p.id";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.valueOf(since));
+            try (ResultSet rs = ps.executeQuery()) {
+                Patient patient = null;
+                List<Prescription> prescriptions = null;
+                while (rs.next()) {
+                    // Rows arrive grouped by patient, so a new ID starts a new group
+                    String patientId = rs.getString("id");
+                    if (patient == null || !patient.getId().equals(patientId)) {
+                        patient = new Patient(patientId, rs.getString("name"), rs.getString("email"));
+                        prescriptions = new ArrayList<>();
+                        byPatient.put(patient, prescriptions);
+                    }
+                    prescriptions.add(new Prescription(
+                            rs.getString("medication"),
+                            rs.getString("dosage"),
+                            rs.getString("schedule"),
+                            rs.getString("prescribingDoctor"),
+                            rs.getString("tests")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to retrieve prescriptions due for a reminder", e);
+        }
+        return byPatient;
+    }
+
+    /**
+     * Records that a reminder was sent. The stored time never moves backwards.
+     * 
+     * @param kind Reminder kind, e.g. "APPOINTMENT" or "MEDICATION"
+     * @param subjectId The appointment or patient the reminder was about
+     * @param sentAt When the reminder was sent
+     */
+    public void saveReminderWatermark(String kind, String subjectId, LocalDateTime sentAt) {
+        saveReminderWatermarks(kind, Collections.singletonList(subjectId), sentAt);
+    }
+
+    /**
+     * Records that reminders of one kind were sent, in a single batch.
+     * 
+     * @param kind Reminder kind, e.g. "APPOINTMENT" or "MEDICATION"
+     * @param subjectIds The appointments or patients the reminders were about
+     * @param sentAt When the reminders were sent
+     */
+    public void saveReminderWatermarks(String kind, Collection<String> subjectIds, LocalDateTime sentAt) {
+        if (subjectIds.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO reminder_watermarks (kind, subject_id, last_sent) VALUES (?, ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE last_sent = GREATEST(last_sent, VALUES(last_sent))";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            Timestamp sent = Timestamp.valueOf(sentAt);
+            for (String subjectId : subjectIds) {
+                ps.setString(1, kind);
+                ps.setString(2, subjectId);
+                ps.setTimestamp(3, sent);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to record " + subjectIds.size() + " " + kind + " reminders", e);
+        }
+    }
+
+    // ===================== NOTIFICATION OUTBOX OPERATIONS =====================
+
+    private static final String OUTBOX_COLUMNS =
+        "id, idempotency_key, recipient, subject, body, status, attempts, last_error, sent_at";
+
+    /**
+     * Adds a notification to the outbox unless one with the same key is already there.
+     * 
+     * @param idempotencyKey Identifies the notification
+     * @param recipient Email address of the recipient
+     * @param subject Email subject
+     * @param body Email content
+     * @return true if queued, false if the key was already queued or sent
+     */
+    public boolean enqueueNotification(String idempotencyKey, String recipient, String subject, String body) {
+        String sql = "INSERT IGNORE INTO notification_outbox " +
+                     "(idempotency_key, recipient, subject, body, status, attempts, next_attempt_at, created_at) " +
+                     "VALUES (?, ?, ?, ?, 'PENDING', 0, NOW(), NOW())";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, idempotencyKey);
+            ps.setString(2, recipient);
+            ps.setString(3, subject);
+            ps.setString(4, body);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to queue notification " + idempotencyKey, e);
+        }
+    }
+
+    /**
+     * Claims due notifications for delivery. Claimed messages are not due again
+     * until the lease runs out, so another worker or instance won't pick them up
+     * meanwhile, but they are retried if this one dies before reporting back.
+     * 
+     * @param claimToken Unique token for this claim
+     * @param limit Maximum number of messages to claim
+     * @param leaseSeconds How long the claim lasts
+     * @return The claimed messages, oldest due first
+     */
+    public List<OutboxMessage> claimDueNotifications(String claimToken, int limit, int leaseSeconds) {
+        String claim = "UPDATE notification_outbox SET claim_token = ?, " +
+                       "next_attempt_at = TIMESTAMPADD(SECOND, ?, NOW()) " +
+                       "WHERE status = 'PENDING' AND next_attempt_at <= NOW() " +
+                       "ORDER BY next_attempt_at LIMIT ?";
+        String select = "SELECT " + OUTBOX_COLUMNS + " FROM notification_outbox " +
+                        "WHERE claim_token = ? AND status = 'PENDING'";
+        try (Connection conn = getConnection();
+             PreparedStatement claimPs = conn.prepareStatement(claim);
+             PreparedStatement selectPs = conn.prepareStatement(select)) {
+            claimPs.setString(1, claimToken);
+            claimPs.setInt(2, leaseSeconds);
+            claimPs.setInt(3, limit);
+            if (claimPs.executeUpdate() == 0) {
+                return new ArrayList<>();
+            }
+            selectPs.setString(1, claimToken);
+            return readOutboxMessages(selectPs);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to claim notifications", e);
+        }
+    }
+
+    /**
+     * Marks a claimed notification as delivered.
+     * 
+     * @param id The message's ID
+     */
+    public void markNotificationSent(long id) {
+        String sql = "UPDATE notification_outbox SET status = 'SENT', attempts = attempts + 1, " +
+                     "sent_at = NOW(), last_error = NULL, claim_token = NULL WHERE id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to mark notification " + id + " as sent", e);
+        }
+    }
+
+    /**
+     * Records a failed delivery attempt.
+     * 
+     * @param id The message's ID
+     * @param retryInSeconds Delay before the next attempt, or a negative value to give up
+     * @param error What went wrong
+     */
+    public void markNotificationFailed(long id, int retryInSeconds, String error) {
+        String sql = "UPDATE notification_outbox SET attempts = attempts + 1, status = ?, " +
+                     "next_attempt_at = TIMESTAMPADD(SECOND, ?, NOW()), last_error = ?, claim_token = NULL " +
+                     "WHERE id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, retryInSeconds < 0 ? "FAILED" : "PENDING");
+            ps.setInt(2, Math.max(retryInSeconds, 0));
+            ps.setString(3, error == null ? null : error.substring(0, Math.min(error.length(), 500)));
+            ps.setLong(4, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to record failed notification " + id, e);
+        }
+    }
+
+    /**
+     * Looks up a notification by its idempotency key.
+     * 
+     * @param idempotencyKey The key it was queued with
+     * @return The message, or null if no such key was queued
+     */
+    public OutboxMessage getNotification(String idempotencyKey) {
+        String sql = "SELECT " + OUTBOX_COLUMNS + " FROM notification_outbox WHERE idempotency_key = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, idempotencyKey);
+            List<OutboxMessage> messages = readOutboxMessages(ps);
+            return messages.isEmpty() ? null : messages.get(0);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to look up notification " + idempotencyKey, e);
+        }
+    }
+
+    /**
+     * Counts outbox messages by delivery state.
+     * 
+     * @return Number of messages per state; states with no messages are 0
+     */
+    public Map<OutboxMessage.Status, Integer> getNotificationCounts() {
+        Map<OutboxMessage.Status, Integer> counts = new LinkedHashMap<>();
+        for (OutboxMessage.Status status : OutboxMessage.Status.values()) {
+            counts.put(status, 0);
+        }
+        String sql = "SELECT status, COUNT(*) AS messages FROM notification_outbox GROUP BY status";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                counts.put(OutboxMessage.Status.valueOf(rs.getString("status")), rs.getInt("messages"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to count notifications", e);
+        }
+        return counts;
+    }
+
+    private List<OutboxMessage> readOutboxMessages(PreparedStatement ps) throws SQLException {
+        List<OutboxMessage> messages = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Timestamp sentAt = rs.getTimestamp("sent_at");
+                messages.add(new OutboxMessage(
+                    rs.getLong("id"),
+                    rs.getString("idempotency_key"),
+                    rs.getString("recipient"),
+                    rs.getString("subject"),
+                    rs.getString("body"),
+                    OutboxMessage.Status.valueOf(rs.getString("status")),
+                    rs.getInt("attempts"),
+                    rs.getString("last_error"),
+                    sentAt == null ? null : sentAt.toLocalDateTime()
+                ));
+            }
+        }
+        return messages;
+    }
+
     // ===================== EMERGENCY ALERT OPERATIONS =====================
     
     /**
-     * Saves an emergency alert to the database.
+     * Saves an emergency alert to the database. Alerts raised by a vital reading
+     * are unique per (patient, type, reading time), so re-evaluating the same
+     * reading does not store a duplicate.
      * 
      * @param e The emergency alert to save
+     * @return true if a row was inserted, false if it was a duplicate or failed
      */
-    public void saveEmergency(EmergencyAlert.Emergency e) {
-        String sql = "INSERT INTO emergencies (message, timestamp, patientId, type, acknowledged) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+    public boolean saveEmergency(EmergencyAlert.Emergency e) {
+        String sql = "INSERT IGNORE INTO emergencies (message, timestamp, patientId, type, acknowledged, reading_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, e.getMessage());
             ps.setTimestamp(2, Timestamp.valueOf(e.getTimestamp()));
             ps.setString(3, e.getPatient().getId());
             ps.setString(4, e.getType());
             ps.setBoolean(5, e.isAcknowledged());
-            ps.executeUpdate();
+            ps.setTimestamp(6, e.getReadingAt() == null ? null : Timestamp.valueOf(e.getReadingAt()));
+            if (ps.executeUpdate() == 0) {
+                return false;
+            }
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    e.setId(keys.getLong(1));
+                }
+            }
+            return true;
         } catch (SQLException ex) {
             ex.printStackTrace();
+            return false;
         }
     }
-    
+
     /**
-     * Retrieves all pending (unacknowledged) emergencies.
+     * Returns the time of a patient's second newest vital reading.
      * 
-     * @return List of pending emergencies
+     * @param patientId The ID of the patient
+     * @return The reading time, or null if the patient has fewer than two readings
      */
-    public ArrayList<EmergencyAlert.Emergency> getPendingEmergencies() {
-        ArrayList<EmergencyAlert.Emergency> list = new ArrayList<>();
-        String sql = "SELECT * FROM emergencies WHERE acknowledged = false";
-
-        try (PreparedStatement ps = getConnection().prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                Patient patient = getPatientById(rs.getString("patientId"));
-                EmergencyAlert.Emergency e = new EmergencyAlert.Emergency(
-                    rs.getString("message"),
-                    rs.getTimestamp("timestamp").toLocalDateTime(),
-                    patient,
-                    rs.getString("type"),
-                    false
-                );
-                list.add(e);
+    public LocalDateTime getVitalsTimeBeforeLatest(String patientId) {
+        String sql = "SELECT MAX(added_on) FROM vitals WHERE patientId = ? "
+                   + "AND added_on < (SELECT MAX(added_on) FROM vitals WHERE patientId = ?)";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, patientId);
+            ps.setString(2, patientId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getTimestamp(1) != null) {
+                    return rs.getTimestamp(1).toLocalDateTime();
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return list;
+        return null;
+    }
+    
+    /**
+     * Retrieves all pending (unacknowledged) emergencies.
+     * 
+     * @return List of pending emergencies
+     */
+    public ArrayList<EmergencyAlert.Emergency> getPendingEmergencies() {
+        return queryEmergencies(" WHERE e.acknowledged = false ORDER BY e.timestamp DESC, e.id DESC");
     }
     
     /**
@@ -699,21 +1771,82 @@ public class DatabaseManager {
      * @return List of all emergencies
      */
     public ArrayList<EmergencyAlert.Emergency> getAllEmergencies() {
+        return queryEmergencies(" ORDER BY e.timestamp DESC, e.id DESC");
+    }
+
+    /**
+     * Retrieves a single emergency by primary key.
+     * 
+     * @param id The emergency's ID
+     * @return The emergency, or null if it does not exist
+     */
+    public EmergencyAlert.Emergency getEmergencyById(long id) {
+        ArrayList<EmergencyAlert.Emergency> found = queryEmergencies(" WHERE e.id = ?", id);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Retrieves one page of emergencies, most recent first. Ties on the timestamp
+     * are broken by id, so offset pages neither repeat nor skip alerts raised together.
+     * 
+     * @param offset Number of emergencies to skip
+     * @param limit Maximum number of emergencies to return
+     * @param ackFilter true for acknowledged only, false for pending only, null for all
+     * @return List of emergencies in the requested page
+     */
+    public ArrayList<EmergencyAlert.Emergency> getEmergencies(int offset, int limit, Boolean ackFilter) {
+        List<Object> params = new ArrayList<>();
+        String where = "";
+        if (ackFilter != null) {
+            where = " WHERE e.acknowledged = ?";
+            params.add(ackFilter);
+        }
+        params.add(Math.max(0, limit));
+        params.add(Math.max(0, offset));
+        return queryEmergencies(where + " ORDER BY e.timestamp DESC, e.id DESC LIMIT ? OFFSET ?", params.toArray());
+    }
+
+    /**
+     * Loads emergencies together with their patients in a single joined query.
+     * Patients are shared between rows through a per-call identity map, so
+     * alerts for the same patient reference the same Patient object.
+     * 
+     * @param clause The WHERE / ORDER BY / LIMIT clause appended to the query
+     * @param params Values bound to the clause's ? placeholders, in order
+     * @return List of emergencies
+     */
+    private ArrayList<EmergencyAlert.Emergency> queryEmergencies(String clause, Object... params) {
         ArrayList<EmergencyAlert.Emergency> list = new ArrayList<>();
-        String sql = "SELECT * FROM emergencies";
+        String sql = "SELECT e.id, e.message, e.timestamp, e.patientId, e.type, e.acknowledged, e.reading_at, " +
+                     "p.name AS patient_name, p.email AS patient_email, p.password AS patient_password " +
+                     "FROM emergencies e LEFT JOIN patients p ON p.id = e.patientId" + clause;
+        Map<String, Patient> patients = new HashMap<>();
 
-        try (PreparedStatement ps = getConnection().prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                Patient patient = getPatientById(rs.getString("patientId"));
-                EmergencyAlert.Emergency e = new EmergencyAlert.Emergency(
-                    rs.getString("message"),
-                    rs.getTimestamp("timestamp").toLocalDateTime(),
-                    patient,
-                    rs.getString("type"),
-                    rs.getBoolean("acknowledged")
-                );
-                list.add(e);
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String patientId = rs.getString("patientId");
+                    Patient patient = patients.get(patientId);
+                    if (patient == null && rs.getString("patient_name") != null) {
+                        patient = new Patient(patientId, rs.getString("patient_name"),
+                                              rs.getString("patient_email"), rs.getString("patient_password"));
+                        patients.put(patientId, patient);
+                    }
+                    EmergencyAlert.Emergency e = new EmergencyAlert.Emergency(
+                        rs.getLong("id"),
+                        rs.getString("message"),
+                        rs.getTimestamp("timestamp").toLocalDateTime(),
+                        patient,
+                        rs.getString("type"),
+                        rs.getBoolean("acknowledged"),
+                        rs.getTimestamp("reading_at") == null ? null : rs.getTimestamp("reading_at").toLocalDateTime()
+                    );
+                    list.add(e);
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -727,14 +1860,48 @@ public class DatabaseManager {
      * @param e The emergency alert to update
      */
     public void updateEmergencyAcknowledged(EmergencyAlert.Emergency e) {
-        String sql = "UPDATE emergencies SET acknowledged = true WHERE message = ? AND patientId = ? AND timestamp = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, e.getMessage());
-            ps.setString(2, e.getPatient().getId());
-            ps.setTimestamp(3, Timestamp.valueOf(e.getTimestamp()));
-            ps.executeUpdate();
-        } catch (SQLException ex) {
-            ex.printStackTrace();
+        acknowledgeEmergencies(Collections.singletonList(e.getId()));
+    }
+
+    /**
+     * Acknowledges emergencies by primary key in a single statement.
+     * 
+     * @param ids The emergencies' IDs
+     * @return Number of emergencies that were still pending
+     */
+    public int acknowledgeEmergencies(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE emergencies SET acknowledged = true WHERE acknowledged = false AND id IN (" +
+                     placeholders(ids.size()) + ")";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (long id : ids) {
+                ps.setLong(i++, id);
+            }
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to acknowledge " + ids.size() + " emergencies", e);
+        }
+    }
+
+    /**
+     * Deletes acknowledged emergencies raised before a point in time, in a single
+     * statement. Uses the (acknowledged, timestamp) index.
+     * 
+     * @param before Emergencies raised before this time are deleted
+     * @return Number of emergencies deleted
+     */
+    public int purgeAcknowledgedEmergencies(LocalDateTime before) {
+        String sql = "DELETE FROM emergencies WHERE acknowledged = true AND timestamp < ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setTimestamp(1, Timestamp.valueOf(before));
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to purge acknowledged emergencies", e);
         }
     }
 
@@ -744,17 +1911,24 @@ public class DatabaseManager {
      * @param e The emergency alert to delete
      */
     public void deleteEmergency(EmergencyAlert.Emergency e) {
-        String sql = "DELETE FROM emergencies WHERE patientId = ? AND timestamp = ? AND message = ?";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, e.getPatient().getId());
-            ps.setTimestamp(2, Timestamp.valueOf(e.getTimestamp()));
-            ps.setString(3, e.getMessage());
+        String sql = "DELETE FROM emergencies WHERE id = ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, e.getId());
             ps.executeUpdate();
         } catch (SQLException ex) {
             ex.printStackTrace();
         }
     }
 
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
     // ===================== ADMINISTRATOR OPERATIONS =====================
     
     /**
@@ -766,7 +1940,8 @@ public class DatabaseManager {
      */
     public Administrator getAdminByUsername(String username, DatabaseManager dbManager) {
         String sql = "SELECT * FROM admin WHERE name = ?";
-        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -793,14 +1968,16 @@ public class DatabaseManager {
         String sql = "INSERT INTO password_reset_requests (username, role, request_time, status) " +
                      "VALUES (?, ?, NOW(), 'PENDING')";
 
-        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, username);
             stmt.setString(2, role);
             int rowsAffected = stmt.executeUpdate();
-            saveLog("Submitted password reset request for username: " + username +
-                    ", role: " + role + ", Rows affected: " + rowsAffected);
+            logEvent(new AuditEvent(AuditEvent.Type.PASSWORD_RESET_REQUEST, AuditEvent.Outcome.SUCCESS, username, null,
+                                    "Role: " + role + ", Rows affected: " + rowsAffected));
         } catch (SQLException e) {
-            saveLog("Error submitting password reset request for " + username + ": " + e.getMessage());
+            logEvent(new AuditEvent(AuditEvent.Type.PASSWORD_RESET_REQUEST, AuditEvent.Outcome.ERROR, username, null,
+                                    e.getMessage()));
             throw new RuntimeException("Failed to submit password reset request", e);
         }
     }
@@ -823,7 +2000,8 @@ public class DatabaseManager {
                 pendingRequests.add(requestInfo);
             }
         } catch (SQLException e) {
-            saveLog("Error fetching pending requests: " + e.getMessage());
+            logEvent(new AuditEvent(AuditEvent.Type.PASSWORD_RESET_LIST, AuditEvent.Outcome.ERROR, null, null,
+                                    e.getMessage()));
             e.printStackTrace();
         }
         return pendingRequests;
@@ -832,36 +2010,130 @@ public class DatabaseManager {
     // ===================== LOG OPERATIONS =====================
     
     /**
-     * Saves a log message to the database.
+     * Queues a log message for the background audit writer. The call does not
+     * touch the database; rows are written in batches by {@link AuditLogWriter}.
      * 
      * @param message The log message to save
      */
     public void saveLog(String message) {
-        String sql = "INSERT INTO logs (message, created_at) VALUES (?, NOW())";
-        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
-            ps.setString(1, message);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            System.err.println("Error saving log: " + e.getMessage());
-        }
+        auditLog.submit(message);
+    }
+
+    /**
+     * Queues a structured audit event for the background audit writer.
+     * 
+     * @param event The event to log
+     */
+    public void logEvent(AuditEvent event) {
+        auditLog.submit(event);
+    }
+
+    /**
+     * Returns the audit log writer's pending, written, dropped and spilled counts.
+     * 
+     * @return Formatted audit log statistics
+     */
+    public String getAuditLogStats() {
+        return auditLog.getStats();
     }
     
     /**
-     * Retrieves all logs from the database, ordered by most recent.
+     * Retrieves one page of logs, most recent first, using keyset pagination on
+     * (created_at, id): the next page starts strictly after the last entry of
+     * the previous one, so each page costs the same however deep the reader
+     * scrolls. No filter or a single filter is served in index order by
+     * idx_logs_time or that filter's (filter, created_at, id) index. Combined
+     * filters read one of those indexes and check the other filters row by row.
      * 
+     * @param level Only entries of this level, or null for all
+     * @param category Only entries of this category, or null for all
+     * @param userId Only entries concerning this user, or null for all
+     * @param after Last entry of the previous page, or null for the first page
+     * @param limit Maximum number of entries to return
      * @return List of log entries
      */
-    public ArrayList<String> fetchLogs() {
-        ArrayList<String> logs = new ArrayList<>();
-        String sql = "SELECT * FROM logs ORDER BY created_at DESC";
-        try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                logs.add(rs.getString("created_at") + " - " + rs.getString("message"));
+    public ArrayList<LogEntry> fetchLogs(LogEntry.Level level, LogEntry.Category category, String userId,
+                                         LogEntry after, int limit) {
+        if (after == null) {
+            // Make sure recently queued messages are visible to the log viewer
+            auditLog.flush(1000);
+        }
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, created_at, level, category, user_id, message, event_type, outcome, subject_id, latency_ms " +
+            "FROM logs WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (level != null) {
+            sql.append(" AND level = ?");
+            params.add(level.name());
+        }
+        if (category != null) {
+            sql.append(" AND category = ?");
+            params.add(category.name());
+        }
+        if (userId != null) {
+            sql.append(" AND user_id = ?");
+            params.add(userId);
+        }
+        if (after != null) {
+            sql.append(" AND (created_at < ? OR (created_at = ? AND id < ?))");
+            Timestamp cursor = Timestamp.valueOf(after.getCreatedAt());
+            params.add(cursor);
+            params.add(cursor);
+            params.add(after.getId());
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        params.add(Math.max(0, limit));
+
+        ArrayList<LogEntry> logs = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    logs.add(new LogEntry(
+                        rs.getLong("id"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        LogEntry.Level.valueOf(rs.getString("level")),
+                        LogEntry.Category.valueOf(rs.getString("category")),
+                        rs.getString("user_id"),
+                        rs.getString("message"),
+                        AuditEvent.Type.valueOf(rs.getString("event_type")),
+                        AuditEvent.Outcome.valueOf(rs.getString("outcome")),
+                        rs.getString("subject_id"),
+                        rs.getObject("latency_ms") == null ? AuditEvent.NOT_TIMED : rs.getLong("latency_ms")));
+                }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Failed to fetch logs", e);
         }
         return logs;
     }
-}
\ No newline at end of file
+
+    /**
+     * Counts audit events of one type and outcome since a point in time, e.g.
+     * failed logins in the last hour. Reads only the (event_type, outcome,
+     * created_at) index range and, on a partitioned table, only the daily
+     * partitions that cover the period.
+     * 
+     * @param type The event type
+     * @param outcome The outcome
+     * @param since Start of the period
+     * @return Number of matching events
+     */
+    public int countEvents(AuditEvent.Type type, AuditEvent.Outcome outcome, LocalDateTime since) {
+        String sql = "SELECT COUNT(*) FROM logs WHERE event_type = ? AND outcome = ? AND created_at >= ?";
+        try (Connection conn = getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, type.name());
+            ps.setString(2, outcome.name());
+            ps.setTimestamp(3, Timestamp.valueOf(since));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to count " + type + " events", e);
+        }
+    }
+}
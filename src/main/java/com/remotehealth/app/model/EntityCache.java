@@ -0,0 +1,258 @@
+/**
+ * The EntityCache class is a small thread-safe cache for entities loaded
+ * from the database. Entries expire after a fixed time-to-live, and once the
+ * cache is full the least recently used entry is evicted.
+ *
+ * Values are copied on the way in and on the way out, so callers never share
+ * a mutable entity with the cache or with each other. Misses can optionally
+ * be cached for a shorter time, so repeated lookups of an unknown key do not
+ * each reach the database.
+ *
+ * @param <K> The key type
+ * @param <V> The cached entity type
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.model;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public class EntityCache<K, V> {
+
+    private static final class Entry<V> {
+        final V value;  // null for a cached miss
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Loads in progress for one key. A write to the key bumps the generation,
+     * so a load that started before the write does not store its stale result.
+     */
+    private static final class Load {
+        int loaders;
+        long generation;
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long missTtlNanos;
+    private final UnaryOperator<V> copier;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final Map<K, Load> loads = new HashMap<>();
+    private long epoch;  // Bumped by invalidateIf and clear, which can affect any key
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param name Name used in statistics output
+     * @param maxSize Maximum number of entries before the least recently used is evicted
+     * @param ttlMs Time-to-live of each entry in milliseconds
+     */
+    public EntityCache(String name, int maxSize, long ttlMs) {
+        this(name, maxSize, ttlMs, 0, UnaryOperator.identity());
+    }
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param name Name used in statistics output
+     * @param maxSize Maximum number of entries before the least recently used is evicted
+     * @param ttlMs Time-to-live of each entry in milliseconds
+     * @param missTtlMs Time-to-live of a cached null result from getOrLoad, or 0 to not cache misses
+     * @param copier Copies a value, so the cache and its callers never share an instance
+     */
+    public EntityCache(String name, int maxSize, long ttlMs, long missTtlMs, UnaryOperator<V> copier) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.missTtlNanos = TimeUnit.MILLISECONDS.toNanos(missTtlMs);
+        this.copier = copier;
+        // Access order makes iteration start at the least recently used entry
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > EntityCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a copy of the cached value for a key, or null if it is missing, expired or a cached miss.
+     *
+     * @param key The key to look up
+     * @return The cached value or null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = lookup(key);
+        return entry == null ? null : copy(entry.value);
+    }
+
+    /**
+     * Returns the cached value for a key, loading and caching it on a miss.
+     * Null results from the loader are cached only if a miss TTL was given.
+     * The loader runs outside the cache lock, so concurrent misses for the
+     * same key may both load; a load that overlaps a write to its key (put,
+     * invalidate, invalidateIf or clear) returns its result without caching it.
+     *
+     * @param key The key to look up
+     * @param loader Loads the value from the database
+     * @return The cached or freshly loaded value, or null
+     */
+    public V getOrLoad(K key, Function<K, V> loader) {
+        Load load;
+        long generation;
+        long startEpoch;
+        synchronized (this) {
+            Entry<V> entry = lookup(key);
+            if (entry != null) {
+                return copy(entry.value);
+            }
+            load = loads.computeIfAbsent(key, k -> new Load());
+            load.loaders++;
+            generation = load.generation;
+            startEpoch = epoch;
+        }
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                finishLoad(key, load);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            finishLoad(key, load);
+            if (load.generation == generation && epoch == startEpoch) {
+                if (value != null) {
+                    entries.put(key, new Entry<>(copy(value), System.nanoTime() + ttlNanos));
+                } else if (missTtlNanos > 0) {
+                    entries.put(key, new Entry<>(null, System.nanoTime() + missTtlNanos));
+                }
+            }
+        }
+        // The caller owns the loaded instance; the cache keeps its own copy
+        return value;
+    }
+
+    /**
+     * Stores a copy of a value, replacing any existing entry for the key.
+     *
+     * @param key The key
+     * @param value The value to cache
+     */
+    public synchronized void put(K key, V value) {
+        written(key);
+        entries.put(key, new Entry<>(copy(value), System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Removes the entry for a key.
+     *
+     * @param key The key to remove
+     */
+    public synchronized void invalidate(K key) {
+        written(key);
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every entry whose value matches the predicate.
+     *
+     * @param predicate Selects the values to remove
+     */
+    public synchronized void invalidateIf(Predicate<V> predicate) {
+        epoch++;
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            V value = it.next().value;
+            if (value != null && predicate.test(value)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        epoch++;
+        entries.clear();
+    }
+
+    /**
+     * @return The live entry for a key, or null if it is missing or expired; counts the hit or miss
+     */
+    private Entry<V> lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt > 0) {
+            entries.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry;
+    }
+
+    private void written(K key) {
+        Load load = loads.get(key);
+        if (load != null) {
+            load.generation++;
+        }
+    }
+
+    private void finishLoad(K key, Load load) {
+        if (--load.loaders == 0) {
+            loads.remove(key);
+        }
+    }
+
+    private V copy(V value) {
+        return value == null ? null : copier.apply(value);
+    }
+
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getHitCount() { return hits; }
+    public synchronized long getMissCount() { return misses; }
+    public synchronized long getEvictionCount() { return evictions; }
+
+    /**
+     * Returns the cache statistics.
+     *
+     * @return Formatted string with size, hits, misses, hit rate and evictions
+     */
+    public synchronized String getStats() {
+        long total = hits + misses;
+        double hitRate = total == 0 ? 0 : (hits * 100.0) / total;
+        return String.format("%s: Size: %d/%d, Hits: %d, Misses: %d, Hit rate: %.1f%%, Evictions: %d",
+                             name, entries.size(), maxSize, hits, misses, hitRate, evictions);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * The LogEntry class represents one row of the system log: a stored
+ * AuditEvent with the level, category and user it can be filtered by. Log
+ * pages are fetched with keyset pagination: the last entry of a page is the
+ * cursor for the next.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.model;
+
+import java.time.LocalDateTime;
+
+public class LogEntry {
+
+    /**
+     * Severity of a log entry.
+     */
+    public enum Level {
+        INFO,
+        WARN,
+        ERROR
+    }
+
+    /**
+     * Area of the system a log entry comes from.
+     */
+    public enum Category {
+        GENERAL,   // Uncategorized messages
+        AUTH,      // Logins and authentication
+        ADMIN,     // Administrative actions
+        PATIENT,   // Patient records
+        VITALS,    // Vital sign readings
+        ACCOUNT    // Password reset requests
+    }
+
+    private final long id;
+    private final LocalDateTime createdAt;
+    private final Level level;
+    private final Category category;
+    private final String userId;
+    private final String message;
+    private final AuditEvent.Type eventType;
+    private final AuditEvent.Outcome outcome;
+    private final String subjectId;
+    private final long latencyMs;
+
+    /**
+     * Constructs a LogEntry as read from the database.
+     *
+     * @param id Database primary key; breaks ties between entries with the same time
+     * @param createdAt When the entry was logged
+     * @param level Severity
+     * @param category Area of the system
+     * @param userId User who performed the event (the actor), or null
+     * @param message Log message
+     * @param eventType What happened
+     * @param outcome How it ended
+     * @param subjectId Record the event concerns, or null
+     * @param latencyMs Duration in milliseconds, or AuditEvent.NOT_TIMED
+     */
+    public LogEntry(long id, LocalDateTime createdAt, Level level, Category category, String userId, String message,
+                    AuditEvent.Type eventType, AuditEvent.Outcome outcome, String subjectId, long latencyMs) {
+        this.id = id;
+        this.createdAt = createdAt;
+        this.level = level;
+        this.category = category;
+        this.userId = userId;
+        this.message = message;
+        this.eventType = eventType;
+        this.outcome = outcome;
+        this.subjectId = subjectId;
+        this.latencyMs = latencyMs;
+    }
+
+    // ========== GETTER METHODS ==========
+
+    public long getId() { return id; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Level getLevel() { return level; }
+    public Category getCategory() { return category; }
+    /** @return User who performed the event, or null */
+    public String getUserId() { return userId; }
+    public String getMessage() { return message; }
+    public AuditEvent.Type getEventType() { return eventType; }
+    public AuditEvent.Outcome getOutcome() { return outcome; }
+    /** @return Record the event concerns, or null */
+    public String getSubjectId() { return subjectId; }
+    /** @return Duration in milliseconds, or AuditEvent.NOT_TIMED */
+    public long getLatencyMs() { return latencyMs; }
+
+    @Override
+    public String toString() {
+        return createdAt + " [" + level + "] " + eventType + " " + outcome + (userId == null ? "" : " " + userId) +
+               (subjectId == null ? "" : " -> " + subjectId) + " - " + message;
+    }
+}
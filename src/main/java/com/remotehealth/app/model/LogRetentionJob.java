@@ -0,0 +1,219 @@
+/**
+ * The LogRetentionJob keeps the daily partitions of the logs table in shape.
+ * The table is RANGE-partitioned on TO_DAYS(created_at), one partition per
+ * day plus a catch-all for anything newer. On every run the job:
+ *
+ *   1. splits partitions for the next PREALLOCATE_DAYS days off the
+ *      catch-all, so new rows never pile up in it, and
+ *   2. drops every partition whose rows are all older than the retention
+ *      period. Dropping a partition removes a whole day of rows at once,
+ *      instead of a DELETE that scans and logs every row.
+ *
+ * The retention period is read from the audit.retentionDays system property.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class LogRetentionJob {
+
+    // Defaults, overridable with -Daudit.* system properties
+    public static final int DEFAULT_RETENTION_DAYS = 90;
+    /** Days ahead that always have their own partition */
+    static final int PREALLOCATE_DAYS = 7;
+    private static final long RUN_INTERVAL_HOURS = 6;
+
+    static final String HISTORY_PARTITION = "phistory";  // Rows from before the table was partitioned
+    static final String FUTURE_PARTITION = "pfuture";    // Catch-all for days not yet split off
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+    private static final long TO_DAYS_EPOCH = 719528;   // MySQL TO_DAYS('1970-01-01')
+
+    private final DatabaseManager dbManager;
+    private final int retentionDays;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Constructs a job with the retention period from the audit.retentionDays system property.
+     *
+     * @param dbManager The database manager providing connections
+     */
+    public LogRetentionJob(DatabaseManager dbManager) {
+        this(dbManager, Integer.getInteger("audit.retentionDays", DEFAULT_RETENTION_DAYS));
+    }
+
+    /**
+     * Constructs a job.
+     *
+     * @param dbManager The database manager providing connections
+     * @param retentionDays Days of logs to keep, counting today
+     */
+    public LogRetentionJob(DatabaseManager dbManager, int retentionDays) {
+        if (retentionDays < 1) {
+            throw new IllegalArgumentException("Retention must be at least one day");
+        }
+        this.dbManager = dbManager;
+        this.retentionDays = retentionDays;
+    }
+
+    // ===================== LIFECYCLE =====================
+
+    /**
+     * Runs the job now and then every few hours on a background thread.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "log-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                runOnce(LocalDate.now());
+            } catch (RuntimeException e) {
+                // Keep the schedule alive; the next run retries
+                System.err.println("Log retention failed: " + e.getMessage());
+            }
+        }, 0, RUN_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * Stops the background runs.
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    // ===================== MAINTENANCE =====================
+
+    /**
+     * Pre-creates upcoming partitions and drops expired ones.
+     *
+     * @param today The current date
+     * @return Number of partitions dropped
+     */
+    public int runOnce(LocalDate today) {
+        try (Connection conn = dbManager.getConnection()) {
+            Map<String, String> partitions = readPartitions(conn);
+            if (partitions.isEmpty()) {
+                System.out.println("Logs table is not partitioned, retention skipped");
+                return 0;
+            }
+            addUpcomingPartitions(conn, partitions, today);
+            return dropExpiredPartitions(conn, partitions, today);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to maintain log partitions", e);
+        }
+    }
+
+    /**
+     * Partition definitions for a table being partitioned today: one partition
+     * for all older rows, one per day up to PREALLOCATE_DAYS ahead, and the catch-all.
+     *
+     * @param today The current date
+     * @return The partition list, without the enclosing parentheses
+     */
+    static String initialPartitions(LocalDate today) {
+        StringBuilder sb = new StringBuilder("PARTITION " + HISTORY_PARTITION + " VALUES LESS THAN (" +
+                                             toDays(today) + ")");
+        for (int i = 0; i <= PREALLOCATE_DAYS; i++) {
+            sb.append(", ").append(dayPartition(today.plusDays(i)));
+        }
+        return sb.append(", ").append(futurePartition()).toString();
+    }
+
+    private void addUpcomingPartitions(Connection conn, Map<String, String> partitions, LocalDate today)
+            throws SQLException {
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i <= PREALLOCATE_DAYS; i++) {
+            LocalDate day = today.plusDays(i);
+            if (!partitions.containsKey(day.format(PARTITION_NAME))) {
+                missing.add(dayPartition(day));
+            }
+        }
+        if (missing.isEmpty() || !partitions.containsKey(FUTURE_PARTITION)) {
+            return;
+        }
+        // Split the new days off the catch-all; it holds no rows for them yet, so this is cheap
+        missing.add(futurePartition());
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("ALTER TABLE logs REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" +
+                             String.join(", ", missing) + ")");
+        }
+        System.out.println("Added " + (missing.size() - 1) + " log partitions");
+    }
+
+    private int dropExpiredPartitions(Connection conn, Map<String, String> partitions, LocalDate today)
+            throws SQLException {
+        // A partition holds the rows with TO_DAYS(created_at) below its bound
+        long cutoff = toDays(today.minusDays(retentionDays - 1));
+        List<String> expired = new ArrayList<>();
+        for (Map.Entry<String, String> partition : partitions.entrySet()) {
+            String bound = partition.getValue();
+            if (!"MAXVALUE".equals(bound) && Long.parseLong(bound) <= cutoff) {
+                expired.add(partition.getKey());
+            }
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("ALTER TABLE logs DROP PARTITION " + String.join(", ", expired));
+        }
+        System.out.println("Dropped expired log partitions: " + expired);
+        return expired.size();
+    }
+
+    /**
+     * @return Partition names mapped to their upper bound, in order; empty if not partitioned
+     */
+    private static Map<String, String> readPartitions(Connection conn) throws SQLException {
+        String sql = "SELECT partition_name, partition_description FROM information_schema.partitions " +
+                     "WHERE table_schema = DATABASE() AND table_name = 'logs' AND partition_name IS NOT NULL " +
+                     "ORDER BY partition_ordinal_position";
+        Map<String, String> partitions = new LinkedHashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                partitions.put(rs.getString(1), rs.getString(2));
+            }
+        }
+        return partitions;
+    }
+
+    private static String dayPartition(LocalDate day) {
+        return "PARTITION " + day.format(PARTITION_NAME) + " VALUES LESS THAN (" + toDays(day.plusDays(1)) + ")";
+    }
+
+    private static String futurePartition() {
+        return "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE";
+    }
+
+    /**
+     * @return The value of MySQL's TO_DAYS for the date
+     */
+    static long toDays(LocalDate day) {
+        return day.toEpochDay() + TO_DAYS_EPOCH;
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * The OutboxMessage class represents one queued outgoing notification and
+ * its delivery state. Messages are written to the outbox by the sender and
+ * delivered later by the NotificationOutbox workers.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.model;
+
+import java.time.LocalDateTime;
+
+public class OutboxMessage {
+
+    /**
+     * Delivery states.
+     */
+    public enum Status {
+        PENDING,  // Waiting for its first or next attempt
+        SENT,     // Delivered
+        FAILED    // Gave up after the maximum number of attempts
+    }
+
+    private final long id;
+    private final String idempotencyKey;
+    private final String recipient;
+    private final String subject;
+    private final String body;
+    private final Status status;
+    private final int attempts;
+    private final String lastError;
+    private final LocalDateTime sentAt;
+
+    /**
+     * Constructs an OutboxMessage as read from the database.
+     *
+     * @param id Database primary key
+     * @param idempotencyKey Key that identifies the notification; enqueuing it twice has no effect
+     * @param recipient Email address of the recipient
+     * @param subject Email subject
+     * @param body Email content
+     * @param status Delivery state
+     * @param attempts Number of delivery attempts so far
+     * @param lastError Error of the last failed attempt, or null
+     * @param sentAt When the message was delivered, or null
+     */
+    public OutboxMessage(long id, String idempotencyKey, String recipient, String subject, String body,
+                         Status status, int attempts, String lastError, LocalDateTime sentAt) {
+        this.id = id;
+        this.idempotencyKey = idempotencyKey;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.status = status;
+        this.attempts = attempts;
+        this.lastError = lastError;
+        this.sentAt = sentAt;
+    }
+
+    // ========== GETTER METHODS ==========
+
+    public long getId() { return id; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public String getRecipient() { return recipient; }
+    public String getSubject() { return subject; }
+    public String getBody() { return body; }
+    public Status getStatus() { return status; }
+    public int getAttempts() { return attempts; }
+    /** @return Error of the last failed attempt, or null */
+    public String getLastError() { return lastError; }
+    /** @return When the message was delivered, or null if it was not */
+    public LocalDateTime getSentAt() { return sentAt; }
+
+    @Override
+    public String toString() {
+        return status + " " + idempotencyKey + " to " + recipient + " (" + attempts + " attempts)";
+    }
+}
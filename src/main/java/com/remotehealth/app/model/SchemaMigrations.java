@@ -0,0 +1,307 @@
+/**
+ * The SchemaMigrations class brings an existing hospital database up to the
+ * schema the application expects. Every step is idempotent: tables, columns
+ * and indexes are only created when information_schema shows they are
+ * missing, so it is safe to run on every start.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+public final class SchemaMigrations {
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * Applies all migration steps in order, then starts the audit log flusher,
+     * whose spill file replay needs the current logs columns.
+     *
+     * @param dbManager The database manager providing connections
+     */
+    public static void apply(DatabaseManager dbManager) {
+        try (Connection conn = dbManager.getConnection()) {
+            // ===================== VITALS TIME SERIES =====================
+            addIndexIfMissing(conn, "vitals", "idx_vitals_patient_time", "patientId, added_on");
+            boolean rebuildRollups = createTableIfMissing(conn, "vitals_rollups",
+                "CREATE TABLE vitals_rollups (" +
+                "  patientId varchar(20) NOT NULL," +
+                "  resolution varchar(10) NOT NULL," +
+                "  bucket_start datetime NOT NULL," +
+                "  sample_count int NOT NULL," +
+                "  hr_min int, hr_max int, hr_sum bigint," +
+                "  ox_min int, ox_max int, ox_sum bigint," +
+                "  temp_min double, temp_max double, temp_sum double," +
+                "  PRIMARY KEY (patientId, resolution, bucket_start)" +
+                ")");
+
+            // ===================== BLOOD PRESSURE =====================
+            boolean pressureAdded = addColumnIfMissing(conn, "vitals", "systolic", "int NULL");
+            pressureAdded |= addColumnIfMissing(conn, "vitals", "diastolic", "int NULL");
+            if (pressureAdded) {
+                backfillBloodPressure(conn);
+            }
+            rebuildRollups |= addColumnIfMissing(conn, "vitals_rollups", "bp_count", "int NOT NULL DEFAULT 0");
+            rebuildRollups |= addColumnIfMissing(conn, "vitals_rollups", "sys_min", "int NULL");
+            rebuildRollups |= addColumnIfMissing(conn, "vitals_rollups", "sys_max", "int NULL");
+            rebuildRollups |= addColumnIfMissing(conn, "vitals_rollups", "sys_sum", "bigint NOT NULL DEFAULT 0");
+            rebuildRollups |= addColumnIfMissing(conn, "vitals_rollups", "dia_min", "int NULL");
+            rebuildRollups |= addColumnIfMissing(conn, "vitals_rollups", "dia_max", "int NULL");
+            rebuildRollups |= addColumnIfMissing(conn, "vitals_rollups", "dia_sum", "bigint NOT NULL DEFAULT 0");
+            if (rebuildRollups) {
+                rebuildVitalRollups(conn);
+            }
+
+            // ===================== EMERGENCY DEDUPLICATION =====================
+            addColumnIfMissing(conn, "emergencies", "reading_at", "datetime NULL");
+            addUniqueIndexIfMissing(conn, "emergencies", "uq_emergency_reading", "patientId, type, reading_at");
+            addIndexIfMissing(conn, "emergencies", "idx_emergencies_ack_time", "acknowledged, timestamp");
+
+            // ===================== APPOINTMENTS =====================
+            addColumnIfMissing(conn, "appointments", "version", "int NOT NULL DEFAULT 0");
+            addIndexIfMissing(conn, "appointments", "idx_appointments_doctor_time", "doctor_id, date_time");
+            addIndexIfMissing(conn, "appointments", "idx_appointments_patient_time", "patient_id, date_time");
+
+            // ===================== REMINDERS =====================
+            createTableIfMissing(conn, "reminder_watermarks",
+                "CREATE TABLE reminder_watermarks (" +
+                "  kind varchar(20) NOT NULL," +
+                "  subject_id varchar(50) NOT NULL," +
+                "  last_sent datetime NOT NULL," +
+                "  PRIMARY KEY (kind, subject_id)" +
+                ")");
+            addIndexIfMissing(conn, "appointments", "idx_appointments_status_time", "status, date_time");
+            // The baseline KEY patientID already serves per-patient lookups; drop the duplicate
+            dropIndexIfExists(conn, "prescriptions", "idx_prescriptions_patient");
+
+            // ===================== NOTIFICATION OUTBOX =====================
+            createTableIfMissing(conn, "notification_outbox",
+                "CREATE TABLE notification_outbox (" +
+                "  id bigint AUTO_INCREMENT PRIMARY KEY," +
+                "  idempotency_key varchar(191) NOT NULL," +
+                "  recipient varchar(255) NOT NULL," +
+                "  subject varchar(255) NOT NULL," +
+                "  body text NOT NULL," +
+                "  status varchar(10) NOT NULL," +
+                "  attempts int NOT NULL DEFAULT 0," +
+                "  next_attempt_at datetime NOT NULL," +
+                "  claim_token varchar(36) NULL," +
+                "  last_error varchar(500) NULL," +
+                "  created_at datetime NOT NULL," +
+                "  sent_at datetime NULL," +
+                "  UNIQUE KEY uq_outbox_key (idempotency_key)," +
+                "  KEY idx_outbox_due (status, next_attempt_at)," +
+                "  KEY idx_outbox_claim (claim_token)" +
+                ")");
+
+            // ===================== SYSTEM LOGS =====================
+            addColumnIfMissing(conn, "logs", "level", "varchar(5) NOT NULL DEFAULT 'INFO'");
+            addColumnIfMissing(conn, "logs", "category", "varchar(10) NOT NULL DEFAULT 'GENERAL'");
+            addColumnIfMissing(conn, "logs", "user_id", "varchar(50) NULL");
+            // Keyset pages read (created_at, id) in index order, with or without a filter
+            addIndexIfMissing(conn, "logs", "idx_logs_time", "created_at, id");
+            addIndexIfMissing(conn, "logs", "idx_logs_level_time", "level, created_at, id");
+            addIndexIfMissing(conn, "logs", "idx_logs_category_time", "category, created_at, id");
+            addIndexIfMissing(conn, "logs", "idx_logs_user_time", "user_id, created_at, id");
+
+            // ===================== AUDIT EVENTS =====================
+            addColumnIfMissing(conn, "logs", "event_type", "varchar(30) NOT NULL DEFAULT 'MESSAGE'");
+            addColumnIfMissing(conn, "logs", "outcome", "varchar(10) NOT NULL DEFAULT 'SUCCESS'");
+            addColumnIfMissing(conn, "logs", "subject_id", "varchar(50) NULL");
+            addColumnIfMissing(conn, "logs", "latency_ms", "int NULL");
+            // e.g. failed logins in the last hour
+            addIndexIfMissing(conn, "logs", "idx_logs_event_time", "event_type, outcome, created_at");
+            if (!isPartitioned(conn, "logs")) {
+                partitionLogs(conn);
+            }
+
+            System.out.println("Database schema is up to date");
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to migrate database schema", e);
+        }
+        dbManager.startAuditLog();
+    }
+
+    // ===================== DATA BACKFILLS =====================
+
+    /**
+     * Splits existing "systolic/diastolic" strings into the numeric columns.
+     * Rows whose text isn't two numbers separated by a slash are left NULL.
+     */
+    private static void backfillBloodPressure(Connection conn) throws SQLException {
+        String sql = "UPDATE vitals SET " +
+                     "systolic = CAST(TRIM(SUBSTRING_INDEX(bloodPressure, '/', 1)) AS UNSIGNED), " +
+                     "diastolic = CAST(TRIM(SUBSTRING_INDEX(bloodPressure, '/', -1)) AS UNSIGNED) " +
+                     "WHERE bloodPressure REGEXP '^ *[0-9]+ */ *[0-9]+ *$'";
+        try (Statement stmt = conn.createStatement()) {
+            int rows = stmt.executeUpdate(sql);
+            System.out.println("Backfilled blood pressure for " + rows + " vitals");
+        }
+    }
+
+    /**
+     * Recomputes every rollup from the raw vitals, for a new rollup table or
+     * after rollup columns were added.
+     */
+    private static void rebuildVitalRollups(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM vitals_rollups");
+        }
+        for (VitalRollup.Resolution resolution : VitalRollup.Resolution.values()) {
+            String sql = "INSERT INTO vitals_rollups (patientId, resolution, bucket_start, sample_count, " +
+                         "hr_min, hr_max, hr_sum, ox_min, ox_max, ox_sum, temp_min, temp_max, temp_sum, " +
+                         "bp_count, sys_min, sys_max, sys_sum, dia_min, dia_max, dia_sum) " +
+                         "SELECT patientId, ?, DATE_FORMAT(added_on, ?) AS bucket, COUNT(*), " +
+                         "MIN(heartRate), MAX(heartRate), SUM(heartRate), " +
+                         "MIN(oxygenLevel), MAX(oxygenLevel), SUM(oxygenLevel), " +
+                         "MIN(temperature), MAX(temperature), SUM(temperature), " +
+                         "COUNT(systolic), MIN(systolic), MAX(systolic), COALESCE(SUM(systolic), 0), " +
+                         "MIN(diastolic), MAX(diastolic), COALESCE(SUM(diastolic), 0) " +
+                         "FROM vitals WHERE patientId IS NOT NULL AND added_on IS NOT NULL " +
+                         "GROUP BY patientId, bucket";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setString(1, resolution.name());
+                ps.setString(2, resolution.getSqlFormat());
+                int rows = ps.executeUpdate();
+                System.out.println("Backfilled " + rows + " " + resolution + " vital rollups");
+            }
+        }
+    }
+
+    // ===================== PARTITIONING =====================
+
+    /**
+     * Converts the logs table to daily RANGE partitions on created_at, so the
+     * LogRetentionJob can drop old days instead of deleting rows. MySQL requires
+     * the partitioning column in every unique key, so the primary key becomes
+     * (id, created_at), and TO_DAYS needs a datetime rather than a timestamp.
+     * Each ALTER copies the whole table once, blocking writes to logs meanwhile.
+     */
+    private static void partitionLogs(Connection conn) throws SQLException {
+        long rows;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM logs")) {
+            rs.next();
+            rows = rs.getLong(1);
+        }
+        System.out.println("Partitioning logs table by day: rebuilding all " + rows +
+                           " rows twice, log writes wait until this finishes");
+        long start = System.nanoTime();
+        execute(conn, "UPDATE logs SET created_at = NOW() WHERE created_at IS NULL");
+        execute(conn, "ALTER TABLE logs MODIFY created_at datetime NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                      "DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at)");
+        execute(conn, "ALTER TABLE logs PARTITION BY RANGE (TO_DAYS(created_at)) (" +
+                      LogRetentionJob.initialPartitions(LocalDate.now()) + ")");
+        System.out.println("Partitioned logs table in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    static boolean isPartitioned(Connection conn, String table) throws SQLException {
+        return exists(conn,
+            "SELECT 1 FROM information_schema.partitions WHERE table_schema = DATABASE() " +
+            "AND table_name = ? AND partition_name IS NOT NULL", table);
+    }
+
+    // ===================== DDL HELPERS =====================
+
+    /**
+     * Creates a table unless it already exists.
+     *
+     * @return true if the table was created by this call
+     */
+    static boolean createTableIfMissing(Connection conn, String table, String ddl) throws SQLException {
+        if (exists(conn, "SELECT 1 FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?",
+                   table)) {
+            return false;
+        }
+        execute(conn, ddl);
+        System.out.println("Created table " + table);
+        return true;
+    }
+
+    /**
+     * Adds a column unless it already exists.
+     *
+     * @return true if the column was added by this call
+     */
+    static boolean addColumnIfMissing(Connection conn, String table, String column, String definition)
+            throws SQLException {
+        if (exists(conn, "SELECT 1 FROM information_schema.columns WHERE table_schema = DATABASE() " +
+                         "AND table_name = ? AND column_name = ?", table, column)) {
+            return false;
+        }
+        execute(conn, "ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        System.out.println("Added column " + table + "." + column);
+        return true;
+    }
+
+    /**
+     * Adds a (non-unique) index unless an index with the same name already exists.
+     *
+     * @return true if the index was added by this call
+     */
+    static boolean addIndexIfMissing(Connection conn, String table, String index, String columns)
+            throws SQLException {
+        return addIndex(conn, table, index, columns, false);
+    }
+
+    /**
+     * Adds a unique index unless an index with the same name already exists.
+     *
+     * @return true if the index was added by this call
+     */
+    static boolean addUniqueIndexIfMissing(Connection conn, String table, String index, String columns)
+            throws SQLException {
+        return addIndex(conn, table, index, columns, true);
+    }
+
+    /**
+     * Drops an index if it exists.
+     *
+     * @return true if the index was dropped by this call
+     */
+    static boolean dropIndexIfExists(Connection conn, String table, String index) throws SQLException {
+        if (!exists(conn, "SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE() " +
+                          "AND table_name = ? AND index_name = ?", table, index)) {
+            return false;
+        }
+        execute(conn, "DROP INDEX " + index + " ON " + table);
+        System.out.println("Dropped index " + index + " on " + table);
+        return true;
+    }
+
+    private static boolean addIndex(Connection conn, String table, String index, String columns, boolean unique)
+            throws SQLException {
+        if (exists(conn, "SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE() " +
+                         "AND table_name = ? AND index_name = ?", table, index)) {
+            return false;
+        }
+        execute(conn, "CREATE " + (unique ? "UNIQUE " : "") + "INDEX " + index + " ON " + table + " (" + columns + ")");
+        System.out.println("Created index " + index + " on " + table);
+        return true;
+    }
+
+    private static boolean exists(Connection conn, String sql, String... params) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setString(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+}
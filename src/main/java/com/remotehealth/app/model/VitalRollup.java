@@ -0,0 +1,159 @@
+/**
+ * The VitalRollup class holds aggregated vital signs (count, min, max and
+ * average) for one patient over one time bucket of a given resolution.
+ * Rollups are maintained incrementally as vitals are saved, so charts and
+ * summaries can read a handful of buckets instead of the raw history.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public class VitalRollup {
+
+    /**
+     * Bucket sizes for which rollups are maintained.
+     */
+    public enum Resolution {
+        MINUTE(ChronoUnit.MINUTES, "%Y-%m-%d %H:%i:00"),
+        HOUR(ChronoUnit.HOURS, "%Y-%m-%d %H:00:00"),
+        DAY(ChronoUnit.DAYS, "%Y-%m-%d 00:00:00");
+
+        private final ChronoUnit unit;
+        private final String sqlFormat;
+
+        Resolution(ChronoUnit unit, String sqlFormat) {
+            this.unit = unit;
+            this.sqlFormat = sqlFormat;
+        }
+
+        /**
+         * @param time A point in time
+         * @return The start of the bucket containing the time
+         */
+        public LocalDateTime bucketStart(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        /**
+         * @return The length of one bucket
+         */
+        public Duration getBucketLength() {
+            return unit.getDuration();
+        }
+
+        /**
+         * @return MySQL DATE_FORMAT pattern that truncates a datetime to this resolution
+         */
+        public String getSqlFormat() {
+            return sqlFormat;
+        }
+
+        /**
+         * Picks the finest resolution that covers a time range in at most maxPoints buckets.
+         *
+         * @param from Start of the range
+         * @param to End of the range
+         * @param maxPoints Maximum number of buckets wanted
+         * @return The chosen resolution (DAY if none is coarse enough)
+         */
+        public static Resolution forRange(LocalDateTime from, LocalDateTime to, int maxPoints) {
+            Duration range = Duration.between(from, to);
+            for (Resolution resolution : values()) {
+                if (range.dividedBy(resolution.getBucketLength()) <= maxPoints) {
+                    return resolution;
+                }
+            }
+            return DAY;
+        }
+    }
+
+    private final String patientId;
+    private final Resolution resolution;
+    private final LocalDateTime bucketStart;
+    private final int count;
+    private final int minHeartRate, maxHeartRate;
+    private final double avgHeartRate;
+    private final int minOxygenLevel, maxOxygenLevel;
+    private final double avgOxygenLevel;
+    private final double minTemperature, maxTemperature, avgTemperature;
+    private final int bloodPressureCount;
+    private final int minSystolic, maxSystolic;
+    private final double avgSystolic;
+    private final int minDiastolic, maxDiastolic;
+    private final double avgDiastolic;
+
+    /**
+     * Constructs a rollup from the stored aggregates.
+     */
+    public VitalRollup(String patientId, Resolution resolution, LocalDateTime bucketStart, int count,
+                       int minHeartRate, int maxHeartRate, long sumHeartRate,
+                       int minOxygenLevel, int maxOxygenLevel, long sumOxygenLevel,
+                       double minTemperature, double maxTemperature, double sumTemperature,
+                       int bloodPressureCount,
+                       int minSystolic, int maxSystolic, long sumSystolic,
+                       int minDiastolic, int maxDiastolic, long sumDiastolic) {
+        this.patientId = patientId;
+        this.resolution = resolution;
+        this.bucketStart = bucketStart;
+        this.count = count;
+        this.minHeartRate = minHeartRate;
+        this.maxHeartRate = maxHeartRate;
+        this.avgHeartRate = count == 0 ? 0 : (double) sumHeartRate / count;
+        this.minOxygenLevel = minOxygenLevel;
+        this.maxOxygenLevel = maxOxygenLevel;
+        this.avgOxygenLevel = count == 0 ? 0 : (double) sumOxygenLevel / count;
+        this.minTemperature = minTemperature;
+        this.maxTemperature = maxTemperature;
+        this.avgTemperature = count == 0 ? 0 : sumTemperature / count;
+        // Not every reading has a blood pressure, so its averages use their own count
+        this.bloodPressureCount = bloodPressureCount;
+        this.minSystolic = minSystolic;
+        this.maxSystolic = maxSystolic;
+        this.avgSystolic = bloodPressureCount == 0 ? 0 : (double) sumSystolic / bloodPressureCount;
+        this.minDiastolic = minDiastolic;
+        this.maxDiastolic = maxDiastolic;
+        this.avgDiastolic = bloodPressureCount == 0 ? 0 : (double) sumDiastolic / bloodPressureCount;
+    }
+
+    // ========== GETTER METHODS ==========
+    public String getPatientId() { return patientId; }
+    public Resolution getResolution() { return resolution; }
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public int getCount() { return count; }
+    public int getMinHeartRate() { return minHeartRate; }
+    public int getMaxHeartRate() { return maxHeartRate; }
+    public double getAvgHeartRate() { return avgHeartRate; }
+    public int getMinOxygenLevel() { return minOxygenLevel; }
+    public int getMaxOxygenLevel() { return maxOxygenLevel; }
+    public double getAvgOxygenLevel() { return avgOxygenLevel; }
+    public double getMinTemperature() { return minTemperature; }
+    public double getMaxTemperature() { return maxTemperature; }
+    public double getAvgTemperature() { return avgTemperature; }
+    public int getBloodPressureCount() { return bloodPressureCount; }
+    public int getMinSystolic() { return minSystolic; }
+    public int getMaxSystolic() { return maxSystolic; }
+    public double getAvgSystolic() { return avgSystolic; }
+    public int getMinDiastolic() { return minDiastolic; }
+    public int getMaxDiastolic() { return maxDiastolic; }
+    public double getAvgDiastolic() { return avgDiastolic; }
+
+    /**
+     * Returns a formatted summary of the bucket.
+     *
+     * @return Formatted string with the bucket start and aggregates
+     */
+    @Override
+    public String toString() {
+        return resolution + " " + bucketStart + " (" + count + " readings): " +
+               String.format("HR %d-%d avg %.1f, O2 %d-%d avg %.1f, Temp %.1f-%.1f avg %.1f, BP avg %.0f/%.0f",
+                             minHeartRate, maxHeartRate, avgHeartRate,
+                             minOxygenLevel, maxOxygenLevel, avgOxygenLevel,
+                             minTemperature, maxTemperature, avgTemperature,
+                             avgSystolic, avgDiastolic);
+    }
+}
@@ -7,6 +7,8 @@
  */
 package com.remotehealth.app.model;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.Date;
 
 public class VitalSign {
@@ -14,6 +16,8 @@ public class VitalSign {
     private int heartRate;        // Heart rate in beats per minute (bpm)
     private int oxygenLevel;      // Blood oxygen saturation percentage
     private String bloodPressure; // Blood pressure in "systolic/diastolic" format
+    private int systolic;         // Systolic pressure in mmHg, 0 if not recorded
+    private int diastolic;        // Diastolic pressure in mmHg, 0 if not recorded
     private double temperature;   // Body temperature in Celsius
     private Date added_on;        // Timestamp when measurement was taken
 
@@ -27,13 +31,55 @@ public class VitalSign {
      * @param added_on Measurement timestamp
      */
     public VitalSign(int heartRate, int oxygenLevel, String bloodPressure, double temperature, Date added_on) {
+        this(heartRate, oxygenLevel, bloodPressure, parsePressure(bloodPressure, 0), parsePressure(bloodPressure, 1),
+             temperature, added_on);
+    }
+
+    /**
+     * Constructs a new VitalSign whose blood pressure is already split into its parts.
+     * 
+     * @param heartRate Heart rate in bpm
+     * @param oxygenLevel Oxygen saturation percentage
+     * @param bloodPressure Blood pressure string as entered (e.g., "120/80")
+     * @param systolic Systolic pressure in mmHg, or 0 if not recorded
+     * @param diastolic Diastolic pressure in mmHg, or 0 if not recorded
+     * @param temperature Body temperature in Celsius
+     * @param added_on Measurement timestamp
+     */
+    public VitalSign(int heartRate, int oxygenLevel, String bloodPressure, int systolic, int diastolic,
+                     double temperature, Date added_on) {
         this.heartRate = heartRate;
         this.oxygenLevel = oxygenLevel;
         this.bloodPressure = bloodPressure;
+        this.systolic = systolic;
+        this.diastolic = diastolic;
         this.temperature = temperature;
         this.added_on = added_on;
     }
 
+    /**
+     * Reads one side of a "systolic/diastolic" string.
+     * 
+     * @param bloodPressure The blood pressure string
+     * @param part 0 for systolic, 1 for diastolic
+     * @return The pressure in mmHg, or 0 if the string doesn't parse
+     */
+    private static int parsePressure(String bloodPressure, int part) {
+        if (bloodPressure == null) {
+            return 0;
+        }
+        String[] parts = bloodPressure.split("/");
+        if (parts.length != 2) {
+            return 0;
+        }
+        try {
+            int value = Integer.parseInt(parts[part].trim());
+            return value > 0 ? value : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     // ========== GETTER METHODS ==========
 
     /**
@@ -57,6 +103,27 @@ public class VitalSign {
         return bloodPressure;
     }
 
+    /**
+     * @return Systolic pressure in mmHg, or 0 if not recorded
+     */
+    public int getSystolic() {
+        return systolic;
+    }
+
+    /**
+     * @return Diastolic pressure in mmHg, or 0 if not recorded
+     */
+    public int getDiastolic() {
+        return diastolic;
+    }
+
+    /**
+     * @return true if both systolic and diastolic pressure were recorded
+     */
+    public boolean hasBloodPressure() {
+        return systolic > 0 && diastolic > 0;
+    }
+
     /**
      * @return Body temperature in Celsius
      */
@@ -71,6 +138,13 @@ public class VitalSign {
         return added_on;
     }
 
+    /**
+     * @return Timestamp when measurement was taken, as a LocalDateTime (null if unknown)
+     */
+    public LocalDateTime getAddedOnDateTime() {
+        return added_on == null ? null : new Timestamp(added_on.getTime()).toLocalDateTime();
+    }
+
     /**
      * Returns a formatted string representation of all vital signs.
      * 
@@ -0,0 +1,202 @@
+/**
+ * The VitalsSeries class holds a patient's vital sign readings in columnar
+ * form: one primitive array per metric, indexed by reading. It is filled
+ * straight from a query result, so scans over long histories (charts,
+ * reports, alert checks) neither allocate an object per reading nor chase
+ * pointers. Readings are kept in the order the query returned them.
+ *
+ * Integer values are narrowed to the smallest type that holds any plausible
+ * reading; out-of-range values are clamped rather than wrapped. Blood
+ * pressure is 0 when it was not recorded. Temperatures stay doubles, as in
+ * the database, so alert rules see exactly the stored value.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.model;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+
+public final class VitalsSeries {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] times;          // Epoch milliseconds
+    private short[] heartRates;    // bpm
+    private byte[] oxygenLevels;   // SpO2 percentage
+    private double[] temperatures; // Celsius
+    private short[] systolics;     // mmHg, 0 if not recorded
+    private short[] diastolics;    // mmHg, 0 if not recorded
+    private int size;
+
+    VitalsSeries() {
+        this(INITIAL_CAPACITY);
+    }
+
+    VitalsSeries(int capacity) {
+        capacity = Math.max(capacity, 1);
+        times = new long[capacity];
+        heartRates = new short[capacity];
+        oxygenLevels = new byte[capacity];
+        temperatures = new double[capacity];
+        systolics = new short[capacity];
+        diastolics = new short[capacity];
+    }
+
+    /**
+     * Appends a reading.
+     *
+     * @param time When the reading was taken, in epoch milliseconds
+     * @param heartRate Heart rate in bpm
+     * @param oxygenLevel Oxygen saturation percentage
+     * @param systolic Systolic pressure in mmHg, or 0 if not recorded
+     * @param diastolic Diastolic pressure in mmHg, or 0 if not recorded
+     * @param temperature Body temperature in Celsius
+     */
+    void add(long time, int heartRate, int oxygenLevel, int systolic, int diastolic, double temperature) {
+        if (size == times.length) {
+            grow();
+        }
+        times[size] = time;
+        heartRates[size] = toShort(heartRate);
+        oxygenLevels[size] = (byte) Math.max(0, Math.min(oxygenLevel, Byte.MAX_VALUE));
+        temperatures[size] = temperature;
+        systolics[size] = toShort(systolic);
+        diastolics[size] = toShort(diastolic);
+        size++;
+    }
+
+    /**
+     * Removes all readings but keeps the capacity, so the series can be refilled without allocating.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    private void grow() {
+        int capacity = times.length * 2;
+        times = Arrays.copyOf(times, capacity);
+        heartRates = Arrays.copyOf(heartRates, capacity);
+        oxygenLevels = Arrays.copyOf(oxygenLevels, capacity);
+        temperatures = Arrays.copyOf(temperatures, capacity);
+        systolics = Arrays.copyOf(systolics, capacity);
+        diastolics = Arrays.copyOf(diastolics, capacity);
+    }
+
+    private static short toShort(int value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(value, Short.MAX_VALUE));
+    }
+
+    // ========== ACCESSORS ==========
+
+    /**
+     * @return Number of readings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if there are no readings
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index Reading index
+     * @return When the reading was taken, in epoch milliseconds
+     */
+    public long getTime(int index) {
+        checkIndex(index);
+        return times[index];
+    }
+
+    /**
+     * @param index Reading index
+     * @return When the reading was taken, in the system time zone
+     */
+    public LocalDateTime getReadingAt(int index) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(getTime(index)), ZoneId.systemDefault());
+    }
+
+    /**
+     * @param index Reading index
+     * @return Heart rate in beats per minute
+     */
+    public int getHeartRate(int index) {
+        checkIndex(index);
+        return heartRates[index];
+    }
+
+    /**
+     * @param index Reading index
+     * @return Oxygen saturation percentage
+     */
+    public int getOxygenLevel(int index) {
+        checkIndex(index);
+        return oxygenLevels[index];
+    }
+
+    /**
+     * @param index Reading index
+     * @return Body temperature in Celsius
+     */
+    public double getTemperature(int index) {
+        checkIndex(index);
+        return temperatures[index];
+    }
+
+    /**
+     * @param index Reading index
+     * @return Systolic pressure in mmHg, or 0 if not recorded
+     */
+    public int getSystolic(int index) {
+        checkIndex(index);
+        return systolics[index];
+    }
+
+    /**
+     * @param index Reading index
+     * @return Diastolic pressure in mmHg, or 0 if not recorded
+     */
+    public int getDiastolic(int index) {
+        checkIndex(index);
+        return diastolics[index];
+    }
+
+    /**
+     * @param index Reading index
+     * @return true if both systolic and diastolic pressure were recorded
+     */
+    public boolean hasBloodPressure(int index) {
+        return getSystolic(index) > 0 && getDiastolic(index) > 0;
+    }
+
+    /**
+     * Builds a VitalSign for one reading, for code that works on single readings.
+     * Blood pressure text that was never parsed into numbers is not kept.
+     *
+     * @param index Reading index
+     * @return A new VitalSign with the reading's values
+     */
+    public VitalSign toVitalSign(int index) {
+        int systolic = getSystolic(index);
+        int diastolic = getDiastolic(index);
+        String bloodPressure = hasBloodPressure(index) ? systolic + "/" + diastolic : null;
+        Date addedOn = new Timestamp(getTime(index));
+        return new VitalSign(getHeartRate(index), getOxygenLevel(index), bloodPressure,
+                             systolic, diastolic, getTemperature(index), addedOn);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
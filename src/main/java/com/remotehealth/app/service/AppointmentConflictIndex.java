@@ -0,0 +1,151 @@
+/**
+ * The AppointmentConflictIndex keeps each doctor's upcoming pending and approved
+ * appointments in a TreeMap keyed by start time, so an overlap check only looks
+ * at the handful of appointments inside the candidate's time window.
+ * A doctor's schedule is loaded on first use and reloaded after a short TTL to
+ * pick up appointments written by other clients. Checks before the loaded
+ * window fall back to an indexed range query on (doctor_id, date_time).
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.service;
+
+import com.remotehealth.app.model.Appointment;
+import com.remotehealth.app.model.DatabaseManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+final class AppointmentConflictIndex {
+
+    /** Length of one appointment slot */
+    static final Duration SLOT = Duration.ofMinutes(30);
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final long RELOAD_AFTER_MS = 60_000;
+
+    /**
+     * One doctor's active appointments from loadedFrom onwards.
+     */
+    private static final class Schedule {
+        final LocalDateTime loadedFrom;
+        final long loadedAt;
+        final TreeMap<LocalDateTime, List<Appointment>> byStart = new TreeMap<>();
+
+        Schedule(LocalDateTime loadedFrom) {
+            this.loadedFrom = loadedFrom;
+            this.loadedAt = System.currentTimeMillis();
+        }
+    }
+
+    private final DatabaseManager dbManager;
+    private final Map<String, Schedule> schedules = new HashMap<>();
+
+    AppointmentConflictIndex(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /**
+     * Checks whether an appointment starting at start would overlap an active
+     * appointment of the same doctor.
+     *
+     * @param doctorId The doctor's ID
+     * @param start The proposed start time
+     * @param excludeId ID of an appointment to ignore (the one being changed), or 0
+     * @return true if a conflict exists
+     */
+    synchronized boolean hasConflict(String doctorId, LocalDateTime start, int excludeId) {
+        // Any appointment starting strictly within one slot either side overlaps
+        LocalDateTime windowStart = start.minus(SLOT);
+        LocalDateTime windowEnd = start.plus(SLOT);
+
+        Schedule schedule = getSchedule(doctorId);
+        if (windowStart.isBefore(schedule.loadedFrom)) {
+            // Outside the cached window, ask the database for just this range
+            for (Appointment existing : dbManager.getAppointmentsForDoctorBetween(doctorId, windowStart, windowEnd)) {
+                if (existing.getId() != excludeId && isActive(existing)
+                        && existing.getDateTime().isAfter(windowStart)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        NavigableMap<LocalDateTime, List<Appointment>> window = schedule.byStart.subMap(windowStart, false, windowEnd, false);
+        for (List<Appointment> atStart : window.values()) {
+            for (Appointment existing : atStart) {
+                if (existing.getId() != excludeId && isActive(existing)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records a newly saved appointment.
+     */
+    synchronized void added(Appointment appointment) {
+        Schedule schedule = schedules.get(appointment.getDoctor().getId());
+        if (schedule != null) {
+            put(schedule, appointment);
+        }
+    }
+
+    /**
+     * Records a change to an appointment's time or status.
+     *
+     * @param appointment The appointment after the change
+     * @param previousStart Its start time before the change
+     */
+    synchronized void updated(Appointment appointment, LocalDateTime previousStart) {
+        Schedule schedule = schedules.get(appointment.getDoctor().getId());
+        if (schedule == null) {
+            return;
+        }
+        List<Appointment> atStart = schedule.byStart.get(previousStart);
+        if (atStart != null) {
+            atStart.removeIf(a -> a.getId() == appointment.getId());
+            if (atStart.isEmpty()) {
+                schedule.byStart.remove(previousStart);
+            }
+        }
+        put(schedule, appointment);
+    }
+
+    /**
+     * Drops a doctor's cached schedule so the next check reloads it.
+     */
+    synchronized void invalidate(String doctorId) {
+        schedules.remove(doctorId);
+    }
+
+    private Schedule getSchedule(String doctorId) {
+        Schedule schedule = schedules.get(doctorId);
+        if (schedule == null || System.currentTimeMillis() - schedule.loadedAt > RELOAD_AFTER_MS) {
+            // Start one slot back so appointments already in progress are included
+            schedule = new Schedule(LocalDateTime.now().minus(SLOT));
+            for (Appointment appointment : dbManager.getAppointmentsForDoctorBetween(doctorId, schedule.loadedFrom, FAR_FUTURE)) {
+                put(schedule, appointment);
+            }
+            schedules.put(doctorId, schedule);
+        }
+        return schedule;
+    }
+
+    private static void put(Schedule schedule, Appointment appointment) {
+        if (isActive(appointment) && !appointment.getDateTime().isBefore(schedule.loadedFrom)) {
+            schedule.byStart.computeIfAbsent(appointment.getDateTime(), t -> new ArrayList<>(1)).add(appointment);
+        }
+    }
+
+    private static boolean isActive(Appointment appointment) {
+        String status = appointment.getStatus();
+        return "Approved".equalsIgnoreCase(status) || "Pending".equalsIgnoreCase(status);
+    }
+}
@@ -10,13 +10,13 @@ package com.remotehealth.app.service;
 
 import com.remotehealth.app.model.*;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 public class AppointmentManager {
     // Service dependencies
     private ReminderService reminderService;
     private DatabaseManager dbManager;
+    private final AppointmentConflictIndex conflictIndex;
 
     // === Constructors ===
     
@@ -27,6 +27,7 @@ public class AppointmentManager {
      */
     public AppointmentManager(DatabaseManager dbManager) {
         this.dbManager = dbManager;
+        this.conflictIndex = new AppointmentConflictIndex(dbManager);
     }
 
     // === Core Appointment Operations ===
@@ -35,8 +36,9 @@ public class AppointmentManager {
      * Requests a new appointment, checking for conflicts first.
      * 
      * @param appointment The appointment to request
+     * @return true if the appointment was saved, false if the slot is taken
      */
-    public void requestAppointment(Appointment appointment) {
+    public boolean requestAppointment(Appointment appointment) {
         // First validate the appointment
         if (appointment.getDoctor() == null || appointment.getPatient() == null) {
             throw new IllegalArgumentException("Appointment must have both doctor and patient");
@@ -44,10 +46,13 @@ public class AppointmentManager {
     
         if (hasConflict(appointment, null)) {
            System.out.println("[ERROR] Appointment conflict detected.");
+           return false;
         } else {
            appointment.setStatus("Pending");
            dbManager.saveAppointment(appointment);
+           conflictIndex.added(appointment);
            System.out.println("[INFO] Appointment requested successfully for " + appointment.getPatient().getName());
+           return true;
        }
     }
 
@@ -66,20 +71,19 @@ public class AppointmentManager {
             throw new IllegalStateException("Time slot not available");
         }
         
-        appointment.setDateTime(dateTime);
-        appointment.setStatus("Approved");
-        updateAppointmentInDatabase(appointment);
+        updateAppointmentInDatabase(appointment, dateTime, "Approved");
         System.out.println("[INFO] Appointment approved for " + appointment.getPatient().getName());
         
         // Send notifications if reminder service is available
         if (reminderService != null) {
             reminderService.sendAppointmentApprovalNotification(appointment);
-            reminderService.sendAppointmentReminders(appointment.getPatient());
+            reminderService.appointmentChanged(appointment);
         }
     }
 
     /**
-     * Checks for scheduling conflicts with existing appointments.
+     * Checks for scheduling conflicts with the doctor's other pending or approved
+     * appointments (assuming 30-minute appointments), using the per-doctor index.
      * 
      * @param newAppt The new appointment to check
      * @param toExclude An existing appointment to exclude from conflict check
@@ -89,33 +93,8 @@ public class AppointmentManager {
         if (newAppt.getDoctor() == null) {
         return false; 
         }
-        ArrayList<Appointment> doctorAppointments = dbManager.getAppointmentsForDoctor(newAppt.getDoctor().getName());
-        
-        for (Appointment existing : doctorAppointments) {
-            // Skip the appointment we're trying to modify
-            if (toExclude != null &&
-                existing.getDateTime().equals(toExclude.getDateTime()) &&
-                existing.getPatient().getId().equals(toExclude.getPatient().getId()) &&
-                existing.getDoctor().getName().equals(toExclude.getDoctor().getName())) {
-                continue;
-            }
-            
-            // Only check approved or pending appointments
-            if (!existing.getStatus().equals("Approved") && !existing.getStatus().equals("Pending")) {
-                continue;
-            }
-            
-            // Check time overlap (assuming 30-minute appointments)
-            LocalDateTime existingStart = existing.getDateTime();
-            LocalDateTime existingEnd = existingStart.plusMinutes(30);
-            LocalDateTime newStart = newAppt.getDateTime();
-            LocalDateTime newEnd = newStart.plusMinutes(30);
-            
-            if (newStart.isBefore(existingEnd) && newEnd.isAfter(existingStart)) {
-                return true; // Conflict found
-            }
-        }
-        return false; // No conflict
+        int excludeId = toExclude == null ? 0 : toExclude.getId();
+        return conflictIndex.hasConflict(newAppt.getDoctor().getId(), newAppt.getDateTime(), excludeId);
     }
 
     /**
@@ -124,9 +103,11 @@ public class AppointmentManager {
      * @param appointment The appointment to reject
      */
     public void rejectAppointment(Appointment appointment) {
-        appointment.setStatus("Rejected");
-        updateAppointmentInDatabase(appointment);
+        updateAppointmentInDatabase(appointment, appointment.getDateTime(), "Rejected");
         System.out.println("[INFO] Appointment rejected for " + appointment.getPatient().getName());
+        if (reminderService != null) {
+            reminderService.appointmentChanged(appointment);
+        }
     }
 
     /**
@@ -140,9 +121,11 @@ public class AppointmentManager {
         if (hasConflict(temp, appointment)) {
             System.out.println("[ERROR] Appointment conflict detected.");
         } else {
-            appointment.setDateTime(newDateTime);
-            updateAppointmentInDatabase(appointment);
+            updateAppointmentInDatabase(appointment, newDateTime, appointment.getStatus());
             System.out.println("[INFO] Appointment rescheduled to: " + newDateTime);
+            if (reminderService != null) {
+                reminderService.appointmentChanged(appointment);
+            }
         }
     }
     
@@ -170,14 +153,29 @@ public class AppointmentManager {
     // === Helper Methods ===
     
     /**
-     * Updates an appointment in the database.
-     * Currently implemented as delete+insert due to DB manager limitations.
+     * Applies a new date/time and status to an appointment and writes it with a
+     * single versioned UPDATE. If the row was changed concurrently the in-memory
+     * appointment is restored and the IllegalStateException is rethrown.
      * 
      * @param appointment The appointment to update
+     * @param dateTime The new date/time
+     * @param status The new status
+     * @throws IllegalStateException if another user changed the appointment first
      */
-    private void updateAppointmentInDatabase(Appointment appointment) {
-        // Since DatabaseManager doesn't have an update method, we'll delete and re-insert
-        dbManager.deleteAppointmentsByPatientId(appointment.getPatient().getId());
-        dbManager.saveAppointment(appointment);
+    private void updateAppointmentInDatabase(Appointment appointment, LocalDateTime dateTime, String status) {
+        LocalDateTime oldDateTime = appointment.getDateTime();
+        String oldStatus = appointment.getStatus();
+        appointment.setDateTime(dateTime);
+        appointment.setStatus(status);
+        try {
+            dbManager.updateAppointment(appointment);
+        } catch (RuntimeException e) {
+            appointment.setDateTime(oldDateTime);
+            appointment.setStatus(oldStatus);
+            // Someone else changed this doctor's schedule; reload it on the next check
+            conflictIndex.invalidate(appointment.getDoctor().getId());
+            throw e;
+        }
+        conflictIndex.updated(appointment, oldDateTime);
     }
 }
\ No newline at end of file
@@ -0,0 +1,126 @@
+/**
+ * The BulkReminderJob sends many reminders at once, such as the daily
+ * medication run or the appointment reminders that piled up while the
+ * application was down. It works in three stages:
+ *
+ *   1. load everything that is due with one set-based query per kind,
+ *   2. group it by patient in memory, so each patient gets one message,
+ *   3. hand the messages to a small pool of sender threads, then record
+ *      the watermarks of everything that was sent in one batch.
+ *
+ * This replaces a round trip per patient and a strictly sequential SMTP
+ * loop with two queries and a few concurrent sends.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.service;
+
+import com.remotehealth.app.model.Appointment;
+import com.remotehealth.app.model.DatabaseManager;
+import com.remotehealth.app.model.Patient;
+import com.remotehealth.app.model.Prescription;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class BulkReminderJob {
+
+    /** Concurrent SMTP sends; mail servers throttle clients that open many more */
+    static final int SENDERS = 4;
+
+    private final ReminderService reminderService;
+    private final DatabaseManager dbManager;
+    private final ExecutorService senders;
+
+    BulkReminderJob(ReminderService reminderService, DatabaseManager dbManager) {
+        this.reminderService = reminderService;
+        this.dbManager = dbManager;
+        AtomicInteger count = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(SENDERS, r -> {
+            Thread thread = new Thread(r, "reminder-sender-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sends the medication reminder to every patient who has not had one since the slot.
+     *
+     * @param slot Start of the current reminder slot
+     * @return Number of patients whose reminder could not be sent
+     */
+    int sendMedicationReminders(LocalDateTime slot) {
+        Map<Patient, List<Prescription>> due = dbManager.getPrescriptionsDueForReminder(slot);
+        List<Future<Boolean>> sends = new ArrayList<>(due.size());
+        for (Map.Entry<Patient, List<Prescription>> entry : due.entrySet()) {
+            sends.add(senders.submit(() -> reminderService.sendPrescriptionReminders(entry.getKey(), entry.getValue())));
+        }
+
+        List<String> sent = new ArrayList<>(due.size());
+        int i = 0;
+        for (Patient patient : due.keySet()) {
+            if (succeeded(sends.get(i++))) {
+                sent.add(patient.getId());
+            }
+        }
+        dbManager.saveReminderWatermarks(ReminderScheduler.MEDICATION, sent, LocalDateTime.now());
+        return due.size() - sent.size();
+    }
+
+    /**
+     * Sends reminders for appointments that are already due, one message per patient.
+     *
+     * @param due Appointments whose reminder is due, as returned by the reminder query
+     * @return Number of appointments whose reminder could not be sent
+     */
+    int sendAppointmentReminders(List<Appointment> due) {
+        Map<String, List<Appointment>> byPatient = new LinkedHashMap<>();
+        for (Appointment appt : due) {
+            byPatient.computeIfAbsent(appt.getPatient().getId(), id -> new ArrayList<>()).add(appt);
+        }
+
+        List<Future<Boolean>> sends = new ArrayList<>(byPatient.size());
+        for (List<Appointment> appointments : byPatient.values()) {
+            Patient patient = appointments.get(0).getPatient();
+            sends.add(senders.submit(() -> reminderService.sendAppointmentReminders(patient, appointments)));
+        }
+
+        List<String> sent = new ArrayList<>(due.size());
+        int i = 0;
+        for (List<Appointment> appointments : byPatient.values()) {
+            if (succeeded(sends.get(i++))) {
+                for (Appointment appt : appointments) {
+                    sent.add(String.valueOf(appt.getId()));
+                }
+            }
+        }
+        dbManager.saveReminderWatermarks(ReminderScheduler.APPOINTMENT, sent, LocalDateTime.now());
+        return due.size() - sent.size();
+    }
+
+    /**
+     * Stops the sender threads. Sends already handed over are abandoned.
+     */
+    void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private static boolean succeeded(Future<Boolean> send) {
+        try {
+            return send.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+}
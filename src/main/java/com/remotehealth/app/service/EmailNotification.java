@@ -1,21 +1,21 @@
 /**
  * The EmailNotification class handles all email communications for the Remote Health
- * Monitoring System. It implements retry logic for failed sends and provides
- * comprehensive error handling for SMTP operations.
+ * Monitoring System. Messages go out over a small pool of SMTP connections that
+ * stay open and authenticated between sends; a send that fails is retried on a
+ * fresh connection. Once an outbox is attached, sending only queues the message
+ * and returns; the NotificationOutbox delivers it in the background.
  * 
  * @author 
  * @version 1.0
  */
 package com.remotehealth.app.service;
 
-import jakarta.mail.Authenticator;
 import jakarta.mail.MessagingException;
-import jakarta.mail.PasswordAuthentication;
 import jakarta.mail.Session;
-import jakarta.mail.Transport;
 import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 import java.util.Properties;
+import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,11 +26,17 @@ public class EmailNotification implements NotificationService {
     
     // Configuration constants
     private static final int MAX_RETRIES = 3;
-    private static final long RETRY_DELAY_MS = 2000;
+    private static final int MAX_CONNECTIONS = 4;          // Matches the bulk reminder senders
+    private static final long MAX_IDLE_MS = 60_000;        // Servers drop idle clients after a few minutes
     private static final String SMTP_USERNAME = "healthmonitoringsystemDS2A@gmail.com";
     private static final String SMTP_PASSWORD = "vmmp kqpp nfyr byqe"; // Use app-specific password
     private static final String SMTP_HOST = "smtp.gmail.com";
     private static final int SMTP_PORT = 587;
+
+    private final Session session = createSession();
+    private final SmtpTransportPool transports =
+        new SmtpTransportPool(session, SMTP_USERNAME, SMTP_PASSWORD, MAX_CONNECTIONS, MAX_IDLE_MS);
+    private volatile NotificationOutbox outbox;  // null: send on the caller's thread
     
     /**
      * Sends a notification email with retry logic.
@@ -45,13 +51,58 @@ public class EmailNotification implements NotificationService {
     }
 
     /**
-     * Main email sending method with retry logic.
+     * Sends a notification that must go out at most once. With an outbox attached,
+     * sending again with the same key has no effect.
+     * 
+     * @param idempotencyKey Identifies the notification, e.g. "appointment-approved:42:3"
+     * @param to Recipient email address
+     * @param message Email content
+     */
+    public void sendNotification(String idempotencyKey, String to, String message) {
+        NotificationOutbox current = outbox;
+        if (current != null) {
+            current.enqueue(idempotencyKey, to, "Health Monitoring Notification", message);
+        } else {
+            sendNow(to, "Health Monitoring Notification", message);
+        }
+    }
+
+    /**
+     * Routes all further messages through an outbox instead of sending them directly.
+     * 
+     * @param outbox The outbox that queues and delivers messages
+     */
+    public void useOutbox(NotificationOutbox outbox) {
+        this.outbox = outbox;
+    }
+
+    /**
+     * Main email sending method. With an outbox attached the message is queued
+     * and this returns at once; otherwise it is sent straight away.
      * 
      * @param toEmail Recipient email address
      * @param subject Email subject
      * @param body Email content
      */
     public void sendEmail(String toEmail, String subject, String body) {
+        NotificationOutbox current = outbox;
+        if (current != null) {
+            current.enqueue(UUID.randomUUID().toString(), toEmail, subject, body);
+        } else {
+            sendNow(toEmail, subject, body);
+        }
+    }
+
+    /**
+     * Sends a message on the caller's thread, with retry logic. Each retry runs
+     * straight away on a new connection, since the usual cause of a failure is a
+     * connection the server has dropped.
+     * 
+     * @param toEmail Recipient email address
+     * @param subject Email subject
+     * @param body Email content
+     */
+    private void sendNow(String toEmail, String subject, String body) {
         int attempt = 0;
         boolean sentSuccessfully = false;
         Exception lastException = null;
@@ -61,7 +112,6 @@ public class EmailNotification implements NotificationService {
             try {
                 if (attempt > 1) {
                     logger.info("Retry attempt " + attempt + " for email to: " + toEmail);
-                    Thread.sleep(RETRY_DELAY_MS);
                 }
                 
                 internalSendEmail(toEmail, subject, body);
@@ -70,7 +120,7 @@ public class EmailNotification implements NotificationService {
                 
             } catch (InterruptedException ie) {
                 Thread.currentThread().interrupt();
-                logger.log(Level.WARNING, "Email sending interrupted during retry delay", ie);
+                logger.log(Level.WARNING, "Email sending interrupted while waiting for a connection", ie);
                 break;
             } catch (EmailException e) {
                 lastException = e;
@@ -85,6 +135,19 @@ public class EmailNotification implements NotificationService {
         }
     }
     
+    /**
+     * Makes a single delivery attempt; used by the outbox, which schedules its own retries.
+     * 
+     * @param toEmail Recipient email address
+     * @param subject Email subject
+     * @param body Email content
+     * @throws EmailException if sending fails
+     * @throws InterruptedException if interrupted while waiting for a free connection
+     */
+    void deliver(String toEmail, String subject, String body) throws EmailException, InterruptedException {
+        internalSendEmail(toEmail, subject, body);
+    }
+
     /**
      * Internal email sending implementation with SMTP.
      * 
@@ -92,8 +155,10 @@ public class EmailNotification implements NotificationService {
      * @param subject Email subject
      * @param body Email content
      * @throws EmailException if sending fails
+     * @throws InterruptedException if interrupted while waiting for a free connection
      */
-    private void internalSendEmail(String toEmail, String subject, String body) throws EmailException {
+    private void internalSendEmail(String toEmail, String subject, String body)
+            throws EmailException, InterruptedException {
         try {
             // Validate inputs
             if (toEmail == null || toEmail.trim().isEmpty()) {
@@ -103,23 +168,6 @@ public class EmailNotification implements NotificationService {
                 throw new IllegalArgumentException("Email subject cannot be null or empty");
             }
             
-            // Configure SMTP properties
-            Properties props = new Properties();
-            props.put("mail.smtp.auth", "true");
-            props.put("mail.smtp.starttls.enable", "true");
-            props.put("mail.smtp.host", SMTP_HOST);
-            props.put("mail.smtp.port", SMTP_PORT);
-            props.put("mail.smtp.connectiontimeout", "5000"); // 5 seconds
-            props.put("mail.smtp.timeout", "5000"); // 5 seconds
-            
-            // Create authenticated session
-            Session session = Session.getInstance(props, new Authenticator() {
-                @Override
-                protected PasswordAuthentication getPasswordAuthentication() {
-                    return new PasswordAuthentication(SMTP_USERNAME, SMTP_PASSWORD);
-                }
-            });
-
             // Build and send message
             MimeMessage emailMessage = new MimeMessage(session);
             emailMessage.setFrom(new InternetAddress(SMTP_USERNAME));
@@ -127,8 +175,10 @@ public class EmailNotification implements NotificationService {
             emailMessage.setSubject(subject);
             emailMessage.setText(body);
             
-            Transport.send(emailMessage);
+            transports.send(emailMessage);
             
+        } catch (InterruptedException e) {
+            throw e;
         } catch (MessagingException e) {
             throw new EmailException("Failed to send email due to messaging error", e);
         } catch (Exception e) {
@@ -136,6 +186,30 @@ public class EmailNotification implements NotificationService {
         }
     }
     
+    /**
+     * Closes the pooled SMTP connections.
+     */
+    public void close() {
+        transports.close();
+    }
+
+    /**
+     * Builds the mail session shared by every connection.
+     * 
+     * @return Session configured for the SMTP server
+     */
+    private static Session createSession() {
+        Properties props = new Properties();
+        props.put("mail.smtp.auth", "true");
+        props.put("mail.smtp.starttls.enable", "true");
+        props.put("mail.smtp.host", SMTP_HOST);
+        props.put("mail.smtp.port", String.valueOf(SMTP_PORT));
+        props.put("mail.smtp.connectiontimeout", "5000"); // 5 seconds
+        props.put("mail.smtp.timeout", "5000"); // 5 seconds
+        props.put("mail.smtp.writetimeout", "5000"); // 5 seconds
+        return Session.getInstance(props);
+    }
+
     /**
      * Custom exception for email-related errors.
      */
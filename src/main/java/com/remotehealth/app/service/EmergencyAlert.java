@@ -2,6 +2,8 @@
  * The EmergencyAlert class monitors patient vital signs and manages emergency situations
  * in the Remote Health Monitoring System. It detects critical health conditions,
  * handles panic button activations, and tracks emergency statuses.
+ * Every raised, acknowledged or purged alert is published on its
+ * EmergencyEventBus so open dashboards update immediately.
  * 
  * @author 
  * @version 1.0
@@ -11,12 +13,24 @@ package com.remotehealth.app.service;
 import com.remotehealth.app.model.DatabaseManager;
 import com.remotehealth.app.model.Patient;
 import com.remotehealth.app.model.VitalSign;
+import com.remotehealth.app.model.VitalsSeries;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class EmergencyAlert {
     private final DatabaseManager dbManager;
+    private final VitalRules rules;
+    private final EmergencyEventBus eventBus;
+    // Per-patient time of the newest reading already evaluated
+    private final Map<String, LocalDateTime> highWaterMarks = new ConcurrentHashMap<>();
+    // Per-patient locks, so a rescan for one patient does not wait on another's
+    private final Map<String, Object> patientLocks = new ConcurrentHashMap<>();
 
     /**
      * Constructs an EmergencyAlert with database access.
@@ -24,7 +38,30 @@ public class EmergencyAlert {
      * @param dbManager The database manager for emergency records
      */
     public EmergencyAlert(DatabaseManager dbManager) {
+        this(dbManager, VitalRules.DEFAULT);
+    }
+
+    /**
+     * Constructs an EmergencyAlert with database access and custom thresholds.
+     * 
+     * @param dbManager The database manager for emergency records
+     * @param rules The rule set used to detect critical readings
+     */
+    public EmergencyAlert(DatabaseManager dbManager, VitalRules rules) {
+        this(dbManager, rules, new EmergencyEventBus());
+    }
+
+    /**
+     * Constructs an EmergencyAlert that publishes its changes on the given bus.
+     * 
+     * @param dbManager The database manager for emergency records
+     * @param rules The rule set used to detect critical readings
+     * @param eventBus The bus alert changes are published on
+     */
+    public EmergencyAlert(DatabaseManager dbManager, VitalRules rules, EmergencyEventBus eventBus) {
         this.dbManager = dbManager;
+        this.rules = rules;
+        this.eventBus = eventBus;
     }
 
     /**
@@ -32,40 +69,73 @@ public class EmergencyAlert {
      * the patient, timestamp, type, and acknowledgment status.
      */
     public static class Emergency {
+        private long id;                        // Database primary key (0 until saved)
         private final String message;
         private final LocalDateTime timestamp;
         private final Patient patient;
         private boolean acknowledged;
         private final String type;
+        private final LocalDateTime readingAt;  // Time of the vital reading that caused it, null for panic alerts
 
         /**
          * Creates a new unacknowledged emergency.
          */
         public Emergency(String message, Patient patient, String type) {
-            this.message = message;
-            this.patient = patient;
-            this.type = type;
-            this.timestamp = LocalDateTime.now();
-            this.acknowledged = false;
+            this(message, patient, type, null);
+        }
+
+        /**
+         * Creates a new unacknowledged emergency caused by the reading taken at readingAt.
+         */
+        public Emergency(String message, Patient patient, String type, LocalDateTime readingAt) {
+            this(message, LocalDateTime.now(), patient, type, false, readingAt);
         }
 
         /**
          * Creates an emergency with full details (typically used when loading from DB).
          */
         public Emergency(String message, LocalDateTime timestamp, Patient patient, String type, boolean acknowledged) {
+            this(message, timestamp, patient, type, acknowledged, null);
+        }
+
+        /**
+         * Creates an emergency with full details, including the time of the triggering reading.
+         */
+        public Emergency(String message, LocalDateTime timestamp, Patient patient, String type, boolean acknowledged,
+                         LocalDateTime readingAt) {
+            this(0, message, timestamp, patient, type, acknowledged, readingAt);
+        }
+
+        /**
+         * Creates an emergency as loaded from the database, with its primary key.
+         */
+        public Emergency(long id, String message, LocalDateTime timestamp, Patient patient, String type,
+                         boolean acknowledged, LocalDateTime readingAt) {
+            this.id = id;
             this.message = message;
             this.timestamp = timestamp;
             this.patient = patient;
             this.type = type;
             this.acknowledged = acknowledged;
+            this.readingAt = readingAt;
         }
 
         // ========== GETTER METHODS ==========
+        /** @return Database primary key, or 0 if the emergency has not been saved */
+        public long getId() { return id; }
         public String getMessage() { return message; }
         public LocalDateTime getTimestamp() { return timestamp; }
         public Patient getPatient() { return patient; }
         public boolean isAcknowledged() { return acknowledged; }
         public String getType() { return type; }
+        public LocalDateTime getReadingAt() { return readingAt; }
+
+        /**
+         * Records the primary key assigned when the emergency was saved.
+         */
+        public void setId(long id) {
+            this.id = id;
+        }
 
         /**
          * Marks this emergency as acknowledged.
@@ -86,22 +156,63 @@ public class EmergencyAlert {
 
     /**
      * Triggers alerts based on abnormal vital signs.
-     * Checks all vitals for a patient and creates emergencies for critical values.
+     * Only readings at or after the patient's high-water mark are evaluated. The
+     * mark starts at the patient's second newest reading, since older readings
+     * were evaluated as they arrived. Readings at the mark itself are checked
+     * again, because a new reading can share its second; each (patient, type,
+     * reading) pair is still stored at most once.
      * 
      * @param patient The patient to check vitals for
      */
     public void triggerAlert(Patient patient) {
-        for (VitalSign vital : dbManager.getVitalsForPatient(patient.getId())) {
-            if (vital.getHeartRate() < 40 || vital.getHeartRate() > 120) {
-                saveEmergency(new Emergency("Critical heart rate: " + vital.getHeartRate(), patient, "HEART_RATE"));
+        String patientId = patient.getId();
+        synchronized (patientLocks.computeIfAbsent(patientId, id -> new Object())) {
+            LocalDateTime since = highWaterMarks.computeIfAbsent(patientId, dbManager::getVitalsTimeBeforeLatest);
+            LocalDateTime newest = since;
+            VitalsSeries vitals = dbManager.getVitalsSeriesSince(patientId, since);
+            for (int i = 0; i < vitals.size(); i++) {
+                LocalDateTime readingAt = vitals.getReadingAt(i);
+                checkVital(patient, vitals.toVitalSign(i), readingAt);
+                if (newest == null || readingAt.isAfter(newest)) {
+                    newest = readingAt;
+                }
             }
-            if (vital.getOxygenLevel() < 90) {
-                saveEmergency(new Emergency("Critical oxygen level: " + vital.getOxygenLevel(), patient, "OXYGEN"));
+            if (newest != null) {
+                highWaterMarks.put(patientId, newest);
             }
-            if (vital.getTemperature() < 35.0 || vital.getTemperature() > 40.0) {
-                saveEmergency(new Emergency("Critical temperature: " + vital.getTemperature(), patient, "TEMPERATURE"));
+        }
+    }
+
+    /**
+     * Evaluates a single reading and saves an emergency for every rule it breaks.
+     * 
+     * @param patient The patient the reading belongs to
+     * @param vital The reading to check
+     * @param readingAt When the reading was taken
+     * @return Number of new emergencies saved (duplicates are not counted)
+     */
+    public int checkVital(Patient patient, VitalSign vital, LocalDateTime readingAt) {
+        int saved = 0;
+        for (VitalRules.Violation violation : rules.evaluate(vital)) {
+            if (saveEmergency(new Emergency(violation.getMessage(), patient, violation.getType(), readingAt))) {
+                saved++;
             }
         }
+        return saved;
+    }
+
+    /**
+     * @return The rule set used to detect critical readings
+     */
+    public VitalRules getRules() {
+        return rules;
+    }
+
+    /**
+     * @return The bus raised, acknowledged and purged alerts are published on
+     */
+    public EmergencyEventBus getEventBus() {
+        return eventBus;
     }
 
     /**
@@ -117,9 +228,14 @@ public class EmergencyAlert {
      * Saves an emergency record to the database.
      * 
      * @param e The emergency to save
+     * @return true if saved, false if the same reading already raised this alert
      */
-    public void saveEmergency(Emergency e) {
-        dbManager.saveEmergency(e);
+    public boolean saveEmergency(Emergency e) {
+        if (!dbManager.saveEmergency(e)) {
+            return false;
+        }
+        eventBus.publish(EmergencyEvent.raised(eventBus.getOrigin(), e));
+        return true;
     }
 
     /**
@@ -148,12 +264,47 @@ public class EmergencyAlert {
     }
 
     /**
-     * Acknowledges an emergency and updates its status in the database.
+     * Acknowledges an emergency in the database. See acknowledgeAll for who updates its flag.
      * 
      * @param e The emergency to acknowledge
      */
     public void acknowledgeEmergency(Emergency e) {
-        e.acknowledge();
-        dbManager.updateEmergencyAcknowledged(e);
+        acknowledgeAll(Collections.singletonList(e));
+    }
+
+    /**
+     * Acknowledges several emergencies in one statement. The emergencies
+     * themselves are not modified, since they may be shown on the Event
+     * Dispatch Thread; callers flip their flags once this returns, and other
+     * consoles do so from the published ACKNOWLEDGED event.
+     * 
+     * @param emergencies The emergencies to acknowledge
+     * @return Number of emergencies that were still pending
+     */
+    public int acknowledgeAll(Collection<Emergency> emergencies) {
+        List<Long> ids = new ArrayList<>(emergencies.size());
+        for (Emergency e : emergencies) {
+            ids.add(e.getId());
+        }
+        int updated = dbManager.acknowledgeEmergencies(ids);
+        if (updated > 0) {
+            eventBus.publish(EmergencyEvent.acknowledged(eventBus.getOrigin(), ids));
+        }
+        return updated;
+    }
+
+    /**
+     * Deletes acknowledged emergencies raised before a point in time, in one statement.
+     * Pending emergencies are never deleted.
+     * 
+     * @param before Emergencies raised before this time are deleted
+     * @return Number of emergencies deleted
+     */
+    public int purgeAcknowledged(LocalDateTime before) {
+        int deleted = dbManager.purgeAcknowledgedEmergencies(before);
+        if (deleted > 0) {
+            eventBus.publish(EmergencyEvent.purged(eventBus.getOrigin(), before));
+        }
+        return deleted;
     }
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+/**
+ * The EmergencyEvent class describes one change to the emergency alerts:
+ * an alert was raised, some alerts were acknowledged, or acknowledged alerts
+ * were purged. Dashboards apply events to the alerts they already show
+ * instead of reloading the whole list.
+ *
+ * Events are published on an EmergencyEventBus and relayed between running
+ * applications by an EmergencyEventRelay, which sends them as one line of
+ * text each (see {@link #encode()}).
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class EmergencyEvent {
+
+    /**
+     * What happened.
+     */
+    public enum Kind {
+        RAISED,        // A new alert was saved
+        ACKNOWLEDGED,  // Alerts were marked as acknowledged
+        PURGED         // Acknowledged alerts raised before a point in time were deleted
+    }
+
+    private final Kind kind;
+    private final String origin;
+    private final EmergencyAlert.Emergency emergency;
+    private final List<Long> ids;
+    private final LocalDateTime before;
+
+    private EmergencyEvent(Kind kind, String origin, EmergencyAlert.Emergency emergency, List<Long> ids,
+                           LocalDateTime before) {
+        this.kind = kind;
+        this.origin = origin;
+        this.emergency = emergency;
+        this.ids = ids;
+        this.before = before;
+    }
+
+    static EmergencyEvent raised(String origin, EmergencyAlert.Emergency emergency) {
+        return new EmergencyEvent(Kind.RAISED, origin, emergency,
+                                  Collections.singletonList(emergency.getId()), null);
+    }
+
+    static EmergencyEvent acknowledged(String origin, List<Long> ids) {
+        return new EmergencyEvent(Kind.ACKNOWLEDGED, origin, null, Collections.unmodifiableList(ids), null);
+    }
+
+    static EmergencyEvent purged(String origin, LocalDateTime before) {
+        return new EmergencyEvent(Kind.PURGED, origin, null, Collections.emptyList(), before);
+    }
+
+    // ========== GETTER METHODS ==========
+
+    public Kind getKind() { return kind; }
+    /** @return ID of the bus the event was first published on */
+    public String getOrigin() { return origin; }
+    /** @return The raised alert, or null for other kinds */
+    public EmergencyAlert.Emergency getEmergency() { return emergency; }
+    /** @return IDs of the raised or acknowledged alerts; empty for PURGED */
+    public List<Long> getIds() { return ids; }
+    /** @return Cut-off time of a purge, or null for other kinds */
+    public LocalDateTime getBefore() { return before; }
+
+    // ===================== WIRE FORMAT =====================
+
+    /**
+     * Encodes the event as a single line: kind, origin and payload separated
+     * by spaces. A raised alert is sent by ID only; receivers load it from
+     * the database.
+     *
+     * @return The encoded event, without a line terminator
+     */
+    String encode() {
+        String payload;
+        if (kind == Kind.PURGED) {
+            payload = before.toString();
+        } else {
+            StringBuilder sb = new StringBuilder();
+            for (Long id : ids) {
+                if (sb.length() > 0) {
+                    sb.append(',');
+                }
+                sb.append(id);
+            }
+            payload = sb.toString();
+        }
+        return kind + " " + origin + " " + payload;
+    }
+
+    /**
+     * Decodes a line written by {@link #encode()}. For RAISED events only the
+     * ID is known; the caller loads the alert and calls {@link #withEmergency}.
+     *
+     * @param line The encoded event
+     * @return The event
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    static EmergencyEvent decode(String line) {
+        String[] parts = line.trim().split(" ", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed emergency event: " + line);
+        }
+        try {
+            Kind kind = Kind.valueOf(parts[0]);
+            if (kind == Kind.PURGED) {
+                return purged(parts[1], LocalDateTime.parse(parts[2]));
+            }
+            List<Long> ids = new ArrayList<>();
+            for (String id : parts[2].split(",")) {
+                ids.add(Long.parseLong(id));
+            }
+            return new EmergencyEvent(kind, parts[1], null, Collections.unmodifiableList(ids), null);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed emergency event: " + line, e);
+        }
+    }
+
+    /**
+     * @return A copy of this RAISED event carrying the alert loaded by the receiver
+     */
+    EmergencyEvent withEmergency(EmergencyAlert.Emergency emergency) {
+        return new EmergencyEvent(kind, origin, emergency, ids, before);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * The EmergencyEventBus delivers emergency events to every subscriber in
+ * this application as soon as they are published. EmergencyAlert publishes
+ * an event whenever an alert is raised, acknowledged or purged, and the
+ * doctor dashboards subscribe to keep their alert lists current without
+ * polling the database.
+ *
+ * Listeners run on the publishing thread and must return quickly; Swing
+ * listeners hand the event to the EDT. Each bus has a random origin ID so an
+ * EmergencyEventRelay can tell local events from ones it received.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+public class EmergencyEventBus {
+
+    private final String origin = UUID.randomUUID().toString();
+    private final List<Consumer<EmergencyEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @return ID stamped on events first published on this bus
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Registers a listener for every event published from now on.
+     *
+     * @param listener Called on the publishing thread
+     */
+    public void subscribe(Consumer<EmergencyEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener registered with {@link #subscribe}.
+     *
+     * @param listener The listener to remove
+     */
+    public void unsubscribe(Consumer<EmergencyEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Delivers an event to every listener. A failing listener does not stop the others.
+     *
+     * @param event The event to deliver
+     */
+    public void publish(EmergencyEvent event) {
+        for (Consumer<EmergencyEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                System.err.println("Emergency event listener failed for " + event + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * The EmergencyEventRelay connects the EmergencyEventBus of every application
+ * running on this machine - doctor consoles and the headless vitals ingestion
+ * service - so an alert raised or acknowledged in one shows up in all the
+ * others within milliseconds.
+ *
+ * The first relay to start binds a localhost port and becomes the hub; later
+ * relays connect to it. Every event first published on the local bus is sent
+ * to the hub as one line of text, and the hub passes each line on to all
+ * other connected relays. Received events are published on the local bus; a
+ * raised alert travels by ID and is loaded from the database by primary key.
+ * If the hub goes away, the remaining relays reconnect and one of them takes
+ * over. Events sent while no hub is reachable are not delivered; the
+ * dashboards' Refresh button still reloads from the database.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.service;
+
+import com.remotehealth.app.model.DatabaseManager;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+public class EmergencyEventRelay implements AutoCloseable {
+
+    // Defaults, overridable with -Dalerts.* system properties
+    public static final int DEFAULT_PORT = 9096;
+    private static final long RECONNECT_DELAY_MS = 2000;
+
+    /**
+     * A connection to another relay; writes from several threads are serialized.
+     */
+    private static final class Peer {
+        final Socket socket;
+        final BufferedWriter out;
+
+        Peer(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        synchronized void send(String line) {
+            try {
+                out.write(line);
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                close();  // The reader notices and drops the peer
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private final EmergencyEventBus bus;
+    private final DatabaseManager dbManager;
+    private final int port;
+    private final List<Peer> peers = new CopyOnWriteArrayList<>();
+    private final Consumer<EmergencyEvent> forwarder = this::forward;
+
+    private volatile boolean running;
+    private volatile ServerSocket server;
+    private Thread supervisor;
+
+    /**
+     * Constructs a relay on the port from the alerts.relayPort system property.
+     *
+     * @param bus The local bus to connect
+     * @param dbManager Loads alerts raised by other applications
+     */
+    public EmergencyEventRelay(EmergencyEventBus bus, DatabaseManager dbManager) {
+        this(bus, dbManager, Integer.getInteger("alerts.relayPort", DEFAULT_PORT));
+    }
+
+    /**
+     * Constructs a relay.
+     *
+     * @param bus The local bus to connect
+     * @param dbManager Loads alerts raised by other applications
+     * @param port The localhost port shared by all relays
+     */
+    public EmergencyEventRelay(EmergencyEventBus bus, DatabaseManager dbManager, int port) {
+        this.bus = bus;
+        this.dbManager = dbManager;
+        this.port = port;
+    }
+
+    // ===================== LIFECYCLE =====================
+
+    /**
+     * Starts relaying in the background, as hub or as client of an existing hub.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        bus.subscribe(forwarder);
+        supervisor = new Thread(this::supervise, "emergency-relay");
+        supervisor.setDaemon(true);
+        supervisor.start();
+    }
+
+    /**
+     * Stops relaying and closes every connection.
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        bus.unsubscribe(forwarder);
+        ServerSocket s = server;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException ignored) {
+            }
+        }
+        for (Peer peer : peers) {
+            peer.close();
+        }
+        supervisor.interrupt();
+    }
+
+    /**
+     * @return true if this relay is currently the hub
+     */
+    public boolean isHub() {
+        return server != null;
+    }
+
+    private void supervise() {
+        while (running) {
+            try (ServerSocket s = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+                server = s;
+                System.out.println("Emergency relay listening on localhost:" + port);
+                runHub(s);
+            } catch (BindException e) {
+                // Another application is the hub
+                runClient();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Emergency relay failed: " + e.getMessage());
+                }
+            } finally {
+                server = null;
+            }
+            if (!running) {
+                return;
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void runHub(ServerSocket s) throws IOException {
+        while (running) {
+            Peer peer = new Peer(s.accept());
+            peers.add(peer);
+            Thread.ofVirtual().name("emergency-relay-peer").start(() -> read(peer, true));
+        }
+    }
+
+    private void runClient() {
+        Peer hub;
+        try {
+            hub = new Peer(new Socket(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException e) {
+            return;  // The hub is just going away; retry after the delay
+        }
+        peers.add(hub);
+        read(hub, false);
+    }
+
+    // ===================== EVENTS =====================
+
+    private void read(Peer peer, boolean isHub) {
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(peer.socket.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (isHub) {
+                    for (Peer other : peers) {
+                        if (other != peer) {
+                            other.send(line);
+                        }
+                    }
+                }
+                receive(line);
+            }
+        } catch (IOException e) {
+            // Connection closed
+        } finally {
+            peers.remove(peer);
+            peer.close();
+        }
+    }
+
+    private void receive(String line) {
+        EmergencyEvent event;
+        try {
+            event = EmergencyEvent.decode(line);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        if (event.getOrigin().equals(bus.getOrigin())) {
+            return;
+        }
+        if (event.getKind() == EmergencyEvent.Kind.RAISED) {
+            EmergencyAlert.Emergency emergency = dbManager.getEmergencyById(event.getIds().get(0));
+            if (emergency == null) {
+                return;  // Already purged
+            }
+            event = event.withEmergency(emergency);
+        }
+        bus.publish(event);
+    }
+
+    private void forward(EmergencyEvent event) {
+        // Only events raised here; received ones were already passed on by the hub
+        if (!event.getOrigin().equals(bus.getOrigin())) {
+            return;
+        }
+        String line = event.encode();
+        for (Peer peer : peers) {
+            peer.send(line);
+        }
+    }
+}
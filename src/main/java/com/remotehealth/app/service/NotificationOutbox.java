@@ -0,0 +1,203 @@
+/**
+ * The NotificationOutbox delivers email in the background. Senders only
+ * write the message to the notification_outbox table, which takes one
+ * insert, and return; a dispatcher thread claims due messages and hands
+ * them to a few worker threads that send them over the pooled SMTP
+ * connections.
+ *
+ * Every message carries an idempotency key, and queuing a key that is
+ * already in the outbox does nothing, so retried or repeated requests
+ * cannot send the same notification twice. A failed delivery is retried
+ * with exponential backoff and jitter until MAX_ATTEMPTS is reached, after
+ * which the message is marked FAILED. Because the queue lives in the
+ * database, messages survive a restart, and claims are leased so a message
+ * whose worker died is picked up again.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.service;
+
+import com.remotehealth.app.model.DatabaseManager;
+import com.remotehealth.app.model.OutboxMessage;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NotificationOutbox {
+
+    /** Delivery attempts before a message is marked FAILED */
+    static final int MAX_ATTEMPTS = 8;
+    /** Delay before the first retry; doubles with every further attempt */
+    static final int BASE_BACKOFF_SECONDS = 5;
+    static final int MAX_BACKOFF_SECONDS = 3600;
+
+    private static final int WORKERS = 4;               // One per pooled SMTP connection
+    private static final int CLAIM_BATCH = 50;
+    private static final int LEASE_SECONDS = 300;       // Longer than any send with its timeouts
+    private static final long POLL_INTERVAL_MS = 5000;  // Also woken up on every enqueue
+    private static final int MAX_KEY_LENGTH = 191;
+
+    private final DatabaseManager dbManager;
+    private final EmailNotification email;
+    private final Object wakeUp = new Object();
+    private ExecutorService workers;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    /**
+     * @param dbManager Database access manager
+     * @param email Delivers the messages over SMTP
+     */
+    public NotificationOutbox(DatabaseManager dbManager, EmailNotification email) {
+        this.dbManager = dbManager;
+        this.email = email;
+    }
+
+    /**
+     * Starts delivering queued messages, including any left from a previous run.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        AtomicInteger count = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(WORKERS, r -> {
+            Thread thread = new Thread(r, "outbox-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher = new Thread(this::dispatch, "outbox-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Stops delivering. Messages still queued are delivered after the next start.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        dispatcher.interrupt();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queues a message for delivery.
+     *
+     * @param idempotencyKey Identifies the notification; a key that was already queued is ignored
+     * @param to Recipient email address
+     * @param subject Email subject
+     * @param body Email content
+     * @return true if queued, false if the key was already queued or sent
+     */
+    public boolean enqueue(String idempotencyKey, String to, String subject, String body) {
+        if (to == null || to.trim().isEmpty()) {
+            throw new IllegalArgumentException("Recipient email cannot be null or empty");
+        }
+        boolean queued = dbManager.enqueueNotification(normalizeKey(idempotencyKey), to, subject, body);
+        if (queued) {
+            synchronized (wakeUp) {
+                wakeUp.notifyAll();
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Looks up the delivery state of a queued message.
+     *
+     * @param idempotencyKey The key the message was queued with
+     * @return The message, or null if the key was never queued
+     */
+    public OutboxMessage getStatus(String idempotencyKey) {
+        return dbManager.getNotification(normalizeKey(idempotencyKey));
+    }
+
+    /**
+     * @return Number of messages per delivery state
+     */
+    public Map<OutboxMessage.Status, Integer> getCounts() {
+        return dbManager.getNotificationCounts();
+    }
+
+    // ===================== DELIVERY =====================
+
+    private void dispatch() {
+        while (running) {
+            try {
+                List<OutboxMessage> claimed =
+                    dbManager.claimDueNotifications(UUID.randomUUID().toString(), CLAIM_BATCH, LEASE_SECONDS);
+                if (claimed.isEmpty()) {
+                    synchronized (wakeUp) {
+                        wakeUp.wait(POLL_INTERVAL_MS);
+                    }
+                    continue;
+                }
+                List<Callable<Void>> deliveries = new ArrayList<>(claimed.size());
+                for (OutboxMessage message : claimed) {
+                    deliveries.add(() -> {
+                        deliver(message);
+                        return null;
+                    });
+                }
+                // Finish this batch before claiming more, so claims don't outrun the workers
+                workers.invokeAll(deliveries);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("Notification outbox dispatch failed: " + e.getMessage());
+                try {
+                    Thread.sleep(POLL_INTERVAL_MS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deliver(OutboxMessage message) {
+        try {
+            email.deliver(message.getRecipient(), message.getSubject(), message.getBody());
+        } catch (Exception e) {
+            int attempt = message.getAttempts() + 1;
+            int retryIn = attempt >= MAX_ATTEMPTS ? -1 : backoffSeconds(attempt);
+            System.err.println("Delivery of " + message.getIdempotencyKey() + " failed (attempt " + attempt + "): " +
+                               e.getMessage());
+            dbManager.markNotificationFailed(message.getId(), retryIn, e.getMessage());
+            return;
+        }
+        dbManager.markNotificationSent(message.getId());
+    }
+
+    /**
+     * Exponential backoff with "equal jitter": half the delay is fixed, the
+     * other half random, so retries after a shared outage spread out.
+     *
+     * @param attempt The attempt that just failed, from 1
+     * @return Seconds to wait before the next attempt
+     */
+    static int backoffSeconds(int attempt) {
+        int delay = BASE_BACKOFF_SECONDS << Math.min(attempt - 1, 20);
+        delay = Math.min(delay, MAX_BACKOFF_SECONDS);
+        return delay / 2 + ThreadLocalRandom.current().nextInt(delay / 2 + 1);
+    }
+
+    private static String normalizeKey(String key) {
+        if (key.length() <= MAX_KEY_LENGTH) {
+            return key;
+        }
+        // Long keys (e.g. listing many appointments) are replaced by a stable hash
+        return "hash:" + UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
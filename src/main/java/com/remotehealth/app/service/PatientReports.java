@@ -1,78 +1,300 @@
-
+/**
+ * The PatientReports class writes a patient's health report as a multi-page
+ * PDF. The report opens with summary statistics and a trend chart of the
+ * whole vital sign history, followed by the prescriptions and a table with
+ * one row per month of readings.
+ *
+ * Readings are streamed from the database in batches and folded into running
+ * statistics, the current month's row and the bounded ReportTrendChart; no
+ * batch is kept after it has been processed. Month rows are written to pages
+ * as each month completes, and the summary pages are inserted in front of
+ * them at the end. Page content beyond a fixed amount of memory is buffered
+ * in a temporary file, so memory stays flat for patients with years of data.
+ *
+ * @author
+ * @version 1.0
+ */
 package com.remotehealth.app.service;
 
 import com.remotehealth.app.model.DatabaseManager;
-import org.apache.pdfbox.pdmodel.*;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import java.io.IOException;
-import java.util.List;
 import com.remotehealth.app.model.Prescription;
-import com.remotehealth.app.model.VitalSign;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
+import com.remotehealth.app.model.VitalsSeries;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 
 public class PatientReports {
 
-    public static void generateReport(String patientId, String filePath, DatabaseManager dbManager) {
-        try (
-            PDDocument document = new PDDocument();
-        ) {
-            PDPage page = new PDPage(PDRectangle.A4);
-            document.addPage(page);
-
-            PDPageContentStream content = new PDPageContentStream(document, page);
-            content.setFont(PDType1Font.HELVETICA_BOLD, 18);
-            content.beginText();
-            content.newLineAtOffset(50, 750);
-            content.showText("Patient Report for ID: " + patientId);
-            content.endText();
-
-            content.setFont(PDType1Font.HELVETICA, 12);
-            float yPosition = 720;
-
-            
-
-            List<VitalSign> vitals = dbManager.getVitalsForPatient(patientId);
-            content.beginText();
-            content.newLineAtOffset(50, yPosition);
-            content.showText("Vital Signs:");
-            content.endText();
-            yPosition -= 20;
-
-            for (VitalSign v : vitals) {
-                content.beginText();
-                content.newLineAtOffset(50, yPosition);
-                content.showText(v.toString());
-                content.endText();
-                yPosition -= 15;
+    /** Readings fetched from the database per batch */
+    private static final int BATCH_SIZE = 1000;
+    /** Points per series in the trend chart */
+    private static final int TREND_POINTS = 240;
+    /** Page content kept in memory before buffering to a temporary file */
+    private static final long MAX_MAIN_MEMORY_BYTES = 4L * 1024 * 1024;
+    /** Chart height on the page in points; rendered at twice the resolution */
+    private static final float CHART_HEIGHT = 420;
+
+    private static final DateTimeFormatter READING_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("MMM yyyy");
+    private static final float[] SUMMARY_COLUMNS = {0, 120, 190, 260, 330, 400};
+    private static final float[] MONTH_COLUMNS = {0, 70, 130, 230, 310, 400};
+
+    /**
+     * Running statistics over a stream of readings.
+     */
+    private static final class Stats {
+        long count;
+        int hrMin = Integer.MAX_VALUE, hrMax = Integer.MIN_VALUE;
+        long hrSum;
+        int oxMin = Integer.MAX_VALUE, oxMax = Integer.MIN_VALUE;
+        long oxSum;
+        double tempMin = Double.MAX_VALUE, tempMax = -Double.MAX_VALUE, tempSum;
+        long bpCount;
+        int sysMin = Integer.MAX_VALUE, sysMax = Integer.MIN_VALUE;
+        long sysSum;
+        int diaMin = Integer.MAX_VALUE, diaMax = Integer.MIN_VALUE;
+        long diaSum;
+
+        void add(VitalsSeries v, int i) {
+            count++;
+            hrMin = Math.min(hrMin, v.getHeartRate(i));
+            hrMax = Math.max(hrMax, v.getHeartRate(i));
+            hrSum += v.getHeartRate(i);
+            oxMin = Math.min(oxMin, v.getOxygenLevel(i));
+            oxMax = Math.max(oxMax, v.getOxygenLevel(i));
+            oxSum += v.getOxygenLevel(i);
+            tempMin = Math.min(tempMin, v.getTemperature(i));
+            tempMax = Math.max(tempMax, v.getTemperature(i));
+            tempSum += v.getTemperature(i);
+            if (v.hasBloodPressure(i)) {
+                bpCount++;
+                sysMin = Math.min(sysMin, v.getSystolic(i));
+                sysMax = Math.max(sysMax, v.getSystolic(i));
+                sysSum += v.getSystolic(i);
+                diaMin = Math.min(diaMin, v.getDiastolic(i));
+                diaMax = Math.max(diaMax, v.getDiastolic(i));
+                diaSum += v.getDiastolic(i);
+            }
+        }
+    }
+
+    /**
+     * State carried across batches while the readings stream in.
+     */
+    private static final class VitalsPass {
+        final ReportPageWriter monthPages;
+        final Stats overall = new Stats();
+        final ReportTrendChart trend = new ReportTrendChart(TREND_POINTS);
+        Stats month;
+        YearMonth currentMonth;
+        long monthEnd = Long.MIN_VALUE;  // Epoch millis where the current month ends
+        long firstTime, lastTime;
+        int lastHeartRate, lastOxygen;
+        double lastTemperature;
+        int lastSystolic, lastDiastolic;  // Latest recorded blood pressure, 0 if none
+
+        VitalsPass(ReportPageWriter monthPages) {
+            this.monthPages = monthPages;
+        }
+
+        void accept(VitalsSeries batch) throws IOException {
+            for (int i = 0; i < batch.size(); i++) {
+                overall.add(batch, i);
+                long time = batch.getTime(i);
+                if (time == 0) {
+                    continue;  // No timestamp; counted in the totals only
+                }
+                if (time >= monthEnd) {
+                    finishMonth();
+                    startMonth(time);
+                }
+                month.add(batch, i);
+                trend.add(batch, i);
+                if (firstTime == 0) {
+                    firstTime = time;
+                }
+                lastTime = time;
+                lastHeartRate = batch.getHeartRate(i);
+                lastOxygen = batch.getOxygenLevel(i);
+                lastTemperature = batch.getTemperature(i);
+                if (batch.hasBloodPressure(i)) {
+                    lastSystolic = batch.getSystolic(i);
+                    lastDiastolic = batch.getDiastolic(i);
+                }
+            }
+        }
+
+        private void startMonth(long time) {
+            currentMonth = YearMonth.from(toDateTime(time));
+            monthEnd = currentMonth.plusMonths(1).atDay(1).atStartOfDay(ZoneId.systemDefault())
+                                   .toInstant().toEpochMilli();
+            month = new Stats();
+        }
+
+        void finishMonth() throws IOException {
+            if (month == null) {
+                return;
+            }
+            if (monthPages.isEmpty()) {
+                monthPages.heading("Monthly Summary");
+                monthPages.startTable(MONTH_COLUMNS, "Month", "Readings", "Heart rate (bpm)",
+                                      "SpO2 (%)", "Blood pressure", "Temperature (°C)");
+            }
+            monthPages.row(currentMonth.format(MONTH), String.valueOf(month.count),
+                           range(month.hrSum, month.count, month.hrMin, month.hrMax),
+                           range(month.oxSum, month.count, month.oxMin, month.oxMax),
+                           month.bpCount == 0 ? "n/a"
+                               : Math.round((double) month.sysSum / month.bpCount) + "/" +
+                                 Math.round((double) month.diaSum / month.bpCount),
+                           String.format("%.1f (%.1f-%.1f)", month.tempSum / month.count,
+                                         month.tempMin, month.tempMax));
+            month = null;
+        }
+    }
+
+    /**
+     * Generates the report for a patient and saves it.
+     *
+     * @param patientId The ID of the patient
+     * @param filePath Where to save the PDF
+     * @param dbManager Database access manager
+     * @throws IOException If the report cannot be written
+     */
+    public static void generateReport(String patientId, String filePath, DatabaseManager dbManager)
+            throws IOException {
+        try (PDDocument document = new PDDocument(MemoryUsageSetting.setupMixed(MAX_MAIN_MEMORY_BYTES))) {
+            // Month rows are written while the readings stream in
+            VitalsPass pass;
+            try (ReportPageWriter monthPages = new ReportPageWriter(document)) {
+                pass = new VitalsPass(monthPages);
+                try {
+                    dbManager.streamVitalsSeries(patientId, BATCH_SIZE, batch -> {
+                        try {
+                            pass.accept(batch);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    pass.finishMonth();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
             }
 
-            List<Prescription> prescriptions = dbManager.getPrescriptionsForPatient(patientId);
-            content.beginText();
-            content.newLineAtOffset(50, yPosition - 10);
-            content.showText("Prescriptions:");
-            content.endText();
-            yPosition -= 30;
-
-            for (Prescription p : prescriptions) {
-                content.beginText();
-                content.newLineAtOffset(50, yPosition);
-                content.showText(p.toString());
-                content.endText();
-                yPosition -= 15;
+            // The summary goes in front of the month pages
+            PDPage firstMonthPage = document.getNumberOfPages() > 0 ? document.getPage(0) : null;
+            try (ReportPageWriter summary = new ReportPageWriter(document, firstMonthPage)) {
+                summary.title("Patient Report for ID: " + patientId);
+                summary.paragraph("Generated " + LocalDateTime.now().format(READING_TIME));
+                writeSummary(summary, document, pass);
+                writePrescriptions(summary, dbManager.getPrescriptionsForPatient(patientId));
             }
 
-            content.close();
+            addFooters(document, patientId);
             document.save(filePath);
-            System.out.println("Report saved to " + filePath);
+            System.out.println("Report saved to " + filePath + " (" + document.getNumberOfPages() + " pages, " +
+                               pass.overall.count + " readings)");
+        }
+    }
 
-       } catch (IOException e) {
-    e.printStackTrace();
-}
+    // ===================== SECTIONS =====================
+
+    private static void writeSummary(ReportPageWriter out, PDDocument document, VitalsPass pass) throws IOException {
+        Stats s = pass.overall;
+        out.heading("Vital Signs Summary");
+        if (s.count == 0) {
+            out.paragraph("No vital signs recorded.");
+            return;
+        }
+        if (pass.firstTime != 0) {
+            out.paragraph(s.count + " readings from " + toDateTime(pass.firstTime).format(READING_TIME) +
+                          " to " + toDateTime(pass.lastTime).format(READING_TIME));
+        } else {
+            out.paragraph(s.count + " readings");
+        }
+        out.startTable(SUMMARY_COLUMNS, "Metric", "Readings", "Average", "Minimum", "Maximum", "Latest");
+        out.row("Heart rate (bpm)", String.valueOf(s.count), average(s.hrSum, s.count),
+                String.valueOf(s.hrMin), String.valueOf(s.hrMax), String.valueOf(pass.lastHeartRate));
+        out.row("SpO2 (%)", String.valueOf(s.count), average(s.oxSum, s.count),
+                String.valueOf(s.oxMin), String.valueOf(s.oxMax), String.valueOf(pass.lastOxygen));
+        if (s.bpCount > 0) {
+            out.row("Systolic (mmHg)", String.valueOf(s.bpCount), average(s.sysSum, s.bpCount),
+                    String.valueOf(s.sysMin), String.valueOf(s.sysMax), latest(pass.lastSystolic));
+            out.row("Diastolic (mmHg)", String.valueOf(s.bpCount), average(s.diaSum, s.bpCount),
+                    String.valueOf(s.diaMin), String.valueOf(s.diaMax), latest(pass.lastDiastolic));
+        }
+        out.row("Temperature (°C)", String.valueOf(s.count), String.format("%.1f", s.tempSum / s.count),
+                String.format("%.1f", s.tempMin), String.format("%.1f", s.tempMax),
+                String.format("%.1f", pass.lastTemperature));
+        out.endTable();
+
+        if (!pass.trend.isEmpty()) {
+            out.heading("Trend");
+            int width = Math.round(ReportPageWriter.CONTENT_WIDTH * 2);
+            int height = Math.round(CHART_HEIGHT * 2);
+            PDImageXObject chart = LosslessFactory.createFromImage(document, pass.trend.render(width, height));
+            out.image(chart, CHART_HEIGHT);
+        }
+    }
+
+    private static void writePrescriptions(ReportPageWriter out, List<Prescription> prescriptions) throws IOException {
+        out.heading("Prescriptions");
+        if (prescriptions.isEmpty()) {
+            out.paragraph("No prescriptions.");
+            return;
+        }
+        for (Prescription p : prescriptions) {
+            out.paragraph("- " + p);
+        }
+    }
+
+    /**
+     * Stamps every page with the patient ID and its page number, once the page count is known.
+     */
+    private static void addFooters(PDDocument document, String patientId) throws IOException {
+        int pages = document.getNumberOfPages();
+        for (int i = 0; i < pages; i++) {
+            try (PDPageContentStream footer = new PDPageContentStream(document, document.getPage(i),
+                    PDPageContentStream.AppendMode.APPEND, true, true)) {
+                footer.beginText();
+                footer.setFont(ReportPageWriter.REGULAR, 8);
+                footer.newLineAtOffset(ReportPageWriter.MARGIN, ReportPageWriter.MARGIN - 10);
+                footer.showText(ReportPageWriter.sanitize("Patient " + patientId + " - Page " + (i + 1) +
+                                                          " of " + pages));
+                footer.endText();
+            }
+        }
+    }
+
+    // ===================== FORMATTING =====================
+
+    private static String average(long sum, long count) {
+        return String.valueOf(Math.round((double) sum / count));
+    }
+
+    private static String latest(int value) {
+        return value == 0 ? "n/a" : String.valueOf(value);
+    }
+
+    /**
+     * Formats an average with its range, e.g. "72 (58-110)".
+     */
+    private static String range(long sum, long count, int min, int max) {
+        return average(sum, count) + " (" + min + "-" + max + ")";
+    }
 
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
     }
 }
@@ -0,0 +1,186 @@
+/**
+ * The ReminderScheduler fires appointment and medication reminders at their
+ * due time instead of waiting for someone to ask for them.
+ *
+ * Every planning pass looks only a short horizon ahead: it asks the database
+ * for approved appointments whose reminder falls due before the horizon ends
+ * and has not been sent, and schedules one task per appointment at its
+ * fire time. Medication reminders go out once a day at a fixed time, to the
+ * patients with prescriptions who have not had one since. Reminders that
+ * are due at once (the daily medication run, or appointment reminders that
+ * fell due while the application was down) go through a BulkReminderJob.
+ * Sent reminders are recorded as watermarks in the database, so a restart
+ * neither repeats them nor loses them.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.service;
+
+import com.remotehealth.app.model.Appointment;
+import com.remotehealth.app.model.DatabaseManager;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+final class ReminderScheduler {
+
+    /** How far ahead each planning pass schedules reminders */
+    static final Duration PLANNING_HORIZON = Duration.ofMinutes(30);
+    /** How long before an appointment its reminder is sent */
+    static final Duration APPOINTMENT_LEAD = Duration.ofHours(24);
+    /** Time of day medication reminders are sent */
+    static final LocalTime MEDICATION_TIME = LocalTime.of(9, 0);
+
+    static final String APPOINTMENT = "APPOINTMENT";
+    static final String MEDICATION = "MEDICATION";
+
+    private final ReminderService reminderService;
+    private final DatabaseManager dbManager;
+    private final BulkReminderJob bulkJob;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<Integer, ScheduledFuture<?>> appointmentTasks = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> medicationTask;
+    private LocalDate medicationSentFor;  // Day whose medication run has completed
+
+    ReminderScheduler(ReminderService reminderService, DatabaseManager dbManager) {
+        this.reminderService = reminderService;
+        this.dbManager = dbManager;
+        this.bulkJob = new BulkReminderJob(reminderService, dbManager);
+        this.executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "reminder-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Starts planning; the first pass runs immediately and catches up on missed reminders.
+     */
+    void start() {
+        executor.scheduleWithFixedDelay(this::plan, 0, PLANNING_HORIZON.toMinutes(), TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops planning and drops every scheduled reminder. Watermarks are kept.
+     */
+    void stop() {
+        executor.shutdownNow();
+        bulkJob.shutdown();
+    }
+
+    /**
+     * Reschedules an appointment's reminder after it was approved, rejected or moved.
+     *
+     * @param appointment The appointment as it is now stored
+     */
+    void appointmentChanged(Appointment appointment) {
+        executor.execute(() -> {
+            cancel(appointment.getId());
+            LocalDateTime now = LocalDateTime.now();
+            if ("Approved".equalsIgnoreCase(appointment.getStatus())
+                    && appointment.getDateTime().isAfter(now)
+                    && appointment.getDateTime().minus(APPOINTMENT_LEAD).isBefore(now.plus(PLANNING_HORIZON))) {
+                schedule(appointment, now);
+            }
+        });
+    }
+
+    // ===================== PLANNING =====================
+
+    private void plan() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime horizon = now.plus(PLANNING_HORIZON);
+            planAppointments(now, horizon);
+            planMedication(now, horizon);
+        } catch (RuntimeException e) {
+            // Keep the periodic pass alive; the next pass retries
+            System.err.println("Reminder planning failed: " + e.getMessage());
+        }
+    }
+
+    private void planAppointments(LocalDateTime now, LocalDateTime horizon) {
+        // Reminders fall due APPOINTMENT_LEAD before the appointment, so this covers every
+        // reminder due before the horizon, including ones missed while the application was down
+        long leadMinutes = APPOINTMENT_LEAD.toMinutes();
+        List<Appointment> dueNow = new ArrayList<>();
+        for (Appointment appt : dbManager.getAppointmentsDueForReminder(now, horizon.plus(APPOINTMENT_LEAD), leadMinutes)) {
+            if (appointmentTasks.containsKey(appt.getId())) {
+                continue;
+            }
+            if (appt.getDateTime().minus(APPOINTMENT_LEAD).isAfter(now)) {
+                schedule(appt, now);
+            } else {
+                dueNow.add(appt);
+            }
+        }
+        if (!dueNow.isEmpty()) {
+            int failed = bulkJob.sendAppointmentReminders(dueNow);
+            if (failed > 0) {
+                System.err.println("Appointment reminders failed for " + failed + " appointments, retrying next pass");
+            }
+        }
+    }
+
+    private void planMedication(LocalDateTime now, LocalDateTime horizon) {
+        LocalDate today = now.toLocalDate();
+        LocalDateTime slot = today.atTime(MEDICATION_TIME);
+        if (today.equals(medicationSentFor) || slot.isAfter(horizon)
+                || (medicationTask != null && !medicationTask.isDone())) {
+            return;
+        }
+        long delay = Math.max(0, Duration.between(now, slot).toMillis());
+        medicationTask = executor.schedule(() -> sendMedicationReminders(slot), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void schedule(Appointment appt, LocalDateTime now) {
+        LocalDateTime fireAt = appt.getDateTime().minus(APPOINTMENT_LEAD);
+        long delay = Math.max(0, Duration.between(now, fireAt).toMillis());
+        appointmentTasks.put(appt.getId(),
+                             executor.schedule(() -> sendAppointmentReminder(appt), delay, TimeUnit.MILLISECONDS));
+    }
+
+    private void cancel(int appointmentId) {
+        ScheduledFuture<?> task = appointmentTasks.remove(appointmentId);
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    // ===================== SENDING =====================
+
+    private void sendAppointmentReminder(Appointment appt) {
+        appointmentTasks.remove(appt.getId());
+        try {
+            if (reminderService.sendAppointmentReminder(appt)) {
+                dbManager.saveReminderWatermark(APPOINTMENT, String.valueOf(appt.getId()), LocalDateTime.now());
+            }
+            // Otherwise the watermark stays behind and the next planning pass retries
+        } catch (RuntimeException e) {
+            System.err.println("Failed to send reminder for appointment " + appt.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private void sendMedicationReminders(LocalDateTime slot) {
+        try {
+            int failed = bulkJob.sendMedicationReminders(slot);
+            if (failed == 0) {
+                medicationSentFor = slot.toLocalDate();
+            } else {
+                System.err.println("Medication reminders failed for " + failed + " patients, retrying next pass");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to send medication reminders: " + e.getMessage());
+        }
+    }
+}
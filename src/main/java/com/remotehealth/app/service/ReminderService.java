@@ -2,7 +2,8 @@
  * The ReminderService class handles automated reminders for appointments and medications
  * in the Remote Health Monitoring System. It coordinates with the EmailNotification
  * service to send timely reminders to patients about upcoming appointments and
- * medication schedules.
+ * medication schedules. Once started, a ReminderScheduler sends each reminder
+ * when it falls due and records it so it is never sent twice.
  * 
  * @author 
  * @version 1.0
@@ -20,9 +21,7 @@ public class ReminderService {
     private final EmailNotification emailService;
     private final AppointmentManager appointmentManager;
     private final DatabaseManager dbManager;
-    
-    // Configuration constants
-    private final int REMINDER_HOUR = 9; // Default reminder time (9 AM)
+    private ReminderScheduler scheduler;  // null until start()
 
     /**
      * Constructs a ReminderService with required dependencies.
@@ -37,30 +36,76 @@ public class ReminderService {
         this.dbManager = dbManager;
     }
 
+    // ========== SCHEDULING ==========
+
+    /**
+     * Starts sending reminders automatically in the background. Reminders that fell
+     * due while the application was not running are sent straight away.
+     */
+    public synchronized void start() {
+        if (scheduler == null) {
+            scheduler = new ReminderScheduler(this, dbManager);
+            scheduler.start();
+        }
+    }
+
+    /**
+     * Stops sending reminders automatically.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.stop();
+            scheduler = null;
+        }
+    }
+
     /**
-     * Sends appointment reminders to a patient for upcoming appointments.
-     * Filters appointments that are approved and scheduled for today or tomorrow.
+     * Updates the scheduled reminder for an appointment that was approved,
+     * rejected or rescheduled. Does nothing unless the service was started.
      * 
-     * @param patient The patient to send reminders to
+     * @param appointment The appointment as it is now stored
      */
-    public void sendAppointmentReminders(Patient patient) {
-        try {
-            List<Appointment> upcomingAppointments = appointmentManager
-                .findAppointmentsByPatientID(patient.getId())
-                .stream()
-                .filter(appt -> "APPROVED".equals(appt.getStatus()))
-                .filter(appt -> isTodayOrTomorrow(appt.getDateTime().toLocalDate()))
-                .collect(Collectors.toList());
+    public synchronized void appointmentChanged(Appointment appointment) {
+        if (scheduler != null) {
+            scheduler.appointmentChanged(appointment);
+        }
+    }
 
-            if (!upcomingAppointments.isEmpty()) {
-                String body = buildAppointmentReminderBody(patient, upcomingAppointments);
-                emailService.sendNotification(
-                    patient.getEmail(),
-                    "Upcoming Appointment Reminder\n" + body
-                );
+    // ========== SENDING ==========
+
+    /**
+     * Sends the reminder for one upcoming appointment.
+     * 
+     * @param appointment The appointment to remind the patient of
+     * @return true if the reminder was sent or queued
+     */
+    public boolean sendAppointmentReminder(Appointment appointment) {
+        return sendAppointmentReminders(appointment.getPatient(), Collections.singletonList(appointment));
+    }
+
+    /**
+     * Sends one reminder listing several of a patient's upcoming appointments.
+     * 
+     * @param patient The patient to remind
+     * @param appointments The patient's appointments to list
+     * @return true if the reminder was sent or queued
+     */
+    public boolean sendAppointmentReminders(Patient patient, List<Appointment> appointments) {
+        try {
+            String body = buildAppointmentReminderBody(patient, appointments);
+            StringBuilder key = new StringBuilder("appointment-reminder:").append(patient.getId());
+            for (Appointment appt : appointments) {
+                key.append(':').append(appt.getId()).append('@').append(appt.getDateTime());
             }
+            emailService.sendNotification(
+                key.toString(),
+                patient.getEmail(),
+                "Upcoming Appointment Reminder\n" + body
+            );
+            return true;
         } catch (Exception e) {
-            System.err.println("Error sending appointment reminders: " + e.getMessage());
+            System.err.println("Error sending appointment reminder: " + e.getMessage());
+            return false;
         }
     }
 
@@ -78,6 +123,7 @@ public class ReminderService {
                          "You will receive reminders as the appointment date approaches.";
 
             emailService.sendNotification(
+                "appointment-approved:" + appointment.getId() + ":" + appointment.getVersion(),
                 appointment.getPatient().getEmail(),
                 "Appointment Approved\n" + body
             );
@@ -87,41 +133,44 @@ public class ReminderService {
     }
 
     /**
-     * Sends medication reminders to a patient based on active prescriptions.
-     * Filters prescriptions that are active and due for reminder at configured hour.
+     * Sends a medication reminder to a patient listing their active prescriptions.
+     * 
+     * @param patient The patient to send reminders to
+     * @return true if the reminder was sent or there was nothing to remind of
+     */
+    public boolean sendPrescriptionReminders(Patient patient) {
+        return sendPrescriptionReminders(patient, dbManager.getPrescriptionsForPatient(patient.getId()));
+    }
+
+    /**
+     * Sends a medication reminder listing the active prescriptions among those given.
      * 
      * @param patient The patient to send reminders to
+     * @param prescriptions The patient's prescriptions, already loaded
+     * @return true if the reminder was sent or there was nothing to remind of
      */
-    public void sendPrescriptionReminders(Patient patient) {
+    public boolean sendPrescriptionReminders(Patient patient, List<Prescription> prescriptions) {
         try {
-            List<Prescription> activePrescriptions = dbManager.getPrescriptionsForPatient(patient.getId())
+            List<Prescription> activePrescriptions = prescriptions
                 .stream()
                 .filter(this::isPrescriptionActive)
-                .filter(this::isTimeForReminder)
                 .collect(Collectors.toList());
 
             if (!activePrescriptions.isEmpty()) {
                 String body = buildPrescriptionReminderBody(patient, activePrescriptions);
                 emailService.sendNotification(
+                    "medication-reminder:" + patient.getId() + ":" + LocalDate.now(),
                     patient.getEmail(),
                     "Medication Reminder\n" + body
                 );
             }
+            return true;
         } catch (Exception e) {
             System.err.println("Error sending prescription reminders: " + e.getMessage());
+            return false;
         }
     }
 
-    /**
-     * Sends all automatic reminders (both appointments and medications) to a patient.
-     * 
-     * @param patient The patient to send reminders to
-     */
-    public void sendAllAutomaticReminders(Patient patient) {
-        sendPrescriptionReminders(patient);
-        sendAppointmentReminders(patient);
-    }
-
     // ========== PRIVATE HELPER METHODS ==========
 
     /**
@@ -181,17 +230,6 @@ public class ReminderService {
         return dateTime.format(DateTimeFormatter.ofPattern("EEEE, MMMM d 'at' h:mm a"));
     }
 
-    /**
-     * Checks if a date is today or tomorrow.
-     * 
-     * @param date The date to check
-     * @return true if date is today or tomorrow
-     */
-    private boolean isTodayOrTomorrow(LocalDate date) {
-        LocalDate today = LocalDate.now();
-        return date.equals(today) || date.equals(today.plusDays(1));
-    }
-
     /**
      * Checks if a prescription is currently active.
      * Currently returns true for all prescriptions (placeholder implementation).
@@ -202,14 +240,4 @@ public class ReminderService {
     private boolean isPrescriptionActive(Prescription p) {
         return true;
     }
-
-    /**
-     * Checks if it's time to send a reminder based on configured hour.
-     * 
-     * @param p The prescription to check
-     * @return true if current hour matches reminder hour
-     */
-    private boolean isTimeForReminder(Prescription p) {
-        return LocalTime.now().getHour() == REMINDER_HOUR;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,263 @@
+/**
+ * The ReportPageWriter lays out text, table rows and images on A4 pages of a
+ * PDF report, top to bottom, and starts a new page whenever the next element
+ * does not fit. Only the current page's content stream is open at a time.
+ * Tables can declare a header row that is repeated at the top of every page
+ * they continue on.
+ *
+ * New pages are appended to the document, or inserted before a given page so
+ * a section written last (such as a summary) can still come first.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+final class ReportPageWriter implements Closeable {
+
+    static final PDRectangle PAGE_SIZE = PDRectangle.A4;
+    static final float MARGIN = 50;
+    /** Space at the bottom of each page kept free for the footer */
+    static final float FOOTER_HEIGHT = 30;
+    static final float CONTENT_WIDTH = PAGE_SIZE.getWidth() - 2 * MARGIN;
+
+    static final PDFont REGULAR = PDType1Font.HELVETICA;
+    static final PDFont BOLD = PDType1Font.HELVETICA_BOLD;
+
+    private static final float TITLE_SIZE = 18;
+    private static final float HEADING_SIZE = 14;
+    private static final float TEXT_SIZE = 10;
+    private static final float LEADING = 14;
+
+    private final PDDocument document;
+    private final PDPage insertBefore;
+
+    private PDPageContentStream content;
+    private float y;
+    private float[] tableColumns;   // Header repeated on each page of the current table, or null
+    private String[] tableHeader;
+
+    /**
+     * Constructs a writer that appends its pages to the document.
+     *
+     * @param document The document to write to
+     */
+    ReportPageWriter(PDDocument document) {
+        this(document, null);
+    }
+
+    /**
+     * Constructs a writer.
+     *
+     * @param document The document to write to
+     * @param insertBefore Page the new pages go in front of, or null to append
+     */
+    ReportPageWriter(PDDocument document, PDPage insertBefore) {
+        this.document = document;
+        this.insertBefore = insertBefore;
+    }
+
+    // ===================== ELEMENTS =====================
+
+    /**
+     * Writes the report title.
+     */
+    void title(String text) throws IOException {
+        ensureSpace(TITLE_SIZE + LEADING);
+        showText(BOLD, TITLE_SIZE, MARGIN, text);
+        y -= TITLE_SIZE + LEADING;
+    }
+
+    /**
+     * Writes a section heading, moving to a new page if the heading would be
+     * left at the bottom without any of its section.
+     */
+    void heading(String text) throws IOException {
+        ensureSpace(LEADING + HEADING_SIZE + 3 * LEADING);
+        y -= LEADING;
+        showText(BOLD, HEADING_SIZE, MARGIN, text);
+        y -= HEADING_SIZE + 6;
+    }
+
+    /**
+     * Writes a paragraph, wrapped at the page width.
+     */
+    void paragraph(String text) throws IOException {
+        String remaining = sanitize(text);
+        while (!remaining.isEmpty()) {
+            int end = fittingLength(remaining, CONTENT_WIDTH);
+            ensureSpace(LEADING);
+            showText(REGULAR, TEXT_SIZE, MARGIN, remaining.substring(0, end).trim());
+            y -= LEADING;
+            remaining = remaining.substring(end).trim();
+        }
+    }
+
+    /**
+     * Starts a table; its header row is written now and again on every page the table continues on.
+     *
+     * @param columns Left edge of each column, relative to the margin
+     * @param header Column titles
+     */
+    void startTable(float[] columns, String... header) throws IOException {
+        tableColumns = null;
+        ensureSpace(3 * LEADING);
+        writeRow(columns, header, true);
+        tableColumns = columns;
+        tableHeader = header;
+    }
+
+    /**
+     * Writes one row of the current table. Cells are cut to fit their column.
+     */
+    void row(String... cells) throws IOException {
+        ensureSpace(LEADING);
+        writeRow(tableColumns, cells, false);
+    }
+
+    /**
+     * Ends the current table, so later page breaks no longer repeat its header.
+     */
+    void endTable() {
+        tableColumns = null;
+        tableHeader = null;
+    }
+
+    /**
+     * Draws an image across the content width, on a new page if it does not fit.
+     *
+     * @param image The image to draw
+     * @param height Height on the page in points
+     */
+    void image(PDImageXObject image, float height) throws IOException {
+        ensureSpace(height + LEADING);
+        y -= height;
+        content.drawImage(image, MARGIN, y, CONTENT_WIDTH, height);
+        y -= LEADING;
+    }
+
+    /**
+     * @return true if nothing has been written yet
+     */
+    boolean isEmpty() {
+        return content == null;
+    }
+
+    /**
+     * Closes the content stream of the last page.
+     */
+    @Override
+    public void close() throws IOException {
+        if (content != null) {
+            content.close();
+        }
+    }
+
+    // ===================== LAYOUT =====================
+
+    private void ensureSpace(float height) throws IOException {
+        if (content != null && y - height >= MARGIN + FOOTER_HEIGHT) {
+            return;
+        }
+        if (content != null) {
+            content.close();
+        }
+        PDPage page = new PDPage(PAGE_SIZE);
+        if (insertBefore == null) {
+            document.addPage(page);
+        } else {
+            document.getPages().insertBefore(page, insertBefore);
+        }
+        content = new PDPageContentStream(document, page);
+        y = PAGE_SIZE.getHeight() - MARGIN;
+        if (tableColumns != null) {
+            writeRow(tableColumns, tableHeader, true);
+        }
+    }
+
+    private void writeRow(float[] columns, String[] cells, boolean header) throws IOException {
+        PDFont font = header ? BOLD : REGULAR;
+        for (int i = 0; i < cells.length && i < columns.length; i++) {
+            float width = (i + 1 < columns.length ? columns[i + 1] : CONTENT_WIDTH) - columns[i] - 4;
+            String cell = sanitize(cells[i]);
+            showText(font, TEXT_SIZE, MARGIN + columns[i], cell.substring(0, fittingLength(cell, width, font)));
+        }
+        if (header) {
+            // Rule under the header, below the descenders
+            float ruleY = y - TEXT_SIZE - 4;
+            content.moveTo(MARGIN, ruleY);
+            content.lineTo(MARGIN + CONTENT_WIDTH, ruleY);
+            content.stroke();
+        }
+        y -= LEADING + (header ? 4 : 0);
+    }
+
+    private void showText(PDFont font, float size, float x, String text) throws IOException {
+        content.beginText();
+        content.setFont(font, size);
+        content.newLineAtOffset(x, y - size);
+        content.showText(text);
+        content.endText();
+    }
+
+    // ===================== TEXT =====================
+
+    private static int fittingLength(String text, float width) throws IOException {
+        int end = fittingLength(text, width, REGULAR);
+        if (end < text.length()) {
+            // Break after the last space that fits, if there is one
+            int space = text.lastIndexOf(' ', end);
+            if (space > 0) {
+                end = space + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @return Length of the longest prefix of text that fits in width at the text size
+     */
+    private static int fittingLength(String text, float width, PDFont font) throws IOException {
+        float limit = width * 1000 / TEXT_SIZE;
+        float used = 0;
+        for (int i = 0; i < text.length(); i++) {
+            used += font.getWidth(text.charAt(i));
+            if (used > limit) {
+                return Math.max(i, 1);
+            }
+        }
+        return text.length();
+    }
+
+    /**
+     * Replaces characters the standard fonts cannot encode, so user-entered
+     * text cannot fail the report.
+     */
+    static String sanitize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\t' || c == '\n' || c == '\r') {
+                sb.append(' ');
+            } else if ((c >= 0x20 && c < 0x7f) || (c >= 0xa0 && c <= 0xff)) {
+                sb.append(c);
+            } else {
+                sb.append('?');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * The ReportTrendChart collects the readings streamed into a patient report
+ * and draws them as a trend chart: heart rate, SpO2, temperature and blood
+ * pressure sharing one time axis, like the dashboard's VitalsChart.
+ *
+ * Readings are averaged into a fixed number of equal time buckets. The
+ * buckets start one minute wide; when a reading falls past the last bucket,
+ * neighbouring buckets are merged in pairs and the width doubles. Memory is
+ * therefore bounded by the bucket count, not the length of the history, and
+ * the time range does not have to be known before the first reading.
+ * Readings must arrive oldest first.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.service;
+
+import com.remotehealth.app.model.VitalsSeries;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.CombinedDomainXYPlot;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+
+final class ReportTrendChart {
+
+    private static final long INITIAL_BUCKET_MS = 60_000;
+
+    // Fixed colours that stay readable when printed; the default palette includes pale yellow
+    private static final Color HEART_RATE_COLOR = new Color(200, 30, 30);
+    private static final Color OXYGEN_COLOR = new Color(30, 80, 200);
+    private static final Color TEMPERATURE_COLOR = new Color(20, 140, 60);
+    private static final Color SYSTOLIC_COLOR = new Color(220, 110, 0);
+    private static final Color DIASTOLIC_COLOR = new Color(120, 40, 160);
+
+    private final int bucketCount;
+    private final int[] counts;
+    private final long[] heartRateSums;
+    private final long[] oxygenSums;
+    private final double[] temperatureSums;
+    private final int[] bloodPressureCounts;
+    private final long[] systolicSums;
+    private final long[] diastolicSums;
+
+    private long start = -1;  // Time of the first reading; -1 until one is added
+    private long bucketMs = INITIAL_BUCKET_MS;
+
+    /**
+     * Constructs an empty chart.
+     *
+     * @param bucketCount Maximum points per series; rounded up to an even number
+     */
+    ReportTrendChart(int bucketCount) {
+        this.bucketCount = Math.max(2, bucketCount + (bucketCount & 1));
+        counts = new int[this.bucketCount];
+        heartRateSums = new long[this.bucketCount];
+        oxygenSums = new long[this.bucketCount];
+        temperatureSums = new double[this.bucketCount];
+        bloodPressureCounts = new int[this.bucketCount];
+        systolicSums = new long[this.bucketCount];
+        diastolicSums = new long[this.bucketCount];
+    }
+
+    /**
+     * Adds one reading of a series.
+     */
+    void add(VitalsSeries vitals, int i) {
+        long time = vitals.getTime(i);
+        if (start < 0) {
+            start = time;
+        }
+        long offset = Math.max(0, time - start);
+        while (offset / bucketMs >= bucketCount) {
+            coarsen();
+        }
+        int b = (int) (offset / bucketMs);
+        counts[b]++;
+        heartRateSums[b] += vitals.getHeartRate(i);
+        oxygenSums[b] += vitals.getOxygenLevel(i);
+        temperatureSums[b] += vitals.getTemperature(i);
+        if (vitals.hasBloodPressure(i)) {
+            bloodPressureCounts[b]++;
+            systolicSums[b] += vitals.getSystolic(i);
+            diastolicSums[b] += vitals.getDiastolic(i);
+        }
+    }
+
+    /**
+     * @return true if no reading has been added
+     */
+    boolean isEmpty() {
+        return start < 0;
+    }
+
+    /**
+     * Merges neighbouring buckets in pairs, doubling the bucket width.
+     */
+    private void coarsen() {
+        int half = bucketCount / 2;
+        for (int b = 0; b < half; b++) {
+            int l = 2 * b, r = 2 * b + 1;
+            counts[b] = counts[l] + counts[r];
+            heartRateSums[b] = heartRateSums[l] + heartRateSums[r];
+            oxygenSums[b] = oxygenSums[l] + oxygenSums[r];
+            temperatureSums[b] = temperatureSums[l] + temperatureSums[r];
+            bloodPressureCounts[b] = bloodPressureCounts[l] + bloodPressureCounts[r];
+            systolicSums[b] = systolicSums[l] + systolicSums[r];
+            diastolicSums[b] = diastolicSums[l] + diastolicSums[r];
+        }
+        for (int b = half; b < bucketCount; b++) {
+            counts[b] = 0;
+            heartRateSums[b] = 0;
+            oxygenSums[b] = 0;
+            temperatureSums[b] = 0;
+            bloodPressureCounts[b] = 0;
+            systolicSums[b] = 0;
+            diastolicSums[b] = 0;
+        }
+        bucketMs *= 2;
+    }
+
+    // ===================== RENDERING =====================
+
+    /**
+     * Draws the chart.
+     *
+     * @param width Image width in pixels
+     * @param height Image height in pixels
+     * @return The rendered chart
+     */
+    BufferedImage render(int width, int height) {
+        XYSeries heartRate = new XYSeries("Heart Rate", false, true);
+        XYSeries oxygen = new XYSeries("SpO2", false, true);
+        XYSeries temperature = new XYSeries("Temperature", false, true);
+        XYSeries systolic = new XYSeries("Systolic", false, true);
+        XYSeries diastolic = new XYSeries("Diastolic", false, true);
+        for (int b = 0; b < bucketCount; b++) {
+            if (counts[b] == 0) {
+                continue;
+            }
+            // Plot each average at the middle of its bucket
+            double time = start + b * bucketMs + bucketMs / 2.0;
+            heartRate.add(time, (double) heartRateSums[b] / counts[b], false);
+            oxygen.add(time, (double) oxygenSums[b] / counts[b], false);
+            temperature.add(time, temperatureSums[b] / counts[b], false);
+            if (bloodPressureCounts[b] > 0) {
+                systolic.add(time, (double) systolicSums[b] / bloodPressureCounts[b], false);
+                diastolic.add(time, (double) diastolicSums[b] / bloodPressureCounts[b], false);
+            }
+        }
+
+        CombinedDomainXYPlot plot = new CombinedDomainXYPlot(new DateAxis("Time"));
+        plot.setGap(8);
+        plot.add(createSubplot("Heart Rate (bpm)", new Color[] {HEART_RATE_COLOR}, heartRate));
+        plot.add(createSubplot("SpO2 (%)", new Color[] {OXYGEN_COLOR}, oxygen));
+        plot.add(createSubplot("Temp (°C)", new Color[] {TEMPERATURE_COLOR}, temperature));
+        plot.add(createSubplot("BP (mmHg)", new Color[] {SYSTOLIC_COLOR, DIASTOLIC_COLOR}, systolic, diastolic));
+
+        JFreeChart chart = new JFreeChart("Vital Signs Over Time", JFreeChart.DEFAULT_TITLE_FONT, plot, true);
+        return chart.createBufferedImage(width, height);
+    }
+
+    private static XYPlot createSubplot(String label, Color[] colors, XYSeries... series) {
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer(true, false);
+        for (int i = 0; i < series.length; i++) {
+            dataset.addSeries(series[i]);
+            renderer.setSeriesPaint(i, colors[i]);
+        }
+        NumberAxis valueAxis = new NumberAxis(label);
+        valueAxis.setAutoRangeIncludesZero(false);
+        return new XYPlot(dataset, null, valueAxis, renderer);
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * The SmtpTransportPool keeps a few authenticated SMTP connections open and
+ * shares them between senders. Opening a connection costs a TCP connect, a
+ * STARTTLS handshake and a login; reusing one costs nothing, so a batch of
+ * reminders pays for at most one handshake per connection instead of one
+ * per message. Up to a fixed number of connections are used in parallel.
+ *
+ * A connection that fails while sending is closed and replaced, and
+ * connections left idle long enough for the server to drop them are
+ * closed before reuse instead of failing on the next message.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.service;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+final class SmtpTransportPool {
+
+    private static final Logger logger = Logger.getLogger(SmtpTransportPool.class.getName());
+
+    /**
+     * An open connection and when it was last used.
+     */
+    private static final class PooledTransport {
+        final Transport transport;
+        long lastUsed;
+
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    private final Session session;
+    private final String username;
+    private final String password;
+    private final int maxConnections;
+    private final long maxIdleMillis;
+    private final Deque<PooledTransport> idle = new ArrayDeque<>();
+    private int open;  // Connections idle or lent out
+    private boolean closed;
+
+    /**
+     * @param session Mail session holding the SMTP host, port and TLS settings
+     * @param username SMTP login
+     * @param password SMTP password
+     * @param maxConnections Maximum number of connections open at once
+     * @param maxIdleMillis Idle time after which a connection is closed instead of reused
+     */
+    SmtpTransportPool(Session session, String username, String password, int maxConnections, long maxIdleMillis) {
+        this.session = session;
+        this.username = username;
+        this.password = password;
+        this.maxConnections = maxConnections;
+        this.maxIdleMillis = maxIdleMillis;
+    }
+
+    /**
+     * Sends a message over a pooled connection, opening one if none is free.
+     *
+     * @param message The message to send
+     * @throws MessagingException if connecting or sending fails; the connection is discarded
+     * @throws InterruptedException if interrupted while waiting for a free connection
+     */
+    void send(Message message) throws MessagingException, InterruptedException {
+        PooledTransport pooled = borrow();
+        try {
+            pooled.transport.sendMessage(message, message.getAllRecipients());
+        } catch (MessagingException | RuntimeException e) {
+            discard(pooled);
+            throw e;
+        }
+        release(pooled);
+    }
+
+    /**
+     * Closes every idle connection. Connections in use are closed when returned.
+     */
+    void close() {
+        List<Transport> toClose = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+            while (!idle.isEmpty()) {
+                open--;
+                toClose.add(idle.pop().transport);
+            }
+        }
+        closeQuietly(toClose);
+    }
+
+    private PooledTransport borrow() throws MessagingException, InterruptedException {
+        List<Transport> stale = new ArrayList<>();
+        try {
+            synchronized (this) {
+                while (true) {
+                    if (closed) {
+                        throw new IllegalStateException("SMTP transport pool is closed");
+                    }
+                    PooledTransport pooled = idle.pollFirst();  // Most recently used first
+                    if (pooled != null) {
+                        if (System.currentTimeMillis() - pooled.lastUsed > maxIdleMillis) {
+                            // The server has probably dropped it already
+                            open--;
+                            stale.add(pooled.transport);
+                            continue;
+                        }
+                        return pooled;
+                    }
+                    if (open < maxConnections) {
+                        open++;
+                        break;
+                    }
+                    wait();
+                }
+            }
+        } finally {
+            // QUIT can block on a dead connection, so it is sent without holding the lock
+            closeQuietly(stale);
+        }
+        // Connect outside the lock so other senders can use idle connections meanwhile
+        try {
+            Transport transport = session.getTransport("smtp");
+            transport.connect(username, password);
+            logger.fine("Opened SMTP connection");
+            return new PooledTransport(transport);
+        } catch (MessagingException | RuntimeException e) {
+            synchronized (this) {
+                open--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private void release(PooledTransport pooled) {
+        synchronized (this) {
+            if (!closed) {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.addFirst(pooled);
+                notifyAll();
+                return;
+            }
+            open--;
+        }
+        closeQuietly(List.of(pooled.transport));
+    }
+
+    private void discard(PooledTransport pooled) {
+        synchronized (this) {
+            open--;
+            notifyAll();
+        }
+        closeQuietly(List.of(pooled.transport));
+    }
+
+    // Callers must not hold the lock; open has already been decremented for each transport
+    private static void closeQuietly(List<Transport> transports) {
+        for (Transport transport : transports) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                logger.log(Level.FINE, "Error closing SMTP connection", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * The VitalRules class is a compiled set of threshold rules for vital signs.
+ * Each rule reads one metric from a reading and flags it when it falls outside
+ * its normal range. Rules are stored in flat arrays so evaluating a reading is
+ * a short loop of primitive comparisons with no allocation for normal readings.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.service;
+
+import com.remotehealth.app.model.VitalSign;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+public final class VitalRules {
+
+    /**
+     * Default clinical thresholds: heart rate 40-120 bpm, SpO2 at least 90%,
+     * temperature 35-40 °C. Blood pressure flags a hypertensive crisis
+     * (systolic 180+ or diastolic 120+) and hypotension (below 90/60);
+     * readings without a blood pressure are skipped.
+     */
+    public static final VitalRules DEFAULT = new VitalRules.Builder()
+        .range("HEART_RATE", "heart rate", VitalSign::getHeartRate, 40, 120, true)
+        .min("OXYGEN", "oxygen level", VitalSign::getOxygenLevel, 90, true)
+        .range("TEMPERATURE", "temperature", VitalSign::getTemperature, 35.0, 40.0, false)
+        .range("SYSTOLIC_PRESSURE", "systolic blood pressure", VitalRules::systolic, 90, 179, true)
+        .range("DIASTOLIC_PRESSURE", "diastolic blood pressure", VitalRules::diastolic, 60, 119, true)
+        .build();
+
+    private static double systolic(VitalSign vital) {
+        // NaN never compares out of range, so a missing reading can't fire
+        return vital.hasBloodPressure() ? vital.getSystolic() : Double.NaN;
+    }
+
+    private static double diastolic(VitalSign vital) {
+        return vital.hasBloodPressure() ? vital.getDiastolic() : Double.NaN;
+    }
+
+    /**
+     * A rule that fired for a reading.
+     */
+    public static final class Violation {
+        private final String type;
+        private final String label;
+        private final String message;
+
+        Violation(String type, String label, String message) {
+            this.type = type;
+            this.label = label;
+            this.message = message;
+        }
+
+        /** @return Emergency type, e.g. "HEART_RATE" */
+        public String getType() { return type; }
+        /** @return Human-readable metric name, e.g. "heart rate" */
+        public String getLabel() { return label; }
+        /** @return Alert message, e.g. "Critical heart rate: 130" */
+        public String getMessage() { return message; }
+    }
+
+    // One slot per rule; a bound of NaN means "no bound on this side"
+    private final String[] types;
+    private final String[] labels;
+    private final ToDoubleFunction<VitalSign>[] metrics;
+    private final double[] lows;
+    private final double[] highs;
+    private final boolean[] integral;
+
+    private VitalRules(Builder builder) {
+        int n = builder.types.size();
+        this.types = builder.types.toArray(new String[n]);
+        this.labels = builder.labels.toArray(new String[n]);
+        @SuppressWarnings("unchecked")
+        ToDoubleFunction<VitalSign>[] compiled = (ToDoubleFunction<VitalSign>[]) new ToDoubleFunction<?>[n];
+        builder.metrics.toArray(compiled);
+        this.metrics = compiled;
+        this.lows = new double[n];
+        this.highs = new double[n];
+        this.integral = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            lows[i] = builder.lows.get(i);
+            highs[i] = builder.highs.get(i);
+            integral[i] = builder.integral.get(i);
+        }
+    }
+
+    /**
+     * Checks whether any rule fires for a reading.
+     *
+     * @param vital The reading to check
+     * @return true if at least one value is out of range
+     */
+    public boolean isCritical(VitalSign vital) {
+        for (int i = 0; i < metrics.length; i++) {
+            if (outOfRange(i, metrics[i].applyAsDouble(vital))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates every rule against a reading.
+     *
+     * @param vital The reading to check
+     * @return The rules that fired, empty if the reading is normal
+     */
+    public List<Violation> evaluate(VitalSign vital) {
+        List<Violation> violations = null;
+        for (int i = 0; i < metrics.length; i++) {
+            double value = metrics[i].applyAsDouble(vital);
+            if (outOfRange(i, value)) {
+                if (violations == null) {
+                    violations = new ArrayList<>(2);
+                }
+                String shown = integral[i] ? String.valueOf((long) value) : String.valueOf(value);
+                violations.add(new Violation(types[i], labels[i], "Critical " + labels[i] + ": " + shown));
+            }
+        }
+        return violations == null ? Collections.emptyList() : violations;
+    }
+
+    private boolean outOfRange(int rule, double value) {
+        // NaN bounds compare false, so a missing side never fires
+        return value < lows[rule] || value > highs[rule];
+    }
+
+    /**
+     * Collects rules before compiling them into a VitalRules instance.
+     */
+    public static final class Builder {
+        private final List<String> types = new ArrayList<>();
+        private final List<String> labels = new ArrayList<>();
+        private final List<ToDoubleFunction<VitalSign>> metrics = new ArrayList<>();
+        private final List<Double> lows = new ArrayList<>();
+        private final List<Double> highs = new ArrayList<>();
+        private final List<Boolean> integral = new ArrayList<>();
+
+        /**
+         * Adds a rule that fires below low or above high.
+         *
+         * @param type Emergency type recorded when the rule fires
+         * @param label Human-readable metric name used in messages
+         * @param metric Reads the metric from a reading
+         * @param low Lowest normal value
+         * @param high Highest normal value
+         * @param integralValue Whether the value is shown without decimals
+         * @return This builder
+         */
+        public Builder range(String type, String label, ToDoubleFunction<VitalSign> metric,
+                             double low, double high, boolean integralValue) {
+            types.add(type);
+            labels.add(label);
+            metrics.add(metric);
+            lows.add(low);
+            highs.add(high);
+            integral.add(integralValue);
+            return this;
+        }
+
+        /**
+         * Adds a rule that fires only below low.
+         */
+        public Builder min(String type, String label, ToDoubleFunction<VitalSign> metric,
+                           double low, boolean integralValue) {
+            return range(type, label, metric, low, Double.NaN, integralValue);
+        }
+
+        /**
+         * Adds a rule that fires only above high.
+         */
+        public Builder max(String type, String label, ToDoubleFunction<VitalSign> metric,
+                           double high, boolean integralValue) {
+            return range(type, label, metric, Double.NaN, high, integralValue);
+        }
+
+        /**
+         * @return The compiled rule set
+         */
+        public VitalRules build() {
+            return new VitalRules(this);
+        }
+    }
+}
@@ -9,7 +9,10 @@
 package com.remotehealth.app.utils;
 
 import com.remotehealth.app.model.DatabaseManager;
+import com.remotehealth.app.model.VitalRollup;
 import com.remotehealth.app.model.VitalSign;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 public class VitalsDatabase {
@@ -68,4 +71,44 @@ public class VitalsDatabase {
             System.out.println("Error retrieving vital signs for patient " + patientId + ": " + e.getMessage());
         }
     }
+
+    /**
+     * Retrieves the raw vital signs recorded in a time range, oldest first.
+     * 
+     * @param patientId the unique identifier of the patient
+     * @param from start of the range (inclusive)
+     * @param to end of the range (exclusive)
+     * @return the vital signs in the range, or an empty list on error
+     */
+    public List<VitalSign> getVitals(String patientId, LocalDateTime from, LocalDateTime to) {
+        if (patientId == null || from == null || to == null) {
+            System.out.println("Error: Patient ID and time range cannot be null");
+            return new ArrayList<>();
+        }
+        try {
+            return dbManager.getVitalsForPatient(patientId, from, to);
+        } catch (Exception e) {
+            System.out.println("Error retrieving vital signs for patient " + patientId + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Retrieves downsampled vitals for a time range, choosing the finest rollup
+     * resolution (minute, hour or day) that fits in the requested number of points.
+     * 
+     * @param patientId the unique identifier of the patient
+     * @param from start of the range (inclusive)
+     * @param to end of the range (exclusive)
+     * @param maxPoints the maximum number of buckets wanted
+     * @return the rollups in the range, or an empty list on error
+     */
+    public List<VitalRollup> getRollups(String patientId, LocalDateTime from, LocalDateTime to, int maxPoints) {
+        if (patientId == null || from == null || to == null) {
+            System.out.println("Error: Patient ID and time range cannot be null");
+            return new ArrayList<>();
+        }
+        VitalRollup.Resolution resolution = VitalRollup.Resolution.forRange(from, to, maxPoints);
+        return dbManager.getVitalRollups(patientId, resolution, from, to);
+    }
 }
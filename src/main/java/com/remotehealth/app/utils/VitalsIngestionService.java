@@ -0,0 +1,501 @@
+/**
+ * VitalsIngestionService is a headless endpoint for remote monitoring devices.
+ * Devices connect to a local TCP socket and send one reading per line, either as
+ * CSV or as a flat JSON object:
+ *
+ *   P001,72,98,120/80,36.6,2025-05-13T10:15:30
+ *   {"patientId":"P001","heartRate":72,"oxygenLevel":98,"bloodPressure":"120/80","temperature":36.6}
+ *
+ * The timestamp is optional (ISO-8601 or epoch milliseconds) and defaults to the
+ * time the line was received. Valid readings are queued and written by a single
+ * flusher in JDBC batches once per flush window; critical readings are then run
+ * through the EmergencyAlert rules. A batch that fails to write is retried with
+ * growing pauses, during which the full queue slows the devices down, and is
+ * only given up after a bounded number of attempts.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.utils;
+
+import com.remotehealth.app.model.DatabaseManager;
+import com.remotehealth.app.model.Patient;
+import com.remotehealth.app.model.SchemaMigrations;
+import com.remotehealth.app.model.VitalSign;
+import com.remotehealth.app.service.EmergencyAlert;
+import com.remotehealth.app.service.EmergencyEventRelay;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class VitalsIngestionService implements AutoCloseable {
+
+    // Defaults, overridable with -Dingest.* system properties
+    public static final int DEFAULT_PORT = 9095;
+    private static final int DEFAULT_QUEUE_CAPACITY = 100000;
+    private static final int DEFAULT_MAX_BATCH = 5000;
+    private static final long DEFAULT_FLUSH_WINDOW_MS = 250;
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final long RETRY_BACKOFF_MS = 500;       // Doubled after each failed attempt
+    private static final long MAX_RETRY_BACKOFF_MS = 8000;
+
+    /**
+     * A validated reading waiting to be written.
+     */
+    static final class Reading {
+        final String patientId;
+        final VitalSign vital;
+
+        Reading(String patientId, VitalSign vital) {
+            this.patientId = patientId;
+            this.vital = vital;
+        }
+    }
+
+    private final DatabaseManager dbManager;
+    private final EmergencyAlert emergencyAlert;
+    private final int port;
+    private final int maxBatch;
+    private final long flushWindowMs;
+    private final int maxAttempts = Math.max(1, Integer.getInteger("ingest.maxAttempts", DEFAULT_MAX_ATTEMPTS));
+    private final BlockingQueue<Reading> queue;
+
+    private volatile boolean running;
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+    private Thread flusher;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong alerts = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * Constructs an ingestion service configured from system properties
+     * (ingest.port, ingest.queueCapacity, ingest.maxBatch, ingest.flushWindowMs,
+     * ingest.maxAttempts).
+     *
+     * @param dbManager The database manager used to store readings
+     * @param emergencyAlert The alert system whose rules are run on the stream
+     */
+    public VitalsIngestionService(DatabaseManager dbManager, EmergencyAlert emergencyAlert) {
+        this(dbManager, emergencyAlert,
+             Integer.getInteger("ingest.port", DEFAULT_PORT),
+             Integer.getInteger("ingest.queueCapacity", DEFAULT_QUEUE_CAPACITY),
+             Integer.getInteger("ingest.maxBatch", DEFAULT_MAX_BATCH),
+             Long.getLong("ingest.flushWindowMs", DEFAULT_FLUSH_WINDOW_MS));
+    }
+
+    /**
+     * Constructs an ingestion service.
+     *
+     * @param dbManager The database manager used to store readings
+     * @param emergencyAlert The alert system whose rules are run on the stream
+     * @param port The local TCP port to listen on
+     * @param queueCapacity Readings buffered before device connections are slowed down
+     * @param maxBatch Maximum readings written in one transaction
+     * @param flushWindowMs How long readings are collected before a batch is written
+     */
+    public VitalsIngestionService(DatabaseManager dbManager, EmergencyAlert emergencyAlert,
+                                  int port, int queueCapacity, int maxBatch, long flushWindowMs) {
+        this.dbManager = dbManager;
+        this.emergencyAlert = emergencyAlert;
+        this.port = port;
+        this.maxBatch = maxBatch;
+        this.flushWindowMs = flushWindowMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    // ===================== LIFECYCLE =====================
+
+    /**
+     * Opens the listening socket (bound to localhost only) and starts the acceptor and flusher threads.
+     *
+     * @throws IOException If the port cannot be bound
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        running = true;
+
+        acceptor = new Thread(this::acceptLoop, "vitals-ingest-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        flusher = new Thread(this::flushLoop, "vitals-ingest-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        System.out.println("Vitals ingestion listening on localhost:" + port);
+    }
+
+    /**
+     * Stops accepting readings, writes whatever is still queued and stops the threads.
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing ingestion socket: " + e.getMessage());
+        }
+        connections.shutdownNow();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Vitals ingestion stopped. " + getStats());
+    }
+
+    /**
+     * Returns counters describing the service's throughput.
+     *
+     * @return Formatted string with accepted, rejected, written, failed, alert and batch counts
+     */
+    public String getStats() {
+        return "Accepted: " + accepted.get() +
+               ", Rejected: " + rejected.get() +
+               ", Written: " + written.get() +
+               ", Failed: " + failed.get() +
+               ", Alerts: " + alerts.get() +
+               ", Batches: " + batches.get() +
+               ", Queued: " + queue.size();
+    }
+
+    // ===================== NETWORK SIDE =====================
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.submit(() -> handleConnection(socket));
+            } catch (SocketException e) {
+                // Socket closed by close()
+            } catch (IOException e) {
+                System.err.println("Error accepting device connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handleConnection(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(
+                 new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8), 64 * 1024)) {
+            String line;
+            while (running && (line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Reading reading;
+                try {
+                    reading = parseLine(line);
+                    if (reading == null || !isKnownPatient(reading.patientId)) {
+                        reject(line, null);
+                        continue;
+                    }
+                } catch (RuntimeException e) {
+                    // A bad line or a failed patient lookup must not drop the device's connection
+                    reject(line, e);
+                    continue;
+                }
+                // Blocks when the flusher falls behind, which pushes back on the device via TCP
+                queue.put(reading);
+                accepted.incrementAndGet();
+            }
+        } catch (IOException e) {
+            System.err.println("Device connection closed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reject(String line, RuntimeException cause) {
+        if (rejected.incrementAndGet() <= 10) {
+            System.err.println("Rejected vitals reading: " + line
+                               + (cause == null ? "" : " (" + cause + ")"));
+        }
+    }
+
+    private boolean isKnownPatient(String patientId) {
+        // Served from the patient cache after the first reading
+        return dbManager.getPatientById(patientId) != null;
+    }
+
+    // ===================== FLUSHER =====================
+
+    private void flushLoop() {
+        List<Reading> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushWindowMs);
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Reading first = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (first == null) {
+                        break;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch);
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Reading> batch) {
+        Map<String, List<VitalSign>> byPatient = new LinkedHashMap<>();
+        for (Reading reading : batch) {
+            byPatient.computeIfAbsent(reading.patientId, id -> new ArrayList<>()).add(reading.vital);
+        }
+        if (!write(byPatient, batch.size())) {
+            return;
+        }
+
+        // Only readings that break a rule cost anything beyond this loop
+        for (Reading reading : batch) {
+            if (emergencyAlert.getRules().isCritical(reading.vital)) {
+                Patient patient = dbManager.getPatientById(reading.patientId);
+                alerts.addAndGet(emergencyAlert.checkVital(patient, reading.vital, reading.vital.getAddedOnDateTime()));
+            }
+        }
+    }
+
+    /**
+     * Writes a batch, retrying with doubling pauses while the database is
+     * unavailable. The batch is one transaction, so a failed attempt leaves no
+     * rows behind to duplicate.
+     *
+     * @return true if the batch was written; false once every attempt failed
+     */
+    private boolean write(Map<String, List<VitalSign>> byPatient, int size) {
+        long backoffMs = RETRY_BACKOFF_MS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                written.addAndGet(dbManager.saveVitalsBatch(byPatient));
+                batches.incrementAndGet();
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    failed.addAndGet(size);
+                    System.err.println("Dropped vitals batch of " + size + " readings after " + attempt +
+                                       " failed attempts: " + e.getMessage());
+                    return false;
+                }
+                System.err.println("Error writing vitals batch of " + size + " (attempt " + attempt + " of " +
+                                   maxAttempts + "), retrying in " + backoffMs + " ms: " + e.getMessage());
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                // Shutting down: one more attempt without a pause, then give up
+                Thread.currentThread().interrupt();
+                backoffMs = 0;
+                attempt = Math.max(attempt, maxAttempts - 1);
+                continue;
+            }
+            backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+        }
+    }
+
+    // ===================== PARSING =====================
+
+    /**
+     * Parses and validates one line of CSV or flat JSON. A missing or empty
+     * bloodPressure means it was not recorded.
+     *
+     * @param line The raw line
+     * @return The reading, or null if the line is malformed or out of range
+     */
+    static Reading parseLine(String line) {
+        try {
+            String trimmed = line.trim();
+            Map<String, String> fields = trimmed.startsWith("{") ? parseJson(trimmed) : parseCsv(trimmed);
+            if (fields == null) {
+                return null;
+            }
+            String patientId = fields.get("patientId");
+            int heartRate = Integer.parseInt(fields.get("heartRate"));
+            int oxygenLevel = Integer.parseInt(fields.get("oxygenLevel"));
+            String bloodPressure = fields.get("bloodPressure");
+            if (bloodPressure != null && bloodPressure.isEmpty()) {
+                bloodPressure = null;
+            }
+            double temperature = Double.parseDouble(fields.get("temperature"));
+            Date addedOn = parseTimestamp(fields.get("timestamp"));
+
+            if (patientId == null || patientId.isEmpty()
+                    || heartRate < 0 || heartRate > 300
+                    || oxygenLevel < 0 || oxygenLevel > 100
+                    || temperature < 25 || temperature > 45
+                    || (bloodPressure != null && !bloodPressure.matches("\\d{2,3}/\\d{2,3}"))
+                    || addedOn == null) {
+                return null;
+            }
+            return new Reading(patientId, new VitalSign(heartRate, oxygenLevel, bloodPressure, temperature, addedOn));
+        } catch (NumberFormatException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> parseCsv(String line) {
+        String[] parts = line.split(",", -1);
+        if (parts.length < 5 || parts.length > 6) {
+            return null;
+        }
+        Map<String, String> fields = new HashMap<>();
+        fields.put("patientId", parts[0].trim());
+        fields.put("heartRate", parts[1].trim());
+        fields.put("oxygenLevel", parts[2].trim());
+        fields.put("bloodPressure", parts[3].trim());
+        fields.put("temperature", parts[4].trim());
+        if (parts.length == 6 && !parts[5].isBlank()) {
+            fields.put("timestamp", parts[5].trim());
+        }
+        return fields;
+    }
+
+    /**
+     * Parses a flat JSON object whose values are strings or numbers.
+     * Nested objects and arrays are not supported; devices send flat readings.
+     */
+    private static Map<String, String> parseJson(String json) {
+        Map<String, String> fields = new HashMap<>();
+        int i = 1;
+        int n = json.length();
+        while (i < n) {
+            i = skipWhitespace(json, i);
+            if (i >= n || json.charAt(i) == '}') {
+                return fields;
+            }
+            if (json.charAt(i) == ',') {
+                i++;
+                continue;
+            }
+            if (json.charAt(i) != '"') {
+                return null;
+            }
+            int keyEnd = json.indexOf('"', i + 1);
+            if (keyEnd < 0) {
+                return null;
+            }
+            String key = json.substring(i + 1, keyEnd);
+            i = skipWhitespace(json, keyEnd + 1);
+            if (i >= n || json.charAt(i) != ':') {
+                return null;
+            }
+            i = skipWhitespace(json, i + 1);
+            if (i >= n) {
+                return null;
+            }
+            String value;
+            if (json.charAt(i) == '"') {
+                int valueEnd = json.indexOf('"', i + 1);
+                if (valueEnd < 0) {
+                    return null;
+                }
+                value = json.substring(i + 1, valueEnd);
+                i = valueEnd + 1;
+            } else {
+                int valueEnd = i;
+                while (valueEnd < n && json.charAt(valueEnd) != ',' && json.charAt(valueEnd) != '}') {
+                    valueEnd++;
+                }
+                value = json.substring(i, valueEnd).trim();
+                i = valueEnd;
+            }
+            fields.put(key, value);
+        }
+        return null;
+    }
+
+    private static int skipWhitespace(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Date parseTimestamp(String value) {
+        if (value == null || value.isEmpty()) {
+            return new Date();
+        }
+        try {
+            if (value.chars().allMatch(Character::isDigit)) {
+                return new Date(Long.parseLong(value));
+            }
+            return java.sql.Timestamp.valueOf(LocalDateTime.parse(value));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs the ingestion service on its own, without the GUI.
+     *
+     * @param args Not used; configure with -Dingest.* system properties and the .env file
+     */
+    public static void main(String[] args) throws IOException {
+        DatabaseManager dbManager = new DatabaseManager(); // Uses the connection settings from .env
+        SchemaMigrations.apply(dbManager);
+        EmergencyAlert emergencyAlert = new EmergencyAlert(dbManager);
+        // Push alerts raised here to the doctor consoles running on this machine
+        EmergencyEventRelay relay = new EmergencyEventRelay(emergencyAlert.getEventBus(), dbManager);
+        relay.start();
+        VitalsIngestionService service = new VitalsIngestionService(dbManager, emergencyAlert);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            service.close();
+            relay.close();
+            dbManager.closeConnection();
+        }));
+        service.start();
+
+        // Print throughput every 10 seconds until the process is stopped
+        while (true) {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.out.println("Ingestion: " + service.getStats() + " | Pool: " + dbManager.getPoolMetrics());
+        }
+    }
+}
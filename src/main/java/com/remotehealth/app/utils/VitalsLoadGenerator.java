@@ -0,0 +1,107 @@
+/**
+ * VitalsLoadGenerator drives a running VitalsIngestionService with synthetic
+ * device readings at a fixed rate, so ingestion throughput can be measured
+ * locally. About one reading in a hundred is out of range, so the emergency
+ * rules are exercised as well.
+ *
+ * Usage: VitalsLoadGenerator [ratePerSecond] [seconds] [patientIds] [port] [connections]
+ *   e.g. VitalsLoadGenerator 10000 60 P001,P002,P003 9095 4
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.app.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class VitalsLoadGenerator {
+
+    private static final long TICK_MS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        String[] patientIds = (args.length > 2 ? args[2] : "P001").split(",");
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : VitalsIngestionService.DEFAULT_PORT;
+        int connections = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+
+        System.out.println("Sending " + rate + " readings/sec for " + seconds + "s over " + connections +
+                           " connections to localhost:" + port);
+
+        AtomicLong sent = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        for (int c = 0; c < connections; c++) {
+            // Spread the rate evenly, giving the remainder to the first connections
+            int share = rate / connections + (c < rate % connections ? 1 : 0);
+            Thread worker = new Thread(() -> runConnection(port, share, seconds, patientIds, sent), "load-" + c);
+            worker.start();
+            workers.add(worker);
+        }
+
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Sent %d readings in %.1fs (%.0f readings/sec)%n", sent.get(), elapsed, sent.get() / elapsed);
+    }
+
+    /**
+     * Sends readings over one connection, pacing them in 10 ms ticks.
+     */
+    private static void runConnection(int port, int ratePerSecond, int seconds, String[] patientIds, AtomicLong sent) {
+        double perTick = ratePerSecond * TICK_MS / 1000.0;
+        long ticks = seconds * 1000L / TICK_MS;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedWriter out = new BufferedWriter(
+                 new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024)) {
+            long start = System.nanoTime();
+            double owed = 0;
+            for (long tick = 0; tick < ticks; tick++) {
+                owed += perTick;
+                int lines = (int) owed;
+                owed -= lines;
+                for (int i = 0; i < lines; i++) {
+                    out.write(randomReading(patientIds));
+                    out.newLine();
+                }
+                out.flush();
+                sent.addAndGet(lines);
+
+                long next = start + TimeUnit.MILLISECONDS.toNanos((tick + 1) * TICK_MS);
+                long sleep = next - System.nanoTime();
+                if (sleep > 0) {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Load generator connection failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String randomReading(String[] patientIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String patientId = patientIds[random.nextInt(patientIds.length)];
+        boolean abnormal = random.nextInt(100) == 0;
+        int heartRate = abnormal ? 130 + random.nextInt(30) : 60 + random.nextInt(40);
+        int oxygen = 94 + random.nextInt(6);
+        int systolic = 110 + random.nextInt(20);
+        int diastolic = 70 + random.nextInt(15);
+        double temperature = Math.round((36.1 + random.nextDouble() * 1.2) * 10) / 10.0;
+        return patientId + "," + heartRate + "," + oxygen + "," + systolic + "/" + diastolic + "," +
+               temperature + "," + LocalDateTime.now().withNano(0);
+    }
+}
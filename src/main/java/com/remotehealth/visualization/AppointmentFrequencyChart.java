@@ -57,7 +57,8 @@ public class AppointmentFrequencyChart extends JPanel {
 
     // Main method to test the chart display
     public static void main(String[] args) {
-        DatabaseManager dbManager = new DatabaseManager(null); // Pass null initially, will use default connection
+        DatabaseManager dbManager = new DatabaseManager(); // Uses the connection settings from .env
+        dbManager.startAuditLog(); // The main application keeps the schema migrated
         JFrame frame = new JFrame("Appointment Frequency Chart");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.add(new AppointmentFrequencyChart(dbManager)); // Pass the dbManager to the chart
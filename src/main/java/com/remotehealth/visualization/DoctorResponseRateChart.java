@@ -42,7 +42,8 @@ public class DoctorResponseRateChart extends JPanel {
     }
 
     public static void main(String[] args) {
-        DatabaseManager dbManager = new DatabaseManager(null); // Pass null initially, will use default connection
+        DatabaseManager dbManager = new DatabaseManager(); // Uses the connection settings from .env
+        dbManager.startAuditLog(); // The main application keeps the schema migrated
         JFrame frame = new JFrame("Doctor Response Rate Chart");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.add(new DoctorResponseRateChart(dbManager)); // Pass the dbManager to the chart
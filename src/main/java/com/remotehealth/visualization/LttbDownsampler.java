@@ -0,0 +1,77 @@
+/**
+ * The LttbDownsampler reduces a time series to a fixed number of points with
+ * the Largest-Triangle-Three-Buckets algorithm. It keeps the first and last
+ * points and, from each bucket in between, the point forming the largest
+ * triangle with the previously kept point and the next bucket's average, so
+ * peaks and dips survive where plain averaging would flatten them.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.visualization;
+
+public final class LttbDownsampler {
+
+    private LttbDownsampler() {
+    }
+
+    /**
+     * Selects the points to keep.
+     *
+     * @param x X values in ascending order
+     * @param y Y values, same length as x
+     * @param threshold Maximum number of points to keep
+     * @return Indexes of the kept points in ascending order
+     */
+    public static int[] select(double[] x, double[] y, int threshold) {
+        int n = x.length;
+        if (threshold >= n || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] kept = new int[threshold];
+        int count = 0;
+        kept[count++] = 0;
+
+        // The first and last points are fixed, the rest are split into threshold - 2 buckets
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int previous = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket, the third corner of the triangle
+            int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, n);
+            nextEnd = Math.max(nextEnd, nextStart + 1);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i];
+                avgY += y[i];
+            }
+            avgX /= nextEnd - nextStart;
+            avgY /= nextEnd - nextStart;
+
+            // Point of the current bucket with the largest triangle area
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((x[previous] - avgX) * (y[i] - y[previous])
+                                       - (x[previous] - x[i]) * (avgY - y[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            kept[count++] = chosen;
+            previous = chosen;
+        }
+
+        kept[count] = n - 1;
+        return kept;
+    }
+}
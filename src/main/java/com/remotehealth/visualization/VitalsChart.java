@@ -1,77 +1,208 @@
-/*
- * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
- * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+/**
+ * The VitalsChart draws a patient's heart rate, SpO2, temperature and blood
+ * pressure as time series sharing one time axis. Data comes from a
+ * VitalsChartDataProvider, so each series holds a bounded number of points
+ * whatever the length of the history. Zooming in (drag or mouse wheel)
+ * fetches finer data for the visible range in the background; zooming back
+ * out restores the whole history.
+ *
+ * @author
+ * @version 1.0
  */
 package com.remotehealth.visualization;
 
-
-
-import org.jfree.chart.ChartFactory;
-import org.jfree.chart.ChartPanel;
-import org.jfree.chart.JFreeChart;
-import org.jfree.chart.plot.PlotOrientation;
-import org.jfree.chart.plot.CategoryPlot;
-import org.jfree.chart.renderer.category.BarRenderer;
-import org.jfree.data.category.DefaultCategoryDataset;
-import com.remotehealth.app.model.Patient;
-import javax.swing.*;
-import java.sql.*;
-import java.awt.Color;  
-import java.sql.PreparedStatement;
-import java.awt.Dimension;
 import com.remotehealth.app.model.DatabaseManager;
+import com.remotehealth.app.model.VitalRollup;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.DateAxis;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.CombinedDomainXYPlot;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.data.Range;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
 
+public class VitalsChart extends JPanel {
+    /** Points per series; roughly the chart's width in pixels */
+    private static final int MAX_POINTS = 600;
+    /** Wait for the user to stop zooming before fetching */
+    private static final int REFETCH_DELAY_MS = 300;
+
+    private final VitalsChartDataProvider dataProvider;
+    private final DateAxis timeAxis = new DateAxis("Time");
+    private final XYSeriesCollection heartRateData = new XYSeriesCollection();
+    private final XYSeriesCollection oxygenData = new XYSeriesCollection();
+    private final XYSeriesCollection temperatureData = new XYSeriesCollection();
+    private final XYSeriesCollection bloodPressureData = new XYSeriesCollection();
+    private final JLabel statusLabel = new JLabel("Loading vitals...");
+    private final Timer refetchTimer;
+
+    private SwingWorker<VitalsChartDataProvider.ChartData, Void> pendingLoad;
+    private VitalsChartDataProvider.ChartData shown;
+    private boolean updating;  // Set while new data is applied, so axis changes it causes are ignored
+
+    /**
+     * Constructs the chart and starts loading the patient's history.
+     *
+     * @param patientId The patient whose vitals are charted
+     * @param dbManager Database access manager
+     */
+    public VitalsChart(String patientId, DatabaseManager dbManager) {
+        super(new BorderLayout());
+        this.dataProvider = new VitalsChartDataProvider(dbManager, patientId, MAX_POINTS);
+
+        CombinedDomainXYPlot plot = new CombinedDomainXYPlot(timeAxis);
+        plot.setGap(8);
+        plot.add(createSubplot(heartRateData, "Heart Rate (bpm)"));
+        plot.add(createSubplot(oxygenData, "SpO2 (%)"));
+        plot.add(createSubplot(temperatureData, "Temp (°C)"));
+        plot.add(createSubplot(bloodPressureData, "BP (mmHg)"));
+
+        JFreeChart chart = new JFreeChart("Vital Signs Over Time", JFreeChart.DEFAULT_TITLE_FONT, plot, true);
+        ChartPanel chartPanel = new ChartPanel(chart) {
+            @Override
+            public void restoreAutoDomainBounds() {
+                // The auto range would only cover the zoomed data, so go back to the whole history
+                updating = true;
+                try {
+                    super.restoreAutoDomainBounds();
+                } finally {
+                    updating = false;
+                }
+                fetch(null, null);
+            }
+        };
+        chartPanel.setRangeZoomable(false);
+        chartPanel.setMouseWheelEnabled(true);
+
+        refetchTimer = new Timer(REFETCH_DELAY_MS, e -> fetchVisibleRange());
+        refetchTimer.setRepeats(false);
+        timeAxis.addChangeListener(e -> {
+            if (!updating) {
+                refetchTimer.restart();
+            }
+        });
 
+        add(chartPanel, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+        setPreferredSize(new Dimension(580, 300));
 
-public class VitalsChart extends JPanel {
-    private DatabaseManager dbManager;
-    private String patientId;
+        fetch(null, null);
+    }
 
-    // Constructor now takes patientId and dbManager
-    public VitalsChart(String patientId, DatabaseManager dbManager) {
-        this.dbManager = dbManager;
-        this.patientId = patientId;
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-
-        String query = "SELECT added_on, heartRate FROM vitals WHERE patientId = ? ORDER BY added_on";
-        
-        // Now, use the passed patientId directly
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement ps = conn.prepareStatement(query)) {
-            
-            ps.setString(1, patientId);  // Set patientId correctly
-            ResultSet rs = ps.executeQuery();
-
-            boolean hasData = false;
-
-            // Loop through the results and populate the dataset
-            while (rs.next()) {
-                String timeLabel = rs.getTimestamp("added_on").toString(); // Format it as needed
-                int heartRate = rs.getInt("heartRate");
-
-                // Add data to the dataset
-                dataset.addValue(heartRate, "Heart Rate", timeLabel);
-
-                hasData = true;
+    private static XYPlot createSubplot(XYSeriesCollection dataset, String label) {
+        NumberAxis valueAxis = new NumberAxis(label);
+        valueAxis.setAutoRangeIncludesZero(false);
+        return new XYPlot(dataset, null, valueAxis, new XYLineAndShapeRenderer(true, false));
+    }
+
+    /**
+     * Fetches data for the range currently shown on the time axis, unless it is already loaded.
+     */
+    private void fetchVisibleRange() {
+        Range range = timeAxis.getRange();
+        LocalDateTime from = toDateTime(range.getLowerBound());
+        LocalDateTime to = toDateTime(range.getUpperBound());
+        if (shown != null && from.equals(shown.getFrom()) && to.equals(shown.getTo())) {
+            return;
+        }
+        fetch(from, to);
+    }
+
+    /**
+     * Loads a range in the background, replacing any load still in progress.
+     *
+     * @param from Start of the range, or null for the whole history
+     * @param to End of the range, or null for the whole history
+     */
+    private void fetch(LocalDateTime from, LocalDateTime to) {
+        if (pendingLoad != null) {
+            pendingLoad.cancel(false);
+        }
+        statusLabel.setText("Loading vitals...");
+        pendingLoad = new SwingWorker<>() {
+            @Override
+            protected VitalsChartDataProvider.ChartData doInBackground() {
+                return from == null ? dataProvider.loadAll() : dataProvider.load(from, to);
             }
 
-            if (!hasData) {
-                System.out.println("️ No data found for patient: " + patientId);
+            @Override
+            protected void done() {
+                if (isCancelled() || pendingLoad != this) {
+                    return;
+                }
+                pendingLoad = null;
+                try {
+                    display(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Failed to load vitals chart: " + e.getMessage());
+                    statusLabel.setText("Failed to load vitals");
+                }
             }
+        };
+        pendingLoad.execute();
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+    private void display(VitalsChartDataProvider.ChartData data) {
+        updating = true;
+        try {
+            Map<String, VitalsChartDataProvider.Series> series = data.getSeries();
+            replace(heartRateData, series, VitalsChartDataProvider.HEART_RATE);
+            replace(oxygenData, series, VitalsChartDataProvider.OXYGEN);
+            replace(temperatureData, series, VitalsChartDataProvider.TEMPERATURE);
+            replace(bloodPressureData, series, VitalsChartDataProvider.SYSTOLIC, VitalsChartDataProvider.DIASTOLIC);
+        } finally {
+            updating = false;
         }
+        shown = data;
+
+        if (data.isEmpty()) {
+            statusLabel.setText("No vital signs recorded yet");
+        } else if (data.getResolution() == null) {
+            statusLabel.setText("Showing individual readings. Drag to zoom, drag left to reset.");
+        } else {
+            statusLabel.setText("Showing " + describe(data.getResolution()) +
+                                " averages. Drag to zoom in for more detail.");
+        }
+    }
 
-        // Create the chart
-        JFreeChart chart = ChartFactory.createBarChart("Heart Rate Over Time", "Time", "Heart Rate", dataset, PlotOrientation.VERTICAL, true, true, false);
-        ChartPanel chartPanel = new ChartPanel(chart);
-        this.add(chartPanel);
-        
-        this.setPreferredSize(new Dimension(580, 300));
+    private static void replace(XYSeriesCollection dataset, Map<String, VitalsChartDataProvider.Series> series,
+                                String... names) {
+        dataset.removeAllSeries();
+        for (String name : names) {
+            VitalsChartDataProvider.Series source = series.get(name);
+            XYSeries target = new XYSeries(name, false, true);
+            if (source != null) {
+                for (int i = 0; i < source.size(); i++) {
+                    target.add(source.getTime(i), source.getValue(i), false);
+                }
+            }
+            dataset.addSeries(target);
+        }
     }
 
+    private static String describe(VitalRollup.Resolution resolution) {
+        switch (resolution) {
+            case MINUTE: return "per-minute";
+            case HOUR: return "hourly";
+            default: return "daily";
+        }
+    }
 
+    private static LocalDateTime toDateTime(double millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli((long) millis), ZoneId.systemDefault());
+    }
 }
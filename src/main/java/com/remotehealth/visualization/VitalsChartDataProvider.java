@@ -0,0 +1,240 @@
+/**
+ * The VitalsChartDataProvider supplies the VitalsChart with at most a fixed
+ * number of points per series for any visible time range. Short ranges are
+ * drawn from the raw readings; longer ranges from per-bucket averages, using
+ * the finest rollup resolution that keeps the bucket count bounded. Either
+ * way each series is then reduced with LTTB, so the cost of drawing the
+ * chart does not grow with the patient's history.
+ *
+ * @author
+ * @version 1.0
+ */
+package com.remotehealth.visualization;
+
+import com.remotehealth.app.model.DatabaseManager;
+import com.remotehealth.app.model.VitalRollup;
+import com.remotehealth.app.model.VitalsSeries;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class VitalsChartDataProvider {
+
+    public static final String HEART_RATE = "Heart Rate";
+    public static final String OXYGEN = "SpO2";
+    public static final String TEMPERATURE = "Temperature";
+    public static final String SYSTOLIC = "Systolic";
+    public static final String DIASTOLIC = "Diastolic";
+
+    /** Ranges up to this long are drawn from raw readings */
+    static final Duration RAW_RANGE = Duration.ofHours(6);
+    /** Upper bound on aggregate buckets fetched before downsampling */
+    private static final int MAX_BUCKETS = 5000;
+
+    /**
+     * One series as parallel arrays of epoch milliseconds and values.
+     */
+    public static final class Series {
+        private final double[] times;
+        private final double[] values;
+
+        Series(double[] times, double[] values) {
+            this.times = times;
+            this.values = values;
+        }
+
+        public int size() { return times.length; }
+        public double getTime(int index) { return times[index]; }
+        public double getValue(int index) { return values[index]; }
+    }
+
+    /**
+     * The series for one time range and the granularity they were built from.
+     */
+    public static final class ChartData {
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final VitalRollup.Resolution resolution;
+        private final Map<String, Series> series;
+
+        ChartData(LocalDateTime from, LocalDateTime to, VitalRollup.Resolution resolution, Map<String, Series> series) {
+            this.from = from;
+            this.to = to;
+            this.resolution = resolution;
+            this.series = Collections.unmodifiableMap(series);
+        }
+
+        public LocalDateTime getFrom() { return from; }
+        public LocalDateTime getTo() { return to; }
+        /** @return The bucket size, or null for raw readings */
+        public VitalRollup.Resolution getResolution() { return resolution; }
+        /** @return Series by name, in display order */
+        public Map<String, Series> getSeries() { return series; }
+
+        public boolean isEmpty() {
+            for (Series s : series.values()) {
+                if (s.size() > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final DatabaseManager dbManager;
+    private final String patientId;
+    private final int maxPoints;
+
+    /**
+     * @param dbManager Database access manager
+     * @param patientId The patient whose vitals are charted
+     * @param maxPoints Maximum number of points per series
+     */
+    public VitalsChartDataProvider(DatabaseManager dbManager, String patientId, int maxPoints) {
+        this.dbManager = dbManager;
+        this.patientId = patientId;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Loads the patient's whole history.
+     *
+     * @return The chart data, empty if the patient has no readings
+     */
+    public ChartData loadAll() {
+        String sql = "SELECT MIN(added_on) AS first_reading, MAX(added_on) AS last_reading FROM vitals WHERE patientId = ?";
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, patientId);
+            try (ResultSet rs = ps.executeQuery()) {
+                Timestamp first = rs.next() ? rs.getTimestamp("first_reading") : null;
+                if (first == null) {
+                    LocalDateTime now = LocalDateTime.now();
+                    return new ChartData(now, now, null, new LinkedHashMap<>());
+                }
+                // The range end is exclusive, so step just past the last reading
+                return load(first.toLocalDateTime(), rs.getTimestamp("last_reading").toLocalDateTime().plusSeconds(1));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find vitals range for patient " + patientId, e);
+        }
+    }
+
+    /**
+     * Loads the series for a time range.
+     *
+     * @param from Start of the range (inclusive)
+     * @param to End of the range (exclusive)
+     * @return The chart data
+     */
+    public ChartData load(LocalDateTime from, LocalDateTime to) {
+        if (Duration.between(from, to).compareTo(RAW_RANGE) <= 0) {
+            return downsample(from, to, null, loadRaw(from, to));
+        }
+        VitalRollup.Resolution resolution = VitalRollup.Resolution.forRange(from, to, MAX_BUCKETS);
+        return downsample(from, to, resolution, loadBuckets(resolution, from, to));
+    }
+
+    private Map<String, SeriesBuilder> loadRaw(LocalDateTime from, LocalDateTime to) {
+        VitalsSeries vitals = dbManager.getVitalsSeries(patientId, from, to);
+        Map<String, SeriesBuilder> builders = newBuilders(vitals.size());
+        for (int i = 0; i < vitals.size(); i++) {
+            double time = vitals.getTime(i);
+            builders.get(HEART_RATE).add(time, vitals.getHeartRate(i));
+            builders.get(OXYGEN).add(time, vitals.getOxygenLevel(i));
+            builders.get(TEMPERATURE).add(time, vitals.getTemperature(i));
+            if (vitals.hasBloodPressure(i)) {
+                builders.get(SYSTOLIC).add(time, vitals.getSystolic(i));
+                builders.get(DIASTOLIC).add(time, vitals.getDiastolic(i));
+            }
+        }
+        return builders;
+    }
+
+    private Map<String, SeriesBuilder> loadBuckets(VitalRollup.Resolution resolution, LocalDateTime from, LocalDateTime to) {
+        List<VitalRollup> rollups = dbManager.getVitalRollups(patientId, resolution, from, to);
+        Map<String, SeriesBuilder> builders = newBuilders(rollups.size());
+        for (VitalRollup rollup : rollups) {
+            double time = toMillis(rollup.getBucketStart());
+            builders.get(HEART_RATE).add(time, rollup.getAvgHeartRate());
+            builders.get(OXYGEN).add(time, rollup.getAvgOxygenLevel());
+            builders.get(TEMPERATURE).add(time, rollup.getAvgTemperature());
+            if (rollup.getBloodPressureCount() > 0) {
+                builders.get(SYSTOLIC).add(time, rollup.getAvgSystolic());
+                builders.get(DIASTOLIC).add(time, rollup.getAvgDiastolic());
+            }
+        }
+        return builders;
+    }
+
+    private ChartData downsample(LocalDateTime from, LocalDateTime to, VitalRollup.Resolution resolution,
+                                 Map<String, SeriesBuilder> builders) {
+        Map<String, Series> series = new LinkedHashMap<>();
+        for (Map.Entry<String, SeriesBuilder> entry : builders.entrySet()) {
+            series.put(entry.getKey(), entry.getValue().build(maxPoints));
+        }
+        return new ChartData(from, to, resolution, series);
+    }
+
+    private static Map<String, SeriesBuilder> newBuilders(int capacity) {
+        Map<String, SeriesBuilder> builders = new LinkedHashMap<>();
+        for (String name : new String[] {HEART_RATE, OXYGEN, TEMPERATURE, SYSTOLIC, DIASTOLIC}) {
+            builders.put(name, new SeriesBuilder(capacity));
+        }
+        return builders;
+    }
+
+    private static double toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Growable pair of arrays, downsampled when built.
+     */
+    private static final class SeriesBuilder {
+        private double[] times;
+        private double[] values;
+        private int size;
+
+        SeriesBuilder(int capacity) {
+            times = new double[Math.max(capacity, 16)];
+            values = new double[times.length];
+        }
+
+        void add(double time, double value) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            times[size] = time;
+            values[size] = value;
+            size++;
+        }
+
+        Series build(int maxPoints) {
+            double[] t = Arrays.copyOf(times, size);
+            double[] v = Arrays.copyOf(values, size);
+            int[] kept = LttbDownsampler.select(t, v, maxPoints);
+            if (kept.length == size) {
+                return new Series(t, v);
+            }
+            double[] keptTimes = new double[kept.length];
+            double[] keptValues = new double[kept.length];
+            for (int i = 0; i < kept.length; i++) {
+                keptTimes[i] = t[kept[i]];
+                keptValues[i] = v[kept[i]];
+            }
+            return new Series(keptTimes, keptValues);
+        }
+    }
+}